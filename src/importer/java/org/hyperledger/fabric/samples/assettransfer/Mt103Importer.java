@@ -0,0 +1,138 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+
+/**
+ * Imports SWIFT MT103 files as CreatePaymentOrders batches.
+ *
+ * Messages are read one at a time with {@link Mt103Reader} and validated with
+ * {@link PaymentOrderValidator}, the rules CreatePaymentOrder applies on the
+ * ledger. Valid paymentOrders are grouped by a {@link PaymentOrderBatcher};
+ * rejected ones are reported with the same {@link PaymentOrderResult} the
+ * chaincode returns for a rejected batch entry, and never submitted.
+ *
+ * Run from the command line, every batch is written to standard output as
+ * one line holding the paymentOrdersJSON argument of CreatePaymentOrders, and
+ * every rejected message to standard error:
+ *
+ * <pre>
+ * ./gradlew importMt103 --args="payments.fin [maxPaymentOrders] [maxBatchBytes]"
+ * </pre>
+ */
+public final class Mt103Importer {
+
+    public static final int DEFAULT_MAX_PAYMENT_ORDERS = 100;
+    public static final int DEFAULT_MAX_BATCH_BYTES = 256 * 1024;
+
+    private final PaymentOrderBatcher batcher;
+    private final Consumer<PaymentOrderResult> rejections;
+    private int accepted;
+    private int rejected;
+
+    /**
+     * Creates an importer.
+     *
+     * @param batcher groups the valid paymentOrders into batches
+     * @param rejections receives every message that fails validation
+     */
+    public Mt103Importer(final PaymentOrderBatcher batcher, final Consumer<PaymentOrderResult> rejections) {
+        this.batcher = batcher;
+        this.rejections = rejections;
+    }
+
+    /**
+     * Imports every message of an MT103 file and flushes the last batch.
+     *
+     * @param input the MT103 file
+     * @throws IOException if the input cannot be read
+     */
+    public void importFrom(final Reader input) throws IOException {
+        try (Mt103Reader reader = new Mt103Reader(input)) {
+            PaymentOrder message = reader.next();
+            while (message != null) {
+                add(message);
+                message = reader.next();
+            }
+        }
+        batcher.flush();
+    }
+
+    private void add(final PaymentOrder message) {
+        PaymentOrder paymentOrder;
+        try {
+            paymentOrder = PaymentOrderValidator.validate(message);
+        } catch (ChaincodeException e) {
+            rejected++;
+            rejections.accept(PaymentOrderResult.rejected(message.getSwiftCode(), new String(e.getPayload(), StandardCharsets.UTF_8), e.getMessage()));
+            return;
+        }
+        accepted++;
+        batcher.add(paymentOrder);
+    }
+
+    /**
+     * Number of messages passed to the batcher so far.
+     *
+     * @return the number of valid messages
+     */
+    public int getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * Number of messages rejected so far.
+     *
+     * @return the number of invalid messages
+     */
+    public int getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Converts an MT103 file into CreatePaymentOrders batches.
+     *
+     * @param args the file, and optionally the maximum number of paymentOrders and bytes of a batch
+     * @throws IOException if the file cannot be read
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1 || args.length > 3) {
+            System.err.println("Usage: Mt103Importer <file> [maxPaymentOrders] [maxBatchBytes]");
+            System.exit(2);
+        }
+        int maxPaymentOrders = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_PAYMENT_ORDERS;
+        int maxBatchBytes = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_BATCH_BYTES;
+
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), false, StandardCharsets.UTF_8.name());
+        PrintStream err = new PrintStream(new FileOutputStream(FileDescriptor.err), true, StandardCharsets.UTF_8.name());
+        PaymentOrderBatcher batcher = new PaymentOrderBatcher(maxPaymentOrders, maxBatchBytes, out::println);
+        Mt103Importer importer = new Mt103Importer(batcher, result -> err.println(toJson(result)));
+        try (Reader input = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            importer.importFrom(input);
+        }
+        out.flush();
+        err.println("Imported " + importer.getAccepted() + " paymentOrders in " + batcher.getBatchCount() + " batches, rejected " + importer.getRejected());
+    }
+
+    private static String toJson(final PaymentOrderResult result) {
+        return new JsonWriter(128).beginObject()
+                .name("swiftCode").value(result.getSwiftCode())
+                .name("status").value(result.getStatus())
+                .name("error").value(result.getError())
+                .name("message").value(result.getMessage())
+                .endObject().toString();
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streaming reader of SWIFT MT103 messages that maps each message to a
+ * {@link PaymentOrder}.
+ *
+ * Only one line and the fields of the current message are held in memory, so
+ * files of any size are read in constant space. A message is the text block
+ * ({4: ... -}) of a full FIN message, or a bare sequence of fields starting
+ * with :20: and ending with a "-" line, the next :20: or the end of the file.
+ * Header and trailer blocks are skipped.
+ *
+ * <ul>
+ * <li>:20: sender's reference to swiftCode</li>
+ * <li>:32A: value date (YYMMDD), currency and amount to date (yyyyMMdd), currency and amount</li>
+ * <li>:50K: /account, name and address lines to ordererId, ordererName and ordererAddress</li>
+ * <li>:59: /account, name and address lines to receiverAccount, receiverName and receiverAddress</li>
+ * <li>:70: remittance information lines to remittanceInformation</li>
+ * <li>:71A: details of charges to chargeDetail</li>
+ * <li>:72: sender to receiver information lines to additionalInstruction</li>
+ * </ul>
+ *
+ * Messages are mapped, not validated: a missing or malformed field leaves its
+ * paymentOrder fields null or unparsed for {@link PaymentOrderValidator} to
+ * reject.
+ */
+public final class Mt103Reader implements Closeable {
+
+    private static final String TEXT_BLOCK = "{4:";
+    private static final String REFERENCE = "20";
+
+    private final BufferedReader reader;
+    private final Map<String, StringBuilder> fields = new HashMap<String, StringBuilder>();
+    private StringBuilder field;
+    private String pending;
+    private boolean inText;
+
+    public Mt103Reader(final Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    /**
+     * Reads the next message.
+     *
+     * @return the paymentOrder of the next message, or null at the end of the input
+     * @throws IOException if the input cannot be read
+     */
+    public PaymentOrder next() throws IOException {
+        String line = pending != null ? pending : reader.readLine();
+        pending = null;
+        while (line != null) {
+            if (!inText) {
+                int start = line.indexOf(TEXT_BLOCK);
+                if (start >= 0) {
+                    inText = true;
+                    line = line.substring(start + TEXT_BLOCK.length());
+                } else if (REFERENCE.equals(tag(line))) {
+                    inText = true;
+                } else {
+                    line = reader.readLine();
+                    continue;
+                }
+            }
+
+            if (line.startsWith("-")) {
+                inText = false;
+                if (!fields.isEmpty()) {
+                    return complete();
+                }
+            } else {
+                String tag = tag(line);
+                if (tag != null) {
+                    if (REFERENCE.equals(tag) && fields.containsKey(REFERENCE)) {
+                        pending = line;
+                        return complete();
+                    }
+                    field = new StringBuilder(line.substring(tag.length() + 2));
+                    fields.put(tag, field);
+                } else if (field != null) {
+                    field.append('\n').append(line);
+                }
+            }
+            line = reader.readLine();
+        }
+
+        inText = false;
+        return fields.isEmpty() ? null : complete();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Tag of a line starting a field, such as 32A for ":32A:...".
+     */
+    private static String tag(final String line) {
+        int length = line.length();
+        if (length < 4 || line.charAt(0) != ':' || !isDigit(line.charAt(1)) || !isDigit(line.charAt(2))) {
+            return null;
+        }
+        if (line.charAt(3) == ':') {
+            return line.substring(1, 3);
+        }
+        char option = line.charAt(3);
+        if (length >= 5 && option >= 'A' && option <= 'Z' && line.charAt(4) == ':') {
+            return line.substring(1, 4);
+        }
+        return null;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private PaymentOrder complete() {
+        String[] valueDate = valueDate(value("32A"));
+        String[] orderer = party(value("50K"));
+        String[] receiver = party(value("59"));
+        PaymentOrder paymentOrder = new PaymentOrder(value(REFERENCE), valueDate[0], valueDate[2], valueDate[1], orderer[1], orderer[2], orderer[0],
+                receiver[0], receiver[1], receiver[2], joinLines(value("70")), joinLines(value("72")), value("71A"));
+        fields.clear();
+        field = null;
+        return paymentOrder;
+    }
+
+    private String value(final String tag) {
+        StringBuilder value = fields.get(tag);
+        return value == null ? null : value.toString().trim();
+    }
+
+    /**
+     * Splits field 32A, such as "210121KRW70000,", into the date, currency
+     * and amount of a paymentOrder. The decimal comma becomes a point and
+     * trailing zero decimals are dropped, so "70000," and "70000,00" are both
+     * 70000; the validator then checks the scale of the currency.
+     */
+    private static String[] valueDate(final String value) {
+        if (value == null || value.length() < 10) {
+            return new String[3];
+        }
+        String date = "20" + value.substring(0, 6);
+        String currency = value.substring(6, 9);
+        String amount = value.substring(9).replace(',', '.');
+        if (amount.indexOf('.') >= 0) {
+            int end = amount.length();
+            while (end > 0 && amount.charAt(end - 1) == '0') {
+                end--;
+            }
+            if (end > 0 && amount.charAt(end - 1) == '.') {
+                end--;
+            }
+            amount = amount.substring(0, end);
+        }
+        return new String[] {date, currency, amount};
+    }
+
+    /**
+     * Splits an ordering customer (50K) or beneficiary (59) field into its
+     * account, name and address; the address lines are joined with spaces.
+     */
+    private static String[] party(final String value) {
+        String[] party = new String[3];
+        if (value == null) {
+            return party;
+        }
+        String[] lines = value.split("\n");
+        int line = 0;
+        if (lines[0].startsWith("/")) {
+            party[0] = emptyToNull(lines[0].substring(1).trim());
+            line++;
+        }
+        if (line < lines.length) {
+            party[1] = emptyToNull(lines[line].trim());
+            line++;
+        }
+        if (line < lines.length) {
+            StringBuilder address = new StringBuilder(lines[line].trim());
+            for (line++; line < lines.length; line++) {
+                address.append(' ').append(lines[line].trim());
+            }
+            party[2] = emptyToNull(address.toString());
+        }
+        return party;
+    }
+
+    private static String joinLines(final String value) {
+        if (value == null) {
+            return null;
+        }
+        StringBuilder joined = new StringBuilder(value.length());
+        for (String line : value.split("\n")) {
+            if (joined.length() > 0) {
+                joined.append(' ');
+            }
+            joined.append(line.trim());
+        }
+        return emptyToNull(joined.toString());
+    }
+
+    private static String emptyToNull(final String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
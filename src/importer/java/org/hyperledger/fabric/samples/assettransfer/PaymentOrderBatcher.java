@@ -0,0 +1,92 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.function.Consumer;
+
+/**
+ * Groups paymentOrders into JSON arrays for CreatePaymentOrders.
+ *
+ * A batch is handed to the consumer as soon as it holds the maximum number
+ * of paymentOrders, or before a paymentOrder that would take it over the
+ * maximum size in UTF-8 bytes is added. A single paymentOrder larger than the
+ * maximum size is sent as a batch of its own. Each paymentOrder is encoded
+ * once with {@link PaymentOrderCodec} and appended to a reused buffer.
+ */
+public final class PaymentOrderBatcher {
+
+    private final int maxPaymentOrders;
+    private final int maxBytes;
+    private final Consumer<String> batches;
+    private final JsonWriter batch;
+    private int size;
+    private int batchCount;
+
+    /**
+     * Creates a batcher.
+     *
+     * @param maxPaymentOrders the maximum number of paymentOrders in a batch
+     * @param maxBytes the maximum size of a batch in UTF-8 bytes
+     * @param batches receives every completed batch
+     */
+    public PaymentOrderBatcher(final int maxPaymentOrders, final int maxBytes, final Consumer<String> batches) {
+        if (maxPaymentOrders < 1) {
+            throw new IllegalArgumentException("maxPaymentOrders must be positive: " + maxPaymentOrders);
+        }
+        if (maxBytes < 2) {
+            throw new IllegalArgumentException("maxBytes must be at least 2: " + maxBytes);
+        }
+        this.maxPaymentOrders = maxPaymentOrders;
+        this.maxBytes = maxBytes;
+        this.batches = batches;
+        this.batch = new JsonWriter(Math.min(maxBytes, 64 * 1024));
+    }
+
+    /**
+     * Adds a paymentOrder to the current batch.
+     *
+     * @param paymentOrder the paymentOrder
+     */
+    public void add(final PaymentOrder paymentOrder) {
+        byte[] json = PaymentOrderCodec.encode(paymentOrder);
+        // The comma before the paymentOrder and the closing bracket.
+        if (size > 0 && batch.size() + json.length + 2 > maxBytes) {
+            flush();
+        }
+        if (size == 0) {
+            batch.reset();
+            batch.beginArray();
+        }
+        batch.rawValue(json);
+        size++;
+        if (size == maxPaymentOrders) {
+            flush();
+        }
+    }
+
+    /**
+     * Hands the current batch, if it holds any paymentOrder, to the consumer.
+     */
+    public void flush() {
+        if (size == 0) {
+            return;
+        }
+        batch.endArray();
+        String paymentOrdersJSON = batch.toString();
+        batch.reset();
+        size = 0;
+        batchCount++;
+        batches.accept(paymentOrdersJSON);
+    }
+
+    /**
+     * Number of batches handed to the consumer so far.
+     *
+     * @return the number of batches
+     */
+    public int getBatchCount() {
+        return batchCount;
+    }
+}
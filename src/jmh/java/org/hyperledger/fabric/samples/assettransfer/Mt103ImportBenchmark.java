@@ -0,0 +1,96 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.hyperledger.fabric.contract.Context;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Imports a generated MT103 file with {@link Mt103Importer}, either only
+ * parsing, validating and batching it, or also submitting every batch to
+ * CreatePaymentOrders against an {@link InMemoryLedger}. Each invocation
+ * imports the whole file into a fresh ledger, so the score is per file; the
+ * batch size parameter shows the trade-off between batch size and the
+ * per-transaction cost of the chaincode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Mt103ImportBenchmark {
+
+    private static final int MESSAGES = 1000;
+
+    @Param({"1", "50", "200"})
+    private int maxPaymentOrders;
+
+    @Param({"JSON", "BINARY"})
+    private PaymentOrderFormat storageFormat;
+
+    private String file;
+    private SwiftBc contract;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder builder = new StringBuilder(MESSAGES * 300);
+        for (int i = 0; i < MESSAGES; i++) {
+            builder.append("{1:F01WOORKRSEAXXX0000000000}{2:I103CHASUS33XXXXN}{4:\r\n")
+                    .append(":20:paymentOrder").append(i).append("\r\n")
+                    .append(":23B:CRED\r\n")
+                    .append(":32A:210121USD").append(1000 + i).append(",50\r\n")
+                    .append(":50K:/orderer").append(i % 50).append("\r\n")
+                    .append("TEST ONE TRADING CO\r\n")
+                    .append("51 SOGONG-RO JUNG-GU\r\n")
+                    .append("SEOUL KOREA\r\n")
+                    .append(":59:/0101010").append(i % 200).append("\r\n")
+                    .append("RECEIVER ONE INC\r\n")
+                    .append("350 FIFTH AVENUE NEW YORK\r\n")
+                    .append(":70:INVOICE ").append(i).append("\r\n")
+                    .append("IMPORT PAYMENT\r\n")
+                    .append(":71A:SHA\r\n")
+                    .append("-}{5:{CHK:123456789ABC}}\r\n");
+        }
+        file = builder.toString();
+        contract = new SwiftBc(storageFormat);
+    }
+
+    @Benchmark
+    public int parseAndBatch(final Blackhole blackhole) throws IOException {
+        PaymentOrderBatcher batcher = new PaymentOrderBatcher(maxPaymentOrders, Mt103Importer.DEFAULT_MAX_BATCH_BYTES, blackhole::consume);
+        new Mt103Importer(batcher, blackhole::consume).importFrom(new StringReader(file));
+        return batcher.getBatchCount();
+    }
+
+    @Benchmark
+    public int importIntoLedger(final Blackhole blackhole) throws IOException {
+        InMemoryLedger ledger = new InMemoryLedger();
+        PaymentOrderBatcher batcher = new PaymentOrderBatcher(maxPaymentOrders, Mt103Importer.DEFAULT_MAX_BATCH_BYTES, batch -> {
+            Context ctx = contract.createContext(ledger.newStub("tx" + sequence++, "CreatePaymentOrders"));
+            blackhole.consume(contract.CreatePaymentOrders(ctx, batch));
+            contract.afterTransaction(ctx, null);
+        });
+        new Mt103Importer(batcher, blackhole::consume).importFrom(new StringReader(file));
+        return ledger.size();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.owlike.genson.Genson;
+
+/**
+ * Compares the Genson path used before PaymentOrderCodec (reflection-driven
+ * serialization plus the String/UTF-8 copy of putStringState/getStringState)
+ * with the hand-written JSON codec and the binary codec.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentOrderCodecBenchmark {
+
+    private final Genson genson = new Genson();
+
+    @Param({PaymentOrderPayloads.ASCII, PaymentOrderPayloads.KOREAN, PaymentOrderPayloads.LARGE})
+    private String payload;
+
+    private PaymentOrder paymentOrder;
+    private byte[] paymentOrderJSON;
+    private byte[] paymentOrderBinary;
+
+    @Setup
+    public void setUp() {
+        paymentOrder = PaymentOrderPayloads.create(payload, "paymentOrder1");
+        paymentOrderJSON = PaymentOrderCodec.encode(paymentOrder);
+        paymentOrderBinary = PaymentOrderBinaryCodec.encode(paymentOrder);
+    }
+
+    @Benchmark
+    public byte[] gensonSerialize() {
+        return genson.serialize(paymentOrder).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] codecEncode() {
+        return PaymentOrderCodec.encode(paymentOrder);
+    }
+
+    @Benchmark
+    public PaymentOrder gensonDeserialize() {
+        return genson.deserialize(new String(paymentOrderJSON, StandardCharsets.UTF_8), PaymentOrder.class);
+    }
+
+    @Benchmark
+    public PaymentOrder codecDecode() {
+        return PaymentOrderCodec.decode(paymentOrderJSON);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return PaymentOrderBinaryCodec.encode(paymentOrder);
+    }
+
+    @Benchmark
+    public PaymentOrder binaryDecode() {
+        return PaymentOrderBinaryCodec.decode(paymentOrderBinary);
+    }
+}
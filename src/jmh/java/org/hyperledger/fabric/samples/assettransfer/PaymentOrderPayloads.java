@@ -0,0 +1,46 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+/**
+ * PaymentOrder payloads shared by the benchmarks, selected with the
+ * "payload" benchmark parameter.
+ *
+ * <ul>
+ * <li>ascii: short single-byte fields</li>
+ * <li>korean: the InitLedger sample with multi-byte Korean names and addresses</li>
+ * <li>large: Korean fields with a remittance text of about 2 KB of UTF-8</li>
+ * </ul>
+ */
+final class PaymentOrderPayloads {
+
+    static final String ASCII = "ascii";
+    static final String KOREAN = "korean";
+    static final String LARGE = "large";
+
+    private PaymentOrderPayloads() {
+    }
+
+    static PaymentOrder create(final String payload, final String swiftCode) {
+        switch (payload) {
+            case ASCII:
+                return new PaymentOrder(swiftCode, "20210121", "70000.50", "USD", "Test One", "Seoul", "orderer1", "010101010101", "receiver1", "New York", "payment", "none", "1");
+            case KOREAN:
+                return new PaymentOrder(swiftCode, "20210121", "70000", "KRW", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", "재주껏 바꿔써라", "1");
+            case LARGE:
+                return new PaymentOrder(swiftCode, "20210121", "70000", "KRW", "테스트1 주식회사 해외송금 담당자", "서울특별시 중구 소공로 51 우리은행 본점 12층", "orderer1", "010101010101", "receiver1", "미국 뉴욕주 뉴욕시 맨해튼 5번가 350", repeat("원화를 보낸다. 수입 대금 결제 및 관련 수수료. ", 30), repeat("재주껏 바꿔써라. ", 10), "1");
+            default:
+                throw new IllegalArgumentException("Unknown payload " + payload);
+        }
+    }
+
+    private static String repeat(final String value, final int count) {
+        StringBuilder builder = new StringBuilder(value.length() * count);
+        for (int i = 0; i < count; i++) {
+            builder.append(value);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hyperledger.fabric.contract.Context;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs SwiftBc transactions end to end (context creation, transaction body
+ * and afterTransaction flush) against an {@link InMemoryLedger}, so the
+ * numbers cover the chaincode cost without the peer round trips.
+ *
+ * Throughput and sampled latency percentiles come from the benchmark modes;
+ * allocation rate comes from the gc profiler configured in build.gradle.
+ * With metrics on, transactions are measured and handed to an exporter that
+ * drops them, so the difference to metrics off is the recording overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SwiftBcBenchmark {
+
+    private static final int PRELOADED = 1000;
+
+    @Param({PaymentOrderPayloads.ASCII, PaymentOrderPayloads.KOREAN, PaymentOrderPayloads.LARGE})
+    private String payload;
+
+    @Param({"JSON", "BINARY", "DICTIONARY"})
+    private PaymentOrderFormat storageFormat;
+
+    @Param({"false", "true"})
+    private boolean metrics;
+
+    private SwiftBc contract;
+    private InMemoryLedger ledger;
+    private PaymentOrder template;
+    private long sequence;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        contract = new SwiftBc(storageFormat, metrics ? SwiftBcMetrics.enabled(transaction -> { }) : SwiftBcMetrics.DISABLED);
+        ledger = new InMemoryLedger();
+        template = PaymentOrderPayloads.create(payload, "template");
+        TransactionState preload = TransactionState.writeThrough(ledger.newStub("preload"), new PaymentOrderCodeTable());
+        for (int i = 0; i < PRELOADED; i++) {
+            PaymentOrder paymentOrder = PaymentOrderPayloads.create(payload, swiftCode(i));
+            ledger.put(paymentOrder.getSwiftCode(), storageFormat.encode(paymentOrder, preload.getCodes()));
+        }
+        sequence = PRELOADED;
+    }
+
+    @Benchmark
+    public PaymentOrder createPaymentOrder() {
+        Context ctx = contract.createContext(ledger.newStub("tx" + sequence, "CreatePaymentOrder"));
+        PaymentOrder created = contract.CreatePaymentOrder(ctx, swiftCode(sequence++), template.getDate(), template.getAmount(), template.getCurrency(),
+                template.getOrdererName(), template.getOrdererAddress(), template.getOrdererId(), template.getReceiverAccount(), template.getReceiverName(),
+                template.getReceiverAddress(), template.getRemittanceInformation(), template.getAdditionalInstruction(), template.getChargeDetail());
+        contract.afterTransaction(ctx, created);
+        return created;
+    }
+
+    @Benchmark
+    public PaymentOrder readPaymentOrder() {
+        Context ctx = contract.createContext(ledger.newStub("read", "ReadPaymentOrder"));
+        PaymentOrder paymentOrder = contract.ReadPaymentOrder(ctx, swiftCode(sequence++ % PRELOADED));
+        contract.afterTransaction(ctx, paymentOrder);
+        return paymentOrder;
+    }
+
+    @Benchmark
+    public boolean paymentOrderExists() {
+        Context ctx = contract.createContext(ledger.newStub("exists", "PaymentOrderExists"));
+        boolean exists = contract.PaymentOrderExists(ctx, swiftCode(sequence++ % PRELOADED));
+        contract.afterTransaction(ctx, exists);
+        return exists;
+    }
+
+    private static String swiftCode(final long n) {
+        return "paymentOrder" + n;
+    }
+}
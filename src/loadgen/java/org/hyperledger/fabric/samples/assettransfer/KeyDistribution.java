@@ -0,0 +1,62 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Zipf distribution over the indexes 0 to n - 1 of a key space: index k is
+ * drawn with a probability proportional to 1 / (k + 1)^skew. A skew of 0 is
+ * uniform; around 1 a few hot keys take most of the traffic.
+ */
+public final class KeyDistribution {
+
+    private final int keys;
+    private final double[] cumulative;
+
+    /**
+     * Creates a distribution.
+     *
+     * @param keys the size of the key space
+     * @param skew the Zipf exponent, 0 for a uniform distribution
+     */
+    public KeyDistribution(final int keys, final double skew) {
+        if (keys < 1) {
+            throw new IllegalArgumentException("keys must be positive: " + keys);
+        }
+        if (skew < 0) {
+            throw new IllegalArgumentException("skew must not be negative: " + skew);
+        }
+        this.keys = keys;
+        if (skew == 0) {
+            this.cumulative = null;
+            return;
+        }
+        this.cumulative = new double[keys];
+        double sum = 0;
+        for (int k = 0; k < keys; k++) {
+            sum += 1 / Math.pow(k + 1, skew);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < keys; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    /**
+     * Draws a key index.
+     *
+     * @param random the source of randomness of the calling thread
+     * @return the index, 0 being the most frequent one
+     */
+    public int next(final Random random) {
+        if (cumulative == null) {
+            return random.nextInt(keys);
+        }
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, keys - 1);
+    }
+}
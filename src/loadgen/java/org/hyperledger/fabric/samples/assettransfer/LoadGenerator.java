@@ -0,0 +1,303 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeException;
+
+/**
+ * Drives SwiftBc with concurrent clients against an {@link MvccLedger}, to
+ * find where the chaincode stops scaling before block size and throughput
+ * targets are raised on a network.
+ *
+ * Every client thread picks transaction functions at random with the weights
+ * of the mix, and the paymentOrders they settle, read or check with the key
+ * distribution, then executes the function, submits its writes and waits for
+ * the validation before the next one, like a client of the Gateway.
+ * Supported functions are CreatePaymentOrder and CreatePaymentOrders, which
+ * create new paymentOrders, ReadPaymentOrder, SettlePaymentOrder and
+ * GetPaymentOrderStatus on the preloaded paymentOrders, and GetDailyTotals
+ * and CompactAggregates on the aggregate deltas of the creates.
+ *
+ * Run it with the loadTest Gradle task, for example:
+ *
+ * <pre>
+ * ./gradlew loadTest --args='--threads=32 --duration=30 --skew=0.99 --mix=SettlePaymentOrder=60,CreatePaymentOrder=30,CompactAggregates=10'
+ * </pre>
+ */
+public final class LoadGenerator {
+
+    public static final String CREATE_PAYMENT_ORDER = "CreatePaymentOrder";
+    public static final String CREATE_PAYMENT_ORDERS = "CreatePaymentOrders";
+    public static final String READ_PAYMENT_ORDER = "ReadPaymentOrder";
+    public static final String SETTLE_PAYMENT_ORDER = "SettlePaymentOrder";
+    public static final String GET_PAYMENT_ORDER_STATUS = "GetPaymentOrderStatus";
+    public static final String GET_DAILY_TOTALS = "GetDailyTotals";
+    public static final String COMPACT_AGGREGATES = "CompactAggregates";
+
+    public static final String DEFAULT_MIX = "ReadPaymentOrder=40,GetPaymentOrderStatus=10,SettlePaymentOrder=25,CreatePaymentOrder=15,"
+            + "CreatePaymentOrders=5,GetDailyTotals=3,CompactAggregates=2";
+
+    private static final String CURRENCY = "USD";
+    private static final String DATE = "20210121";
+    private static final int COMPACT_LIMIT = 100;
+
+    private final SwiftBc contract;
+    private final MvccLedger ledger;
+    private final KeyDistribution keys;
+    private final String[] functions;
+    private final int[] cumulativeWeights;
+    private final int batchSize;
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Creates a generator.
+     *
+     * @param contract the contract to drive
+     * @param ledger the ledger, preloaded with {@link #preload(MvccLedger, PaymentOrderFormat, int)}
+     * @param keys the distribution of the preloaded paymentOrders
+     * @param mix the weight of every function, as parsed by {@link #parseMix(String)}
+     * @param batchSize the number of paymentOrders of a CreatePaymentOrders transaction
+     */
+    public LoadGenerator(final SwiftBc contract, final MvccLedger ledger, final KeyDistribution keys, final Map<String, Integer> mix, final int batchSize) {
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("The mix is empty");
+        }
+        this.contract = contract;
+        this.ledger = ledger;
+        this.keys = keys;
+        this.functions = mix.keySet().toArray(new String[0]);
+        this.cumulativeWeights = new int[functions.length];
+        int total = 0;
+        for (int i = 0; i < functions.length; i++) {
+            total += mix.get(functions[i]);
+            cumulativeWeights[i] = total;
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Parses a mix such as "ReadPaymentOrder=80,SettlePaymentOrder=20".
+     *
+     * @param mix the comma separated function=weight pairs
+     * @return the weight by function, in the given order
+     * @throws IllegalArgumentException if a function is not supported or a weight is not positive
+     */
+    public static Map<String, Integer> parseMix(final String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<String, Integer>();
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected function=weight but was " + entry);
+            }
+            String function = pair[0].trim();
+            switch (function) {
+                case CREATE_PAYMENT_ORDER:
+                case CREATE_PAYMENT_ORDERS:
+                case READ_PAYMENT_ORDER:
+                case SETTLE_PAYMENT_ORDER:
+                case GET_PAYMENT_ORDER_STATUS:
+                case GET_DAILY_TOTALS:
+                case COMPACT_AGGREGATES:
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported function " + function);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 1) {
+                throw new IllegalArgumentException("The weight of " + function + " must be positive: " + weight);
+            }
+            weights.put(function, weight);
+        }
+        return weights;
+    }
+
+    /**
+     * Writes the paymentOrders the key distribution picks from, as
+     * paymentOrder0 to paymentOrder{count - 1}.
+     *
+     * @param ledger the ledger
+     * @param storageFormat the storage format of the contract
+     * @param count the number of paymentOrders
+     */
+    public static void preload(final MvccLedger ledger, final PaymentOrderFormat storageFormat, final int count) {
+        for (int i = 0; i < count; i++) {
+            ledger.preload(swiftCode(i), storageFormat.encode(paymentOrder(swiftCode(i))));
+        }
+    }
+
+    /**
+     * Runs the clients and waits for them.
+     *
+     * @param threads the number of concurrent clients
+     * @param durationMillis how long the clients keep submitting transactions
+     * @return the statistics of every function
+     */
+    public LoadReport run(final int threads, final long durationMillis) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        long blocks = ledger.getBlocks();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Map<String, LoadReport.FunctionStats>>> clients = new ArrayList<Future<Map<String, LoadReport.FunctionStats>>>(threads);
+            for (int i = 0; i < threads; i++) {
+                clients.add(executor.submit(() -> client(deadline)));
+            }
+            Map<String, LoadReport.FunctionStats> merged = new HashMap<String, LoadReport.FunctionStats>();
+            for (Future<Map<String, LoadReport.FunctionStats>> client : clients) {
+                for (Map.Entry<String, LoadReport.FunctionStats> entry : client.get().entrySet()) {
+                    merged.computeIfAbsent(entry.getKey(), function -> new LoadReport.FunctionStats()).merge(entry.getValue());
+                }
+            }
+            return new LoadReport(merged, System.nanoTime() - start, ledger.getBlocks() - blocks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The load run was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A client failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<String, LoadReport.FunctionStats> client(final long deadline) {
+        Random random = new Random();
+        Map<String, LoadReport.FunctionStats> stats = new HashMap<String, LoadReport.FunctionStats>();
+        while (System.nanoTime() < deadline) {
+            String function = nextFunction(random);
+            MvccLedger.Transaction transaction = ledger.newTransaction("load" + sequence.incrementAndGet(), function);
+            long start = System.nanoTime();
+            MvccLedger.ValidationCode code;
+            try {
+                Context ctx = contract.createContext(transaction.getStub());
+                Object result = invoke(function, ctx, random);
+                contract.afterTransaction(ctx, result);
+                code = transaction.isReadOnly() ? MvccLedger.ValidationCode.VALID : transaction.submit().join();
+            } catch (ChaincodeException e) {
+                code = null;
+            }
+            stats.computeIfAbsent(function, name -> new LoadReport.FunctionStats()).record(code, System.nanoTime() - start);
+        }
+        return stats;
+    }
+
+    private String nextFunction(final Random random) {
+        int weight = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < functions.length; i++) {
+            if (weight < cumulativeWeights[i]) {
+                return functions[i];
+            }
+        }
+        throw new IllegalStateException("No function for weight " + weight);
+    }
+
+    private Object invoke(final String function, final Context ctx, final Random random) {
+        switch (function) {
+            case CREATE_PAYMENT_ORDER:
+                PaymentOrder paymentOrder = paymentOrder("new" + ctx.getStub().getTxId());
+                return contract.CreatePaymentOrder(ctx, paymentOrder.getSwiftCode(), paymentOrder.getDate(), paymentOrder.getAmount(),
+                        paymentOrder.getCurrency(), paymentOrder.getOrdererName(), paymentOrder.getOrdererAddress(), paymentOrder.getOrdererId(),
+                        paymentOrder.getReceiverAccount(), paymentOrder.getReceiverName(), paymentOrder.getReceiverAddress(),
+                        paymentOrder.getRemittanceInformation(), paymentOrder.getAdditionalInstruction(), paymentOrder.getChargeDetail());
+            case CREATE_PAYMENT_ORDERS:
+                return contract.CreatePaymentOrders(ctx, batch("new" + ctx.getStub().getTxId() + "-"));
+            case READ_PAYMENT_ORDER:
+                return contract.ReadPaymentOrder(ctx, swiftCode(keys.next(random)));
+            case SETTLE_PAYMENT_ORDER:
+                return contract.SettlePaymentOrder(ctx, swiftCode(keys.next(random)));
+            case GET_PAYMENT_ORDER_STATUS:
+                return contract.GetPaymentOrderStatus(ctx, swiftCode(keys.next(random)));
+            case GET_DAILY_TOTALS:
+                return contract.GetDailyTotals(ctx, CURRENCY, DATE);
+            case COMPACT_AGGREGATES:
+                return contract.CompactAggregates(ctx, CURRENCY, DATE, COMPACT_LIMIT);
+            default:
+                throw new IllegalArgumentException("Unsupported function " + function);
+        }
+    }
+
+    private String batch(final String swiftCodePrefix) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < batchSize; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(new String(PaymentOrderCodec.encode(paymentOrder(swiftCodePrefix + i)), StandardCharsets.UTF_8));
+        }
+        return json.append(']').toString();
+    }
+
+    private static String swiftCode(final int key) {
+        return "paymentOrder" + key;
+    }
+
+    private static PaymentOrder paymentOrder(final String swiftCode) {
+        return new PaymentOrder(swiftCode, DATE, "70000.50", CURRENCY, "Test One", "Seoul", "orderer1", "010101010101", "receiver1", "New York", "payment",
+                "none", "1");
+    }
+
+    /**
+     * Runs a load test and prints the report.
+     *
+     * Options, all optional: --threads (16), --duration in seconds (10),
+     * --keys, the number of preloaded paymentOrders (10000), --skew, the Zipf
+     * exponent of the key distribution (0.99, 0 for uniform), --mix
+     * ({@value #DEFAULT_MIX}), --batchSize of CreatePaymentOrders (10),
+     * --blockSize (10), --batchTimeoutMs (2000) and --format, the storage
+     * format (BINARY).
+     *
+     * @param args the options, as --name=value
+     */
+    public static void main(final String[] args) {
+        Map<String, String> options = new HashMap<String, String>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but was " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        int threads = Integer.parseInt(option(options, "threads", "16"));
+        long durationMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(option(options, "duration", "10")));
+        int keyCount = Integer.parseInt(option(options, "keys", "10000"));
+        double skew = Double.parseDouble(option(options, "skew", "0.99"));
+        Map<String, Integer> mix = parseMix(option(options, "mix", DEFAULT_MIX));
+        int batchSize = Integer.parseInt(option(options, "batchSize", "10"));
+        int blockSize = Integer.parseInt(option(options, "blockSize", "10"));
+        long batchTimeoutMillis = Long.parseLong(option(options, "batchTimeoutMs", "2000"));
+        PaymentOrderFormat storageFormat = PaymentOrderFormat.parse(option(options, "format", PaymentOrderFormat.BINARY.name()));
+        if (!options.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options " + Collections.unmodifiableSet(options.keySet()));
+        }
+
+        try (MvccLedger ledger = new MvccLedger(blockSize, batchTimeoutMillis)) {
+            preload(ledger, storageFormat, keyCount);
+            LoadGenerator generator = new LoadGenerator(new SwiftBc(storageFormat), ledger, new KeyDistribution(keyCount, skew), mix, batchSize);
+            System.out.printf("%d threads, %d keys, skew %s, block size %d, batch timeout %d ms, %s storage%n", threads, keyCount, skew, blockSize,
+                    batchTimeoutMillis, storageFormat);
+            generator.run(threads, durationMillis).print(System.out);
+        }
+    }
+
+    private static String option(final Map<String, String> options, final String name, final String defaultValue) {
+        String value = options.remove(name);
+        return value == null ? defaultValue : value;
+    }
+}
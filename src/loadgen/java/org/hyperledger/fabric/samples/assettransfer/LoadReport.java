@@ -0,0 +1,184 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a {@link LoadGenerator} run, per transaction function.
+ *
+ * A transaction is valid when it was committed, or when it wrote nothing and
+ * so was only evaluated. Conflicts are transactions invalidated by the MVCC
+ * validation, errors are transactions rejected by the chaincode during
+ * execution. Latencies run from the start of the execution to the
+ * validation of the block, or to the end of the execution for evaluations.
+ */
+public final class LoadReport {
+
+    private final Map<String, FunctionStats> functions;
+    private final long elapsedNanos;
+    private final long blocks;
+
+    LoadReport(final Map<String, FunctionStats> functions, final long elapsedNanos, final long blocks) {
+        this.functions = Collections.unmodifiableMap(new TreeMap<String, FunctionStats>(functions));
+        this.elapsedNanos = elapsedNanos;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Statistics per transaction function.
+     *
+     * @return the statistics by function name, in name order
+     */
+    public Map<String, FunctionStats> getFunctions() {
+        return functions;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * Valid transactions per second over every function.
+     *
+     * @return the throughput
+     */
+    public double getTps() {
+        long valid = 0;
+        for (FunctionStats stats : functions.values()) {
+            valid += stats.getValid();
+        }
+        return perSecond(valid);
+    }
+
+    /**
+     * Prints one line per function.
+     *
+     * @param out the stream to print to
+     */
+    public void print(final PrintStream out) {
+        out.printf(Locale.ROOT, "%-22s %9s %9s %9s %9s %8s %8s %9s %9s %9s %9s%n", "function", "invoked", "valid", "mvcc", "phantom", "errors",
+                "conflict", "tps", "p50 ms", "p95 ms", "p99 ms");
+        for (Map.Entry<String, FunctionStats> entry : functions.entrySet()) {
+            FunctionStats stats = entry.getValue();
+            out.printf(Locale.ROOT, "%-22s %9d %9d %9d %9d %8d %7.2f%% %9.1f %9.3f %9.3f %9.3f%n", entry.getKey(), stats.getInvocations(), stats.getValid(),
+                    stats.getMvccConflicts(), stats.getPhantomConflicts(), stats.getErrors(), stats.getConflictRate() * 100, perSecond(stats.getValid()),
+                    millis(stats.getLatencyPercentile(50)), millis(stats.getLatencyPercentile(95)), millis(stats.getLatencyPercentile(99)));
+        }
+        out.printf(Locale.ROOT, "%d blocks in %.1f s, %.1f tps%n", blocks, elapsedNanos / 1e9, getTps());
+    }
+
+    private double perSecond(final long count) {
+        return elapsedNanos == 0 ? 0 : count * 1e9 / elapsedNanos;
+    }
+
+    private static double millis(final long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /** Counters and latencies of one transaction function. */
+    public static final class FunctionStats {
+
+        private long invocations;
+        private long valid;
+        private long mvccConflicts;
+        private long phantomConflicts;
+        private long errors;
+        private long[] latencies = new long[64];
+        private int latencyCount;
+        private boolean sorted;
+
+        void record(final MvccLedger.ValidationCode code, final long latencyNanos) {
+            invocations++;
+            if (code == null) {
+                errors++;
+            } else if (code == MvccLedger.ValidationCode.MVCC_READ_CONFLICT) {
+                mvccConflicts++;
+            } else if (code == MvccLedger.ValidationCode.PHANTOM_READ_CONFLICT) {
+                phantomConflicts++;
+            } else {
+                valid++;
+            }
+            addLatency(latencyNanos);
+        }
+
+        void merge(final FunctionStats other) {
+            invocations += other.invocations;
+            valid += other.valid;
+            mvccConflicts += other.mvccConflicts;
+            phantomConflicts += other.phantomConflicts;
+            errors += other.errors;
+            for (int i = 0; i < other.latencyCount; i++) {
+                addLatency(other.latencies[i]);
+            }
+        }
+
+        private void addLatency(final long latencyNanos) {
+            if (latencyCount == latencies.length) {
+                latencies = Arrays.copyOf(latencies, latencyCount * 2);
+            }
+            latencies[latencyCount++] = latencyNanos;
+            sorted = false;
+        }
+
+        public long getInvocations() {
+            return invocations;
+        }
+
+        public long getValid() {
+            return valid;
+        }
+
+        public long getMvccConflicts() {
+            return mvccConflicts;
+        }
+
+        public long getPhantomConflicts() {
+            return phantomConflicts;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * Share of the executed transactions invalidated by a conflict.
+         *
+         * @return the rate between 0 and 1; transactions rejected by the chaincode are not counted
+         */
+        public double getConflictRate() {
+            long executed = invocations - errors;
+            return executed == 0 ? 0 : (mvccConflicts + phantomConflicts) / (double) executed;
+        }
+
+        /**
+         * Exact latency percentile, by the nearest-rank method.
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @return the latency in nanoseconds, 0 when nothing was recorded
+         */
+        public long getLatencyPercentile(final double percentile) {
+            if (latencyCount == 0) {
+                return 0;
+            }
+            if (!sorted) {
+                Arrays.sort(latencies, 0, latencyCount);
+                sorted = true;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * latencyCount);
+            return latencies[Math.max(0, Math.min(rank, latencyCount) - 1)];
+        }
+    }
+}
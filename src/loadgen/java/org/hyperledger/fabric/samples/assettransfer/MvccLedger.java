@@ -0,0 +1,452 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+
+/**
+ * {@link InMemoryLedger} with the execute-order-validate flow of a peer, for
+ * simulating concurrent load and contention.
+ *
+ * A transaction is executed against the committed state, like an
+ * endorsement: its stub records the version of every key it reads and the
+ * keys and versions its range queries handed out, and buffers its writes.
+ * As on a peer, a transaction cannot both write and run a paginated query,
+ * which only read-only transactions may use.
+ * Submitted transactions are cut into blocks by an orderer thread, when a
+ * block is full or the batch timeout expires since its first transaction,
+ * and validated in block order. A transaction whose read keys changed
+ * version since it was executed is invalidated with MVCC_READ_CONFLICT, one
+ * whose range queries would now hand out other keys or versions with
+ * PHANTOM_READ_CONFLICT, and its writes are dropped. Only the results the
+ * chaincode iterated over are compared, so a scan that stopped early is not
+ * invalidated by keys beyond the last one it read. The writes of a valid
+ * transaction are visible to the transactions validated after it.
+ *
+ * Private data, history and rich queries are not simulated.
+ */
+public final class MvccLedger implements Closeable {
+
+    /** Outcome of the validation of a submitted transaction. */
+    public enum ValidationCode {
+        VALID,
+        MVCC_READ_CONFLICT,
+        PHANTOM_READ_CONFLICT
+    }
+
+    private static final Long ABSENT = -1L;
+
+    private final InMemoryLedger committed = new InMemoryLedger();
+    private final Map<String, Long> versions = new HashMap<String, Long>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final BlockingQueue<Transaction> submitted = new LinkedBlockingQueue<Transaction>();
+    private final int blockSize;
+    private final long batchTimeoutNanos;
+    private final Thread orderer;
+    private volatile boolean closed;
+    private long version;
+    private long blocks;
+
+    /**
+     * Creates a ledger and starts its orderer.
+     *
+     * @param blockSize the maximum number of transactions in a block
+     * @param batchTimeoutMillis the time a block waits for more transactions after its first one
+     */
+    public MvccLedger(final int blockSize, final long batchTimeoutMillis) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        }
+        this.blockSize = blockSize;
+        this.batchTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(batchTimeoutMillis);
+        this.orderer = new Thread(this::order, "mvcc-orderer");
+        this.orderer.setDaemon(true);
+        this.orderer.start();
+    }
+
+    /**
+     * Writes a value to the committed state, outside of any transaction.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    public void preload(final String key, final byte[] value) {
+        lock.writeLock().lock();
+        try {
+            committed.put(key, value);
+            versions.put(key, ++version);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads a committed value.
+     *
+     * @param key the key
+     * @return the value, null when the key does not exist
+     */
+    public byte[] get(final String key) {
+        lock.readLock().lock();
+        try {
+            return committed.get(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Starts the execution of a transaction.
+     *
+     * @param txId the transaction id
+     * @param function the function name reported by the stub
+     * @return the transaction, whose stub is passed to the contract
+     */
+    public Transaction newTransaction(final String txId, final String function) {
+        return new Transaction(txId, function);
+    }
+
+    /**
+     * Number of blocks committed so far.
+     *
+     * @return the number of blocks
+     */
+    public long getBlocks() {
+        lock.readLock().lock();
+        try {
+            return blocks;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stops the orderer after the transactions already submitted are validated.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            orderer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void order() {
+        List<Transaction> block = new ArrayList<Transaction>(blockSize);
+        try {
+            while (!closed || !submitted.isEmpty()) {
+                Transaction first = submitted.poll(10, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                block.add(first);
+                long deadline = System.nanoTime() + batchTimeoutNanos;
+                while (block.size() < blockSize) {
+                    long wait = deadline - System.nanoTime();
+                    Transaction next = wait > 0 ? submitted.poll(wait, TimeUnit.NANOSECONDS) : submitted.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    block.add(next);
+                }
+                commit(block);
+                block.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void commit(final List<Transaction> block) {
+        lock.writeLock().lock();
+        try {
+            blocks++;
+            for (Transaction transaction : block) {
+                ValidationCode code = validate(transaction);
+                if (code == ValidationCode.VALID) {
+                    for (Map.Entry<String, byte[]> write : transaction.writes.entrySet()) {
+                        if (write.getValue() == null) {
+                            committed.remove(write.getKey());
+                            versions.remove(write.getKey());
+                        } else {
+                            committed.put(write.getKey(), write.getValue());
+                            versions.put(write.getKey(), ++version);
+                        }
+                    }
+                }
+                transaction.validation.complete(code);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private ValidationCode validate(final Transaction transaction) {
+        for (Map.Entry<String, Long> read : transaction.reads.entrySet()) {
+            if (!read.getValue().equals(version(read.getKey()))) {
+                return ValidationCode.MVCC_READ_CONFLICT;
+            }
+        }
+        for (RangeRead rangeRead : transaction.rangeReads) {
+            if (!rangeRead.isValid(committed.newStub(transaction.txId))) {
+                return ValidationCode.PHANTOM_READ_CONFLICT;
+            }
+        }
+        return ValidationCode.VALID;
+    }
+
+    private Long version(final String key) {
+        Long keyVersion = versions.get(key);
+        return keyVersion == null ? ABSENT : keyVersion;
+    }
+
+    /** One executed transaction and its read and write sets. */
+    public final class Transaction {
+
+        private final String txId;
+        private final ChaincodeStub stub;
+        private final Map<String, Long> reads = new HashMap<String, Long>();
+        private final Map<String, byte[]> writes = new LinkedHashMap<String, byte[]>();
+        private final List<RangeRead> rangeReads = new ArrayList<RangeRead>();
+        private final CompletableFuture<ValidationCode> validation = new CompletableFuture<ValidationCode>();
+        private boolean paginated;
+
+        Transaction(final String txId, final String function) {
+            this.txId = txId;
+            this.stub = (ChaincodeStub) Proxy.newProxyInstance(ChaincodeStub.class.getClassLoader(),
+                    new Class<?>[] {ChaincodeStub.class}, new ExecutionHandler(this, committed.newStub(txId, function)));
+        }
+
+        public ChaincodeStub getStub() {
+            return stub;
+        }
+
+        /**
+         * Checks whether the transaction wrote anything, which is what makes
+         * it worth submitting.
+         *
+         * @return true if the write set is empty
+         */
+        public boolean isReadOnly() {
+            return writes.isEmpty();
+        }
+
+        /**
+         * Submits the transaction for ordering and validation.
+         *
+         * @return the outcome of the validation, once the block of the transaction is committed
+         */
+        public CompletableFuture<ValidationCode> submit() {
+            submitted.add(this);
+            return validation;
+        }
+    }
+
+    /** Executes stub calls for a transaction against the committed state. */
+    private final class ExecutionHandler implements InvocationHandler {
+
+        private final Transaction transaction;
+        private final ChaincodeStub committedStub;
+
+        ExecutionHandler(final Transaction transaction, final ChaincodeStub committedStub) {
+            this.transaction = transaction;
+            this.committedStub = committedStub;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getState":
+                    lock.readLock().lock();
+                    try {
+                        String key = (String) args[0];
+                        if (!transaction.reads.containsKey(key)) {
+                            transaction.reads.put(key, version(key));
+                        }
+                        return committedStub.getState(key);
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                case "putState":
+                    requireNotPaginated();
+                    transaction.writes.put((String) args[0], Arrays.copyOf((byte[]) args[1], ((byte[]) args[1]).length));
+                    return null;
+                case "delState":
+                    requireNotPaginated();
+                    transaction.writes.put((String) args[0], null);
+                    return null;
+                case "getStateByRange":
+                case "getStateByPartialCompositeKey":
+                    lock.readLock().lock();
+                    try {
+                        RangeRead rangeRead = new RangeRead(method, args);
+                        transaction.rangeReads.add(rangeRead);
+                        return rangeRead.execute(committedStub);
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                case "getStateByRangeWithPagination":
+                case "getStateByPartialCompositeKeyWithPagination":
+                    if (!transaction.writes.isEmpty()) {
+                        throw new IllegalStateException("txid [" + transaction.txId + "]: unsuccessful attempt to execute paginated query in a transaction with writes");
+                    }
+                    transaction.paginated = true;
+                    lock.readLock().lock();
+                    try {
+                        return call(method, args);
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                case "setEvent":
+                    return null;
+                case "getStringState":
+                case "putStringState":
+                case "getPrivateData":
+                case "putPrivateData":
+                case "getHistoryForKey":
+                case "getQueryResult":
+                case "getQueryResultWithPagination":
+                    throw new UnsupportedOperationException("The MVCC ledger does not simulate " + method.getName());
+                case "toString":
+                    return "MvccChaincodeStub[" + transaction.txId + "]";
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    return call(method, args);
+            }
+        }
+
+        private void requireNotPaginated() {
+            if (transaction.paginated) {
+                throw new IllegalStateException("txid [" + transaction.txId + "]: unsuccessful attempt to update state after a paginated query");
+            }
+        }
+
+        private Object call(final Method method, final Object[] args) throws Throwable {
+            try {
+                return method.invoke(committedStub, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * A range or partial composite key query and the keys and versions it
+     * handed out, up to where the chaincode stopped iterating.
+     */
+    private final class RangeRead {
+
+        private final Method method;
+        private final Object[] args;
+        private final List<String> consumed = new ArrayList<String>();
+        private boolean exhausted;
+
+        RangeRead(final Method method, final Object[] args) {
+            this.method = method;
+            this.args = args == null ? null : args.clone();
+        }
+
+        /**
+         * Runs the query, returning an iterator that records every result it
+         * hands out with the version it had when the query ran.
+         */
+        QueryResultsIterator<KeyValue> execute(final ChaincodeStub stub) {
+            List<KeyValue> results = query(stub);
+            List<String> keyVersions = new ArrayList<String>(results.size());
+            for (KeyValue result : results) {
+                keyVersions.add(result.getKey() + '@' + version(result.getKey()));
+            }
+            return new QueryResultsIterator<KeyValue>() {
+                @Override
+                public Iterator<KeyValue> iterator() {
+                    return new Iterator<KeyValue>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            if (next < results.size()) {
+                                return true;
+                            }
+                            exhausted = true;
+                            return false;
+                        }
+
+                        @Override
+                        public KeyValue next() {
+                            if (next >= results.size()) {
+                                throw new NoSuchElementException();
+                            }
+                            consumed.add(keyVersions.get(next));
+                            return results.get(next++);
+                        }
+                    };
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+
+        /**
+         * Checks that the query, run against the committed state, hands out
+         * the same keys and versions, and no more if the chaincode iterated
+         * to the end.
+         */
+        boolean isValid(final ChaincodeStub stub) {
+            List<KeyValue> results = query(stub);
+            if (exhausted ? results.size() != consumed.size() : results.size() < consumed.size()) {
+                return false;
+            }
+            for (int i = 0; i < consumed.size(); i++) {
+                String key = results.get(i).getKey();
+                if (!consumed.get(i).equals(key + '@' + version(key))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private List<KeyValue> query(final ChaincodeStub stub) {
+            List<KeyValue> results = new ArrayList<KeyValue>();
+            try {
+                QueryResultsIterator<?> iterator = (QueryResultsIterator<?>) method.invoke(stub, args);
+                for (Object result : iterator) {
+                    results.add((KeyValue) result);
+                }
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("The range query could not be executed", e);
+            }
+            return results;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Value of an agg~currency~date~txId entry: the number of paymentOrders and
+ * their total amount in minor units that one transaction added to a
+ * currency and date, or a checkpoint rolled up by CompactAggregates. Both
+ * numbers are stored as varints.
+ */
+public final class AggregateDelta {
+
+    public static final AggregateDelta ZERO = new AggregateDelta(0, 0);
+
+    private final long count;
+    private final long amountMinorUnits;
+
+    public AggregateDelta(final long count, final long amountMinorUnits) {
+        this.count = count;
+        this.amountMinorUnits = amountMinorUnits;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getAmountMinorUnits() {
+        return amountMinorUnits;
+    }
+
+    /**
+     * Adds another delta to this one.
+     *
+     * @param other the delta to add
+     * @return the sum
+     * @throws ArithmeticException if the total amount overflows
+     */
+    public AggregateDelta plus(final AggregateDelta other) {
+        return new AggregateDelta(count + other.count, Math.addExact(amountMinorUnits, other.amountMinorUnits));
+    }
+
+    /**
+     * Encodes the stored value of this delta.
+     *
+     * @return the stored value
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(12);
+        Varints.write(out, count);
+        Varints.write(out, amountMinorUnits);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a stored delta value.
+     *
+     * @param value the stored value
+     * @return the delta
+     * @throws IllegalArgumentException if the value is truncated
+     */
+    public static AggregateDelta decode(final byte[] value) {
+        long count = Varints.read(value, 0);
+        return new AggregateDelta(count, Varints.read(value, Varints.length(count)));
+    }
+}
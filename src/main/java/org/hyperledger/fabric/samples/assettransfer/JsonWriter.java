@@ -0,0 +1,233 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Compact JSON writer that encodes straight into a growable UTF-8 byte buffer.
+ * Values already stored as JSON on the ledger can be appended as-is with
+ * {@link #rawValue(byte[])}, so list results are streamed without decoding
+ * and re-encoding every record. Strings are escaped the same way Genson does.
+ */
+public final class JsonWriter {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final char LINE_SEPARATOR = 0x2028;
+    private static final char PARAGRAPH_SEPARATOR = 0x2029;
+
+    private byte[] buffer;
+    private int count;
+    private boolean needsComma;
+    private boolean afterName;
+
+    public JsonWriter() {
+        this(256);
+    }
+
+    public JsonWriter(final int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public JsonWriter beginObject() {
+        beforeValue();
+        write('{');
+        needsComma = false;
+        return this;
+    }
+
+    public JsonWriter endObject() {
+        write('}');
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter beginArray() {
+        beforeValue();
+        write('[');
+        needsComma = false;
+        return this;
+    }
+
+    public JsonWriter endArray() {
+        write(']');
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter name(final String name) {
+        if (needsComma) {
+            write(',');
+        }
+        writeString(name);
+        write(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(final String value) {
+        beforeValue();
+        if (value == null) {
+            write(NULL, 0, NULL.length);
+        } else {
+            writeString(value);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter value(final long value) {
+        beforeValue();
+        byte[] digits = Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+        write(digits, 0, digits.length);
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter value(final boolean value) {
+        beforeValue();
+        if (value) {
+            write(TRUE, 0, TRUE.length);
+        } else {
+            write(FALSE, 0, FALSE.length);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter nullValue() {
+        return value((String) null);
+    }
+
+    /**
+     * Appends an already encoded JSON value.
+     *
+     * @param json UTF-8 encoded JSON value
+     * @return this writer
+     */
+    public JsonWriter rawValue(final byte[] json) {
+        beforeValue();
+        write(json, 0, json.length);
+        needsComma = true;
+        return this;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public void reset() {
+        count = 0;
+        needsComma = false;
+        afterName = false;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, count, StandardCharsets.UTF_8);
+    }
+
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+        } else if (needsComma) {
+            write(',');
+        }
+    }
+
+    private void writeString(final String value) {
+        int length = value.length();
+        ensureCapacity(length * 6 + 2);
+        buffer[count++] = '"';
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c < 0x20 || c == '"' || c == '\\') {
+                    writeEscaped(c);
+                } else {
+                    buffer[count++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                buffer[count++] = (byte) (0xc0 | (c >> 6));
+                buffer[count++] = (byte) (0x80 | (c & 0x3f));
+            } else if (c == LINE_SEPARATOR || c == PARAGRAPH_SEPARATOR) {
+                writeEscaped(c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[count++] = (byte) (0xf0 | (codePoint >> 18));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                buffer[count++] = (byte) (0x80 | (codePoint & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                buffer[count++] = '?';
+            } else {
+                buffer[count++] = (byte) (0xe0 | (c >> 12));
+                buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                buffer[count++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        buffer[count++] = '"';
+    }
+
+    private void writeEscaped(final char c) {
+        ensureCapacity(6);
+        buffer[count++] = '\\';
+        switch (c) {
+            case '"':
+                buffer[count++] = '"';
+                break;
+            case '\\':
+                buffer[count++] = '\\';
+                break;
+            case '\t':
+                buffer[count++] = 't';
+                break;
+            case '\b':
+                buffer[count++] = 'b';
+                break;
+            case '\n':
+                buffer[count++] = 'n';
+                break;
+            case '\r':
+                buffer[count++] = 'r';
+                break;
+            case '\f':
+                buffer[count++] = 'f';
+                break;
+            default:
+                buffer[count++] = 'u';
+                buffer[count++] = HEX[(c >> 12) & 0xf];
+                buffer[count++] = HEX[(c >> 8) & 0xf];
+                buffer[count++] = HEX[(c >> 4) & 0xf];
+                buffer[count++] = HEX[c & 0xf];
+                break;
+        }
+    }
+
+    private void write(final char c) {
+        ensureCapacity(1);
+        buffer[count++] = (byte) c;
+    }
+
+    private void write(final byte[] bytes, final int offset, final int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, count, length);
+        count += length;
+    }
+
+    private void ensureCapacity(final int extra) {
+        if (count + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, count + extra));
+        }
+    }
+}
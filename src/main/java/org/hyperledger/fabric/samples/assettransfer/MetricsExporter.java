@@ -0,0 +1,24 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+/**
+ * Receives every completed SwiftBc transaction when metrics are enabled.
+ *
+ * The default exporter writes one structured log line per transaction. A
+ * Prometheus-style exporter can instead ignore the individual transactions
+ * and serve the cumulative counters and histograms of
+ * {@link SwiftBcMetrics#getFunctions()} when it is scraped.
+ */
+public interface MetricsExporter {
+
+    /**
+     * Exports a completed transaction. Called on the transaction thread, so
+     * implementations must be thread-safe and should not block.
+     *
+     * @param transaction the measurements of the transaction
+     */
+    void export(TransactionMetrics transaction);
+}
@@ -14,6 +14,8 @@ import com.owlike.genson.annotation.JsonProperty;
 @DataType()
 public final class PaymentOrder {
 
+    private static final long UNPARSED = -2L;
+
     @Property()
     private String swiftCode;               // 참조번호
     @Property()
@@ -41,6 +43,10 @@ public final class PaymentOrder {
     @Property()
     private String chargeDetail;            // 수수료 징수구분(부담자 구분)
 
+    private transient long amountMinorUnits = UNPARSED;     // 금액 (통화 최소단위)
+    private transient int epochDay;                         // 일자 (1970-01-01 기준 일수)
+    private transient boolean epochDayParsed;
+
     public PaymentOrder(@JsonProperty("swiftCode") final String swiftCode, @JsonProperty("date") final String date, @JsonProperty("amount") final String amount, @JsonProperty("currency") final String currency, @JsonProperty("ordererName") final String ordererName, @JsonProperty("ordererAddress") final String ordererAddress, @JsonProperty("ordererId") final String ordererId, @JsonProperty("receiverAccount") final String receiverAccount, @JsonProperty("receiverName") final String receiverName, @JsonProperty("receiverAddress") final String receiverAddress, @JsonProperty("remittanceInformation") final String remittanceInformation, @JsonProperty("additionalInstruction") final String additionalInstruction, @JsonProperty("chargeDetail") final String chargeDetail) {
         this.swiftCode = swiftCode;
         this.date = date;
@@ -96,6 +102,32 @@ public final class PaymentOrder {
     public String getChargeDetail() {
         return chargeDetail;
     }
+
+    /**
+     * The amount as a scaled long in minor units of the currency, parsed on first use.
+     *
+     * @return the amount in minor units, or {@link PaymentOrderValidator#INVALID_AMOUNT}
+     */
+    public long amountMinorUnits() {
+        if (amountMinorUnits == UNPARSED) {
+            amountMinorUnits = PaymentOrderValidator.tryParseAmount(amount, currency);
+        }
+        return amountMinorUnits;
+    }
+
+    /**
+     * The date as days since 1970-01-01, parsed on first use.
+     *
+     * @return the epoch day, or {@link PaymentOrderValidator#INVALID_DATE}
+     */
+    public int epochDay() {
+        if (!epochDayParsed) {
+            epochDay = PaymentOrderValidator.tryParseDate(date);
+            epochDayParsed = true;
+        }
+        return epochDay;
+    }
+
     @Override
     public boolean equals(final Object obj) {
         if (this == obj) {
@@ -0,0 +1,362 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding of {@link PaymentOrder}.
+ *
+ * A record starts with a one byte version header followed by the fields in
+ * declaration order. Version 1 writes every field as a varint of
+ * (UTF-8 length + 1), zero meaning null, followed by the UTF-8 bytes.
+ * Version 2 adds a flags byte after the header; when the amount and date are
+ * in canonical form they are stored typed, the amount as a varint of minor
+ * units and the date as a zig-zag varint epoch day. Version 3 has the same
+ * layout with more flags: currency and chargeDetail may each be stored as
+ * a varint id of the {@link PaymentOrderCodeTable}, which is then needed to
+ * decode the record.
+ * The version byte can never start a JSON document, which is how
+ * {@link PaymentOrderFormat#decode(byte[])} tells the two formats apart.
+ *
+ * Dates, currency, chargeDetail and addresses are decoded to canonical instances
+ * of {@link Utf8Interner#PAYMENT_ORDER_FIELDS}, so reading many records does
+ * not allocate the same strings over and over.
+ */
+public final class PaymentOrderBinaryCodec {
+
+    public static final byte VERSION_1 = 0x01;
+    public static final byte VERSION_2 = 0x02;
+    public static final byte VERSION_3 = 0x03;
+
+    private static final int TYPED_AMOUNT = 0x01;
+    private static final int TYPED_DATE = 0x02;
+    private static final int CODED_CURRENCY = 0x04;
+    private static final int CODED_CHARGE_DETAIL = 0x08;
+
+    private static final PaymentOrderCodeTable.Codes NO_CODES = PaymentOrderCodeTable.DISABLED.bind(null);
+    private static final CachedDate[] DATES = new CachedDate[256];
+
+    private PaymentOrderBinaryCodec() {
+    }
+
+    /**
+     * Checks whether a stored value uses the binary encoding.
+     *
+     * @param value the stored value
+     * @return true if the value starts with a binary version header
+     */
+    public static boolean isBinary(final byte[] value) {
+        return value.length > 0 && (value[0] == VERSION_1 || value[0] == VERSION_2 || value[0] == VERSION_3);
+    }
+
+    /**
+     * Checks whether a stored value references the code table.
+     *
+     * @param value the stored value
+     * @return true if the value is a version 3 record
+     */
+    public static boolean isCoded(final byte[] value) {
+        return value.length > 0 && value[0] == VERSION_3;
+    }
+
+    /**
+     * Encodes a paymentOrder with binary version 2, which does not need the
+     * code table.
+     *
+     * @param paymentOrder the paymentOrder to encode
+     * @return the binary record
+     */
+    public static byte[] encode(final PaymentOrder paymentOrder) {
+        return encode(paymentOrder, VERSION_2, NO_CODES);
+    }
+
+    /**
+     * Encodes a paymentOrder with binary version 3, storing the coded fields
+     * as ids of the code table and defining the values it does not hold yet.
+     *
+     * @param paymentOrder the paymentOrder to encode
+     * @param codes the codes of the transaction
+     * @return the binary record
+     */
+    public static byte[] encode(final PaymentOrder paymentOrder, final PaymentOrderCodeTable.Codes codes) {
+        return encode(paymentOrder, VERSION_3, codes);
+    }
+
+    private static byte[] encode(final PaymentOrder paymentOrder, final byte version, final PaymentOrderCodeTable.Codes codes) {
+        String currency = paymentOrder.getCurrency();
+        long amountMinorUnits = paymentOrder.amountMinorUnits();
+        boolean typedAmount = amountMinorUnits > 0 && PaymentOrderValidator.formatAmount(amountMinorUnits, currency).equals(paymentOrder.getAmount());
+        int epochDay = paymentOrder.epochDay();
+        boolean typedDate = epochDay != PaymentOrderValidator.INVALID_DATE && PaymentOrderValidator.formatDate(epochDay).equals(paymentOrder.getDate());
+
+        int currencyId = codes.idOf(PaymentOrderCodeTable.Field.CURRENCY, currency);
+        int chargeDetailId = codes.idOf(PaymentOrderCodeTable.Field.CHARGE_DETAIL, paymentOrder.getChargeDetail());
+
+        Writer writer = new Writer(256);
+        writer.writeByte(version);
+        writer.writeByte((typedAmount ? TYPED_AMOUNT : 0) | (typedDate ? TYPED_DATE : 0)
+                | (currencyId != PaymentOrderCodeTable.NOT_CODED ? CODED_CURRENCY : 0)
+                | (chargeDetailId != PaymentOrderCodeTable.NOT_CODED ? CODED_CHARGE_DETAIL : 0));
+        writer.writeString(paymentOrder.getSwiftCode());
+        if (typedDate) {
+            writer.writeVarint((epochDay << 1) ^ (epochDay >> 31));
+        } else {
+            writer.writeString(paymentOrder.getDate());
+        }
+        if (typedAmount) {
+            writer.writeVarint(amountMinorUnits);
+        } else {
+            writer.writeString(paymentOrder.getAmount());
+        }
+        writer.writeCodedString(currencyId, currency);
+        writer.writeString(paymentOrder.getOrdererName());
+        writer.writeString(paymentOrder.getOrdererAddress());
+        writer.writeString(paymentOrder.getOrdererId());
+        writer.writeString(paymentOrder.getReceiverAccount());
+        writer.writeString(paymentOrder.getReceiverName());
+        writer.writeString(paymentOrder.getReceiverAddress());
+        writer.writeString(paymentOrder.getRemittanceInformation());
+        writer.writeString(paymentOrder.getAdditionalInstruction());
+        writer.writeCodedString(chargeDetailId, paymentOrder.getChargeDetail());
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decodes a binary record of version 1 or 2.
+     *
+     * @param value the binary record
+     * @return the decoded paymentOrder
+     * @throws IllegalArgumentException if the record is truncated, of an unknown version or references the code table
+     */
+    public static PaymentOrder decode(final byte[] value) {
+        return decode(value, NO_CODES);
+    }
+
+    /**
+     * Decodes a binary record of any supported version.
+     *
+     * @param value the binary record
+     * @param codes the codes of the transaction, resolving the ids of version 3 records
+     * @return the decoded paymentOrder
+     * @throws IllegalArgumentException if the record is truncated, of an unknown version or references an unknown id
+     */
+    public static PaymentOrder decode(final byte[] value, final PaymentOrderCodeTable.Codes codes) {
+        Reader reader = new Reader(value);
+        byte version = reader.readByte();
+        int flags;
+        if (version == VERSION_1) {
+            flags = 0;
+        } else if (version == VERSION_2 || version == VERSION_3) {
+            flags = reader.readByte();
+        } else {
+            throw new IllegalArgumentException("Unsupported PaymentOrder binary version " + version);
+        }
+
+        String swiftCode = reader.readString();
+        String date;
+        if ((flags & TYPED_DATE) != 0) {
+            int zigZag = (int) reader.readVarint();
+            date = formatDate((zigZag >>> 1) ^ -(zigZag & 1));
+        } else {
+            date = reader.readInternedString();
+        }
+        boolean typedAmount = (flags & TYPED_AMOUNT) != 0;
+        long amountMinorUnits = typedAmount ? reader.readVarint() : 0;
+        String amount = typedAmount ? null : reader.readString();
+        String currency = reader.readCodedString(flags, CODED_CURRENCY, PaymentOrderCodeTable.Field.CURRENCY, codes);
+        if (typedAmount) {
+            amount = PaymentOrderValidator.formatAmount(amountMinorUnits, currency);
+        }
+        String ordererName = reader.readString();
+        String ordererAddress = reader.readInternedString();
+        String ordererId = reader.readString();
+        String receiverAccount = reader.readString();
+        String receiverName = reader.readString();
+        String receiverAddress = reader.readInternedString();
+        String remittanceInformation = reader.readString();
+        String additionalInstruction = reader.readString();
+        String chargeDetail = reader.readCodedString(flags, CODED_CHARGE_DETAIL, PaymentOrderCodeTable.Field.CHARGE_DETAIL, codes);
+        return new PaymentOrder(swiftCode, date, amount, currency, ordererName, ordererAddress, ordererId, receiverAccount, receiverName, receiverAddress, remittanceInformation, additionalInstruction, chargeDetail);
+    }
+
+    /**
+     * Formats an epoch day, reusing the instance formatted last for the same
+     * slot of a small direct-mapped cache.
+     */
+    private static String formatDate(final int epochDay) {
+        int slot = epochDay & (DATES.length - 1);
+        CachedDate cached = DATES[slot];
+        if (cached != null && cached.epochDay == epochDay) {
+            return cached.formatted;
+        }
+        String formatted = Utf8Interner.PAYMENT_ORDER_FIELDS.intern(PaymentOrderValidator.formatDate(epochDay));
+        DATES[slot] = new CachedDate(epochDay, formatted);
+        return formatted;
+    }
+
+    private static final class CachedDate {
+
+        private final int epochDay;
+        private final String formatted;
+
+        CachedDate(final int epochDay, final String formatted) {
+            this.epochDay = epochDay;
+            this.formatted = formatted;
+        }
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer;
+        private int count;
+
+        Writer(final int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        void writeByte(final int value) {
+            ensureCapacity(1);
+            buffer[count++] = (byte) value;
+        }
+
+        void writeVarint(final long value) {
+            ensureCapacity(Varints.MAX_LENGTH);
+            count = Varints.write(buffer, count, value);
+        }
+
+        void writeCodedString(final int id, final String value) {
+            if (id == PaymentOrderCodeTable.NOT_CODED) {
+                writeString(value);
+            } else {
+                writeVarint(id);
+            }
+        }
+
+        void writeString(final String value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            int length = value.length();
+            writeVarint(utf8Length(value) + 1);
+            ensureCapacity(length * 3);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    buffer[count++] = (byte) c;
+                } else if (c < 0x800) {
+                    buffer[count++] = (byte) (0xc0 | (c >> 6));
+                    buffer[count++] = (byte) (0x80 | (c & 0x3f));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[count++] = (byte) (0xf0 | (codePoint >> 18));
+                    buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                    buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                    buffer[count++] = (byte) (0x80 | (codePoint & 0x3f));
+                } else if (Character.isSurrogate(c)) {
+                    buffer[count++] = '?';
+                } else {
+                    buffer[count++] = (byte) (0xe0 | (c >> 12));
+                    buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    buffer[count++] = (byte) (0x80 | (c & 0x3f));
+                }
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, count);
+        }
+
+        private static int utf8Length(final String value) {
+            int length = value.length();
+            int bytes = 0;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    bytes += 1;
+                } else if (c < 0x800) {
+                    bytes += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    bytes += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    bytes += 1;
+                } else {
+                    bytes += 3;
+                }
+            }
+            return bytes;
+        }
+
+        private void ensureCapacity(final int extra) {
+            if (count + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, count + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] value;
+        private int pos;
+
+        Reader(final byte[] value) {
+            this.value = value;
+        }
+
+        byte readByte() {
+            if (pos >= value.length) {
+                throw truncated();
+            }
+            return value[pos++];
+        }
+
+        long readVarint() {
+            long result = Varints.read(value, pos);
+            pos += Varints.length(result);
+            return result;
+        }
+
+        String readString() {
+            return readString(false);
+        }
+
+        String readInternedString() {
+            return readString(true);
+        }
+
+        String readCodedString(final int flags, final int codedFlag, final PaymentOrderCodeTable.Field field, final PaymentOrderCodeTable.Codes codes) {
+            if ((flags & codedFlag) == 0) {
+                return readInternedString();
+            }
+            long id = readVarint();
+            if (id >= PaymentOrderCodeTable.MAX_CODES) {
+                throw new IllegalArgumentException("Malformed code " + id + " of " + field + " in PaymentOrder record at offset " + pos);
+            }
+            return codes.valueOf(field, (int) id);
+        }
+
+        private String readString(final boolean intern) {
+            long header = readVarint();
+            if (header == 0) {
+                return null;
+            }
+            long length = header - 1;
+            if (length > value.length - pos) {
+                throw truncated();
+            }
+            String result = intern ? Utf8Interner.PAYMENT_ORDER_FIELDS.intern(value, pos, (int) length)
+                    : new String(value, pos, (int) length, StandardCharsets.UTF_8);
+            pos += (int) length;
+            return result;
+        }
+
+        private IllegalArgumentException truncated() {
+            return new IllegalArgumentException("Truncated PaymentOrder record at offset " + pos);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Payload of the chaincode event SwiftBc sets on every transaction that
+ * creates paymentOrders or requests status changes.
+ *
+ * A transaction can only set one event, so every change of the transaction
+ * is listed in a single JSON object:
+ *
+ * <pre>
+ * {"txId":"...","timestamp":"2021-01-21T00:00:00Z","changes":[
+ *   {"type":"CREATED","paymentOrder":{...}},
+ *   {"type":"STATUS","swiftCode":"...","status":"SETTLED","reason":null}]}
+ * </pre>
+ *
+ * A created paymentOrder is written as {@link PaymentOrderCodec} JSON, as
+ * it is held on the world state: the full paymentOrder for a public one, the
+ * public view (swiftCode, date, amount and currency) for a private one. A
+ * STATUS change is a request; listeners fold the requests of a paymentOrder
+ * in commit order by the same rules as GetPaymentOrderStatus, so a request
+ * may not be applied.
+ */
+public final class PaymentOrderChanges {
+
+    public static final String EVENT_NAME = "PaymentOrderChanges";
+
+    public static final String CREATED = "CREATED";
+    public static final String STATUS = "STATUS";
+
+    private PaymentOrderChanges() {
+    }
+
+    /**
+     * Encodes the creation of a paymentOrder.
+     *
+     * @param paymentOrder the created paymentOrder, as visible on the world state
+     * @return the change
+     */
+    public static byte[] created(final PaymentOrder paymentOrder) {
+        JsonWriter writer = new JsonWriter(512);
+        writer.beginObject().name("type").value(CREATED).name("paymentOrder");
+        PaymentOrderCodec.encode(paymentOrder, writer);
+        return writer.endObject().toByteArray();
+    }
+
+    /**
+     * Encodes a requested status change.
+     *
+     * @param swiftCode the swiftCode of the paymentOrder
+     * @param status the requested status
+     * @param reason the reason, null if none
+     * @return the change
+     */
+    public static byte[] status(final String swiftCode, final PaymentOrderStatus status, final String reason) {
+        return new JsonWriter(128).beginObject()
+                .name("type").value(STATUS)
+                .name("swiftCode").value(swiftCode)
+                .name("status").value(status.name())
+                .name("reason").value(reason)
+                .endObject().toByteArray();
+    }
+
+    /**
+     * Encodes the event payload of a transaction.
+     *
+     * @param txId the transaction id
+     * @param timestamp the transaction timestamp, null if unknown
+     * @param changes the encoded changes, in the order they were made
+     * @return the event payload
+     */
+    public static byte[] encode(final String txId, final Instant timestamp, final List<byte[]> changes) {
+        int size = 96;
+        for (byte[] change : changes) {
+            size += change.length + 1;
+        }
+        JsonWriter writer = new JsonWriter(size);
+        writer.beginObject()
+                .name("txId").value(txId)
+                .name("timestamp").value(timestamp == null ? null : timestamp.toString())
+                .name("changes").beginArray();
+        for (byte[] change : changes) {
+            writer.rawValue(change);
+        }
+        return writer.endArray().endObject().toByteArray();
+    }
+}
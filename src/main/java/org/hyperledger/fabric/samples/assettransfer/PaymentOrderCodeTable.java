@@ -0,0 +1,146 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.nio.charset.StandardCharsets;
+
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+
+/**
+ * Ledger-resident code table of the low-cardinality PaymentOrder fields, so
+ * records written with {@link PaymentOrderFormat#DICTIONARY} hold a small
+ * integer id instead of the repeated currency and chargeDetail strings.
+ *
+ * Every field has its own ids, allocated in order from 0 the first time a
+ * value is written. An id is stored under code~field~id, its value under
+ * codeId~field~value and the next free id under codeCount~field, so every
+ * endorser assigns the same id from the same state. Only creates that bring
+ * a new value read and write the count, and so conflict with each other;
+ * once the few values in use are defined, creates only read their ids.
+ * Addresses and other fields with many distinct values are never coded, as
+ * almost every create would then contend on the count. Values over 128
+ * UTF-8 bytes, values that cannot be part of a composite key and values
+ * arriving after a field has 1024 ids are stored inline.
+ *
+ * Entries are always read through the {@link TransactionState} of the
+ * transaction, never from memory kept across transactions, so the read set
+ * of a proposal is the same on every endorser whatever it served before.
+ * Decoded values are canonical instances of
+ * {@link Utf8Interner#PAYMENT_ORDER_FIELDS}.
+ */
+public final class PaymentOrderCodeTable {
+
+    /** Fields stored as ids. */
+    public enum Field {
+        CURRENCY,
+        CHARGE_DETAIL
+    }
+
+    /** Returned by {@link Codes#idOf(Field, String)} for a value stored inline. */
+    public static final int NOT_CODED = -1;
+
+    /** Code table that never assigns ids; records referencing ids cannot be decoded with it. */
+    public static final PaymentOrderCodeTable DISABLED = new PaymentOrderCodeTable(false);
+
+    static final int MAX_CODES = 1024;
+    static final int MAX_VALUE_BYTES = 128;
+
+    private static final String CODES = "code~field~id";
+    private static final String CODE_IDS = "codeId~field~value";
+    private static final String CODE_COUNTS = "codeCount~field";
+
+    private final boolean enabled;
+
+    public PaymentOrderCodeTable() {
+        this(true);
+    }
+
+    private PaymentOrderCodeTable(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Binds the code table to the state of a transaction.
+     *
+     * @param state the state of the transaction
+     * @return the codes of the transaction
+     */
+    public Codes bind(final TransactionState state) {
+        return new Codes(state);
+    }
+
+    private static boolean isCodable(final String value) {
+        return value != null && !value.isEmpty() && value.length() <= MAX_VALUE_BYTES && value.indexOf('\u0000') < 0 && !value.contains("\udbff\udfff")
+                && value.getBytes(StandardCharsets.UTF_8).length <= MAX_VALUE_BYTES;
+    }
+
+    private static int parseId(final byte[] value) {
+        try {
+            return Integer.parseInt(new String(value, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed code table entry", e);
+        }
+    }
+
+    private static byte[] encodeId(final int id) {
+        return Integer.toString(id).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** Codes of one transaction, reading and defining entries through its state. */
+    public final class Codes {
+
+        private final TransactionState state;
+
+        Codes(final TransactionState state) {
+            this.state = state;
+        }
+
+        /**
+         * Resolves the id of a value, defining it when it is new.
+         *
+         * @param field the field
+         * @param value the value
+         * @return the id, {@link #NOT_CODED} when the value is to be stored inline
+         */
+        public int idOf(final Field field, final String value) {
+            if (!enabled || !isCodable(value)) {
+                return NOT_CODED;
+            }
+            byte[] stored = state.getState(new CompositeKey(CODE_IDS, field.name(), value).toString());
+            if (stored.length > 0) {
+                return parseId(stored);
+            }
+            String countKey = new CompositeKey(CODE_COUNTS, field.name()).toString();
+            byte[] count = state.getState(countKey);
+            int next = count.length == 0 ? 0 : parseId(count);
+            if (next >= MAX_CODES) {
+                return NOT_CODED;
+            }
+            state.putState(new CompositeKey(CODES, field.name(), Integer.toString(next)).toString(), value.getBytes(StandardCharsets.UTF_8));
+            state.putState(new CompositeKey(CODE_IDS, field.name(), value).toString(), encodeId(next));
+            state.putState(countKey, encodeId(next + 1));
+            return next;
+        }
+
+        /**
+         * Resolves the value of an id.
+         *
+         * @param field the field
+         * @param id the id
+         * @return the canonical value
+         * @throws IllegalArgumentException if the id is not defined
+         */
+        public String valueOf(final Field field, final int id) {
+            if (!enabled) {
+                throw new IllegalArgumentException("The PaymentOrder record references code " + id + " of " + field + " but no code table is available");
+            }
+            byte[] stored = state.getState(new CompositeKey(CODES, field.name(), Integer.toString(id)).toString());
+            if (stored.length == 0) {
+                throw new IllegalArgumentException("Unknown code " + id + " of " + field);
+            }
+            return Utf8Interner.PAYMENT_ORDER_FIELDS.intern(stored, 0, stored.length);
+        }
+    }
+}
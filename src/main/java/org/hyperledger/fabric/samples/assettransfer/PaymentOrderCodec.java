@@ -0,0 +1,371 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Hand-written JSON codec for {@link PaymentOrder} that reads and writes UTF-8
+ * bytes directly, without reflection and without the String round trip of
+ * getStringState/putStringState.
+ *
+ * The encoder emits exactly what Genson emits for a PaymentOrder (properties in
+ * alphabetical order, no whitespace, nulls written out), so documents written
+ * before and after the codec was introduced are byte-for-byte identical. The
+ * decoder accepts any JSON object, in any property order and with any
+ * whitespace, and skips properties it does not know. The low-cardinality
+ * currency, chargeDetail, date and address values are decoded to canonical
+ * instances of {@link Utf8Interner#PAYMENT_ORDER_FIELDS}.
+ */
+public final class PaymentOrderCodec {
+
+    private static final int ADDITIONAL_INSTRUCTION = 0;
+    private static final int AMOUNT = 1;
+    private static final int CHARGE_DETAIL = 2;
+    private static final int CURRENCY = 3;
+    private static final int DATE = 4;
+    private static final int ORDERER_ADDRESS = 5;
+    private static final int ORDERER_ID = 6;
+    private static final int ORDERER_NAME = 7;
+    private static final int RECEIVER_ACCOUNT = 8;
+    private static final int RECEIVER_ADDRESS = 9;
+    private static final int RECEIVER_NAME = 10;
+    private static final int REMITTANCE_INFORMATION = 11;
+    private static final int SWIFT_CODE = 12;
+
+    /** Property names in Genson's (alphabetical) output order, indexed by the constants above. */
+    private static final String[] NAMES = {
+        "additionalInstruction", "amount", "chargeDetail", "currency", "date", "ordererAddress", "ordererId",
+        "ordererName", "receiverAccount", "receiverAddress", "receiverName", "remittanceInformation", "swiftCode"
+    };
+    private static final byte[][] NAME_BYTES = new byte[NAMES.length][];
+    private static final boolean[] INTERNED = new boolean[NAMES.length];
+
+    static {
+        for (int i = 0; i < NAMES.length; i++) {
+            NAME_BYTES[i] = NAMES[i].getBytes(StandardCharsets.US_ASCII);
+        }
+        INTERNED[CHARGE_DETAIL] = true;
+        INTERNED[CURRENCY] = true;
+        INTERNED[DATE] = true;
+        INTERNED[ORDERER_ADDRESS] = true;
+        INTERNED[RECEIVER_ADDRESS] = true;
+    }
+
+    private PaymentOrderCodec() {
+    }
+
+    /**
+     * Encodes a paymentOrder as UTF-8 JSON.
+     *
+     * @param paymentOrder the paymentOrder to encode
+     * @return the UTF-8 JSON document
+     */
+    public static byte[] encode(final PaymentOrder paymentOrder) {
+        JsonWriter writer = new JsonWriter(512);
+        encode(paymentOrder, writer);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Writes a paymentOrder as a JSON object value of the given writer.
+     *
+     * @param paymentOrder the paymentOrder to encode
+     * @param writer the writer to append to
+     */
+    public static void encode(final PaymentOrder paymentOrder, final JsonWriter writer) {
+        writer.beginObject()
+                .name(NAMES[ADDITIONAL_INSTRUCTION]).value(paymentOrder.getAdditionalInstruction())
+                .name(NAMES[AMOUNT]).value(paymentOrder.getAmount())
+                .name(NAMES[CHARGE_DETAIL]).value(paymentOrder.getChargeDetail())
+                .name(NAMES[CURRENCY]).value(paymentOrder.getCurrency())
+                .name(NAMES[DATE]).value(paymentOrder.getDate())
+                .name(NAMES[ORDERER_ADDRESS]).value(paymentOrder.getOrdererAddress())
+                .name(NAMES[ORDERER_ID]).value(paymentOrder.getOrdererId())
+                .name(NAMES[ORDERER_NAME]).value(paymentOrder.getOrdererName())
+                .name(NAMES[RECEIVER_ACCOUNT]).value(paymentOrder.getReceiverAccount())
+                .name(NAMES[RECEIVER_ADDRESS]).value(paymentOrder.getReceiverAddress())
+                .name(NAMES[RECEIVER_NAME]).value(paymentOrder.getReceiverName())
+                .name(NAMES[REMITTANCE_INFORMATION]).value(paymentOrder.getRemittanceInformation())
+                .name(NAMES[SWIFT_CODE]).value(paymentOrder.getSwiftCode())
+                .endObject();
+    }
+
+    /**
+     * Decodes a UTF-8 JSON paymentOrder document.
+     *
+     * @param json the UTF-8 JSON document
+     * @return the decoded paymentOrder
+     * @throws IllegalArgumentException if the document is not a JSON object
+     */
+    public static PaymentOrder decode(final byte[] json) {
+        return new Reader(json).readPaymentOrder();
+    }
+
+    private static final class Reader {
+
+        private final byte[] json;
+        private int pos;
+
+        Reader(final byte[] json) {
+            this.json = json;
+        }
+
+        PaymentOrder readPaymentOrder() {
+            String[] values = new String[NAMES.length];
+
+            expect('{');
+            if (peek() == '}') {
+                pos++;
+            } else {
+                do {
+                    int field = readName();
+                    expect(':');
+                    if (field < 0) {
+                        skipValue();
+                    } else {
+                        values[field] = readNullableString(INTERNED[field]);
+                    }
+                } while (next(',', '}'));
+            }
+
+            return new PaymentOrder(values[SWIFT_CODE], values[DATE], values[AMOUNT], values[CURRENCY], values[ORDERER_NAME],
+                    values[ORDERER_ADDRESS], values[ORDERER_ID], values[RECEIVER_ACCOUNT], values[RECEIVER_NAME], values[RECEIVER_ADDRESS],
+                    values[REMITTANCE_INFORMATION], values[ADDITIONAL_INSTRUCTION], values[CHARGE_DETAIL]);
+        }
+
+        /**
+         * Reads a property name and matches it against the known names
+         * without allocating a String for it.
+         */
+        private int readName() {
+            expect('"');
+            int start = pos;
+            while (pos < json.length && json[pos] != '"' && json[pos] != '\\') {
+                pos++;
+            }
+            if (pos >= json.length) {
+                throw malformed();
+            }
+            if (json[pos] == '\\') {
+                pos = start;
+                String name = readEscapedString(start);
+                for (int i = 0; i < NAMES.length; i++) {
+                    if (NAMES[i].equals(name)) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+            int length = pos - start;
+            pos++;
+            for (int i = 0; i < NAME_BYTES.length; i++) {
+                if (regionEquals(NAME_BYTES[i], start, length)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private String readNullableString(final boolean intern) {
+            byte c = peek();
+            if (c == 'n') {
+                expectLiteral("null");
+                return null;
+            }
+            if (c != '"') {
+                throw malformed();
+            }
+            pos++;
+            int start = pos;
+            while (pos < json.length && json[pos] != '"' && json[pos] != '\\') {
+                pos++;
+            }
+            if (pos >= json.length) {
+                throw malformed();
+            }
+            if (json[pos] == '\\') {
+                pos = start;
+                return readEscapedString(start);
+            }
+            pos++;
+            if (intern) {
+                return Utf8Interner.PAYMENT_ORDER_FIELDS.intern(json, start, pos - start - 1);
+            }
+            return new String(json, start, pos - start - 1, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Slow path for strings containing escape sequences; pos points just
+         * after the opening quote.
+         */
+        private String readEscapedString(final int start) {
+            StringBuilder builder = new StringBuilder(32);
+            int runStart = start;
+            while (true) {
+                if (pos >= json.length) {
+                    throw malformed();
+                }
+                byte c = json[pos];
+                if (c == '"') {
+                    builder.append(new String(json, runStart, pos - runStart, StandardCharsets.UTF_8));
+                    pos++;
+                    return builder.toString();
+                }
+                if (c != '\\') {
+                    pos++;
+                    continue;
+                }
+                builder.append(new String(json, runStart, pos - runStart, StandardCharsets.UTF_8));
+                if (pos + 1 >= json.length) {
+                    throw malformed();
+                }
+                byte escaped = json[pos + 1];
+                pos += 2;
+                switch (escaped) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        builder.append((char) escaped);
+                        break;
+                    case 'b':
+                        builder.append('\b');
+                        break;
+                    case 'f':
+                        builder.append('\f');
+                        break;
+                    case 'n':
+                        builder.append('\n');
+                        break;
+                    case 'r':
+                        builder.append('\r');
+                        break;
+                    case 't':
+                        builder.append('\t');
+                        break;
+                    case 'u':
+                        builder.append(readHexChar());
+                        break;
+                    default:
+                        throw malformed();
+                }
+                runStart = pos;
+            }
+        }
+
+        private char readHexChar() {
+            if (pos + 4 > json.length) {
+                throw malformed();
+            }
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit(json[pos++], 16);
+                if (digit < 0) {
+                    throw malformed();
+                }
+                value = (value << 4) | digit;
+            }
+            return (char) value;
+        }
+
+        private void skipValue() {
+            byte c = peek();
+            switch (c) {
+                case '"':
+                    pos++;
+                    readEscapedString(pos);
+                    break;
+                case '{':
+                    pos++;
+                    if (peek() == '}') {
+                        pos++;
+                        break;
+                    }
+                    do {
+                        readName();
+                        expect(':');
+                        skipValue();
+                    } while (next(',', '}'));
+                    break;
+                case '[':
+                    pos++;
+                    if (peek() == ']') {
+                        pos++;
+                        break;
+                    }
+                    do {
+                        skipValue();
+                    } while (next(',', ']'));
+                    break;
+                default:
+                    while (pos < json.length && json[pos] != ',' && json[pos] != '}' && json[pos] != ']' && !isWhitespace(json[pos])) {
+                        pos++;
+                    }
+                    break;
+            }
+        }
+
+        /**
+         * Consumes either the separator (returning true) or the terminator
+         * (returning false).
+         */
+        private boolean next(final char separator, final char terminator) {
+            byte c = peek();
+            pos++;
+            if (c == separator) {
+                return true;
+            }
+            if (c == terminator) {
+                return false;
+            }
+            throw malformed();
+        }
+
+        private void expect(final char expected) {
+            if (peek() != expected) {
+                throw malformed();
+            }
+            pos++;
+        }
+
+        private void expectLiteral(final String literal) {
+            for (int i = 0; i < literal.length(); i++) {
+                if (pos >= json.length || json[pos++] != literal.charAt(i)) {
+                    throw malformed();
+                }
+            }
+        }
+
+        private byte peek() {
+            while (pos < json.length && isWhitespace(json[pos])) {
+                pos++;
+            }
+            if (pos >= json.length) {
+                throw malformed();
+            }
+            return json[pos];
+        }
+
+        private boolean regionEquals(final byte[] name, final int start, final int length) {
+            if (name.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (name[i] != json[start + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isWhitespace(final byte c) {
+            return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+        }
+
+        private IllegalArgumentException malformed() {
+            return new IllegalArgumentException("Malformed PaymentOrder JSON at offset " + pos);
+        }
+    }
+}
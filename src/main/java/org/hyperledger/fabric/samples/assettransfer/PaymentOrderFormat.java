@@ -0,0 +1,138 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.Locale;
+
+/**
+ * Storage format used when writing paymentOrders to the world state.
+ *
+ * The format is chosen per deployment with the SWIFTBC_STORAGE_FORMAT
+ * environment variable ("json", "binary" or "dictionary", JSON by default)
+ * and must be set identically on every endorsing peer. Reads always accept
+ * every format, so the setting can be changed at any time and existing keys
+ * rewritten later with MigratePaymentOrders. Binary records are not JSON, so
+ * CouchDB stores them as attachments and they are invisible to rich queries.
+ * Dictionary records are binary records whose currency and chargeDetail are
+ * ids of the {@link PaymentOrderCodeTable}; without a code table at hand, as for
+ * the values of private data collections, they are written as binary
+ * records.
+ */
+public enum PaymentOrderFormat {
+
+    JSON {
+        @Override
+        public byte[] encode(final PaymentOrder paymentOrder) {
+            return PaymentOrderCodec.encode(paymentOrder);
+        }
+
+        @Override
+        public boolean matches(final byte[] value) {
+            return !PaymentOrderBinaryCodec.isBinary(value);
+        }
+    },
+
+    BINARY {
+        @Override
+        public byte[] encode(final PaymentOrder paymentOrder) {
+            return PaymentOrderBinaryCodec.encode(paymentOrder);
+        }
+
+        @Override
+        public boolean matches(final byte[] value) {
+            return PaymentOrderBinaryCodec.isBinary(value) && !PaymentOrderBinaryCodec.isCoded(value);
+        }
+    },
+
+    DICTIONARY {
+        @Override
+        public byte[] encode(final PaymentOrder paymentOrder) {
+            return PaymentOrderBinaryCodec.encode(paymentOrder);
+        }
+
+        @Override
+        public byte[] encode(final PaymentOrder paymentOrder, final PaymentOrderCodeTable.Codes codes) {
+            return PaymentOrderBinaryCodec.encode(paymentOrder, codes);
+        }
+
+        @Override
+        public boolean matches(final byte[] value) {
+            return PaymentOrderBinaryCodec.isCoded(value);
+        }
+    };
+
+    public static final String ENVIRONMENT_VARIABLE = "SWIFTBC_STORAGE_FORMAT";
+
+    /**
+     * Encodes a paymentOrder in this format.
+     *
+     * @param paymentOrder the paymentOrder to encode
+     * @return the stored value
+     */
+    public abstract byte[] encode(PaymentOrder paymentOrder);
+
+    /**
+     * Encodes a paymentOrder in this format, using the code table of the
+     * transaction when the format has one.
+     *
+     * @param paymentOrder the paymentOrder to encode
+     * @param codes the codes of the transaction
+     * @return the stored value
+     */
+    public byte[] encode(final PaymentOrder paymentOrder, final PaymentOrderCodeTable.Codes codes) {
+        return encode(paymentOrder);
+    }
+
+    /**
+     * Checks whether a stored value is already written in this format.
+     *
+     * @param value the stored value
+     * @return true if the value uses this format
+     */
+    public abstract boolean matches(byte[] value);
+
+    /**
+     * Decodes a stored value written in any format but the dictionary one.
+     *
+     * @param value the stored value
+     * @return the decoded paymentOrder
+     */
+    public static PaymentOrder decode(final byte[] value) {
+        if (PaymentOrderBinaryCodec.isBinary(value)) {
+            return PaymentOrderBinaryCodec.decode(value);
+        }
+        return PaymentOrderCodec.decode(value);
+    }
+
+    /**
+     * Decodes a stored value written in any format.
+     *
+     * @param value the stored value
+     * @param codes the codes of the transaction, resolving the ids of dictionary records
+     * @return the decoded paymentOrder
+     */
+    public static PaymentOrder decode(final byte[] value, final PaymentOrderCodeTable.Codes codes) {
+        if (PaymentOrderBinaryCodec.isBinary(value)) {
+            return PaymentOrderBinaryCodec.decode(value, codes);
+        }
+        return PaymentOrderCodec.decode(value);
+    }
+
+    /**
+     * Resolves the format configured for this deployment.
+     *
+     * @return the configured format, JSON when not configured
+     */
+    public static PaymentOrderFormat fromEnvironment() {
+        return parse(System.getenv(ENVIRONMENT_VARIABLE));
+    }
+
+    static PaymentOrderFormat parse(final String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return JSON;
+        }
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
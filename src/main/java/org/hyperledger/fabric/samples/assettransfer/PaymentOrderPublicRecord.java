@@ -0,0 +1,129 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Public world state record of a paymentOrder whose personal fields are kept
+ * in a private data collection.
+ *
+ * The record is a JSON object holding the salted SHA-256 hash of the
+ * private value followed by the swiftCode, date, amount and currency. The
+ * salt is random, supplied by the client in the transient map and kept next
+ * to the private value in the collection, so the hash cannot be matched
+ * against guessed paymentOrders, unlike the plain hash the peer keeps for the
+ * collection. Readers of the private value check it against the hash before
+ * trusting it. The record is always written as JSON, with
+ * privateDataHash as the first property so it can be recognised without
+ * parsing. {@link PaymentOrderCodec} skips the hash when decoding, so every
+ * reader of the world state sees a paymentOrder whose personal fields are
+ * null.
+ */
+public final class PaymentOrderPublicRecord {
+
+    /** Minimum length of a salt, in bytes. */
+    public static final int MIN_SALT_LENGTH = 16;
+
+    private static final byte[] PREFIX = "{\"privateDataHash\":".getBytes(StandardCharsets.UTF_8);
+    private static final int HASH_LENGTH = 64;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private PaymentOrderPublicRecord() {
+    }
+
+    /**
+     * Checks whether a stored value is a public record.
+     *
+     * @param value the stored value
+     * @return true if the value is a public record
+     */
+    public static boolean isPublicRecord(final byte[] value) {
+        if (value.length < PREFIX.length) {
+            return false;
+        }
+        for (int i = 0; i < PREFIX.length; i++) {
+            if (value[i] != PREFIX[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encodes the public record of a paymentOrder.
+     *
+     * @param paymentOrder the paymentOrder
+     * @param privateValue the value stored in the private data collection
+     * @param salt the salt stored with the private value
+     * @return the public record
+     */
+    public static byte[] encode(final PaymentOrder paymentOrder, final byte[] privateValue, final byte[] salt) {
+        JsonWriter writer = new JsonWriter(192);
+        writer.beginObject()
+                .name("privateDataHash").value(hash(privateValue, salt))
+                .name("amount").value(paymentOrder.getAmount())
+                .name("currency").value(paymentOrder.getCurrency())
+                .name("date").value(paymentOrder.getDate())
+                .name("swiftCode").value(paymentOrder.getSwiftCode())
+                .endObject();
+        return writer.toByteArray();
+    }
+
+    /**
+     * The paymentOrder as seen by readers of the public record.
+     *
+     * @param paymentOrder the full paymentOrder
+     * @return the paymentOrder without its personal fields
+     */
+    public static PaymentOrder publicView(final PaymentOrder paymentOrder) {
+        return new PaymentOrder(paymentOrder.getSwiftCode(), paymentOrder.getDate(), paymentOrder.getAmount(), paymentOrder.getCurrency(),
+                null, null, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * Checks a private value against the hash of a public record.
+     *
+     * @param publicValue the public record
+     * @param privateValue the value read from the private data collection
+     * @param salt the salt read from the private data collection, may be null
+     * @return true if the private value is the one the public record was written for
+     */
+    public static boolean matches(final byte[] publicValue, final byte[] privateValue, final byte[] salt) {
+        int start = PREFIX.length + 1;
+        if (salt == null || !isPublicRecord(publicValue) || publicValue.length < start + HASH_LENGTH + 1) {
+            return false;
+        }
+        byte[] expected = hash(privateValue, salt).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, Arrays.copyOfRange(publicValue, start, start + HASH_LENGTH));
+    }
+
+    /**
+     * Hex encoded SHA-256 hash of a salt followed by a private value.
+     *
+     * @param privateValue the private value
+     * @param salt the salt
+     * @return the hash
+     */
+    public static String hash(final byte[] privateValue, final byte[] salt) {
+        byte[] digest;
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(salt);
+            digest = sha256.digest(privateValue);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        char[] hex = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            hex[i * 2] = HEX[(digest[i] >> 4) & 0x0f];
+            hex[i * 2 + 1] = HEX[digest[i] & 0x0f];
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+
+import com.owlike.genson.Genson;
+import com.owlike.genson.JsonBindingException;
+import com.owlike.genson.stream.JsonStreamException;
+
+/**
+ * Builds the CouchDB query of QueryPaymentOrders from a restricted selector.
+ *
+ * The selector is a flat JSON object mapping a paymentOrder field to either a
+ * string (equality) or an object of comparison operators ($eq, $gt, $gte,
+ * $lt, $lte) with string operands, such as
+ * {"ordererName":"테스트1","currency":"KRW","date":{"$gte":"20210101","$lt":"20210201"}}.
+ * Only the fields listed in {@link #FIELDS} can be queried, and the selector
+ * must constrain every field of one of the {@link #INDEXES} shipped under
+ * META-INF/statedb/couchdb/indexes; the query names that index in use_index,
+ * so CouchDB never falls back to a full scan.
+ */
+public final class PaymentOrderQuery {
+
+    /** A CouchDB index shipped with the chaincode. */
+    public static final class Index {
+
+        private final String name;
+        private final List<String> fields;
+
+        Index(final String name, final String... fields) {
+            this.name = name;
+            this.fields = Collections.unmodifiableList(Arrays.asList(fields));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDesignDocument() {
+            return name + "Doc";
+        }
+
+        public List<String> getFields() {
+            return fields;
+        }
+    }
+
+    /** Indexes in order of preference, the most selective first. */
+    public static final List<Index> INDEXES = Collections.unmodifiableList(Arrays.asList(
+            new Index("indexOrdererNameCurrencyDate", "ordererName", "currency", "date"),
+            new Index("indexReceiverNameDate", "receiverName", "date"),
+            new Index("indexCurrencyDate", "currency", "date")));
+
+    /** Queryable fields, in the order they are written to the query. */
+    public static final List<String> FIELDS = Collections.unmodifiableList(Arrays.asList(
+            "swiftCode", "date", "currency", "ordererName", "ordererId", "receiverAccount", "receiverName", "chargeDetail"));
+
+    private static final List<String> OPERATORS = Arrays.asList("$eq", "$gt", "$gte", "$lt", "$lte");
+
+    private static final Genson GENSON = new Genson();
+    private static final Logger LOGGER = Logger.getLogger(PaymentOrderQuery.class.getName());
+
+    private PaymentOrderQuery() {
+    }
+
+    /**
+     * Validates a selector and builds the query for it.
+     *
+     * @param selectorJSON the restricted selector
+     * @return the CouchDB query
+     * @throws ChaincodeException with INVALID_QUERY if the selector is not allowed
+     */
+    public static String build(final String selectorJSON) {
+        Map<String, Object> selector = parse(selectorJSON);
+        for (String field : selector.keySet()) {
+            if (!FIELDS.contains(field)) {
+                throw invalid("The field (" + field + ") cannot be queried");
+            }
+        }
+        Index index = selectIndex(selector);
+
+        JsonWriter writer = new JsonWriter();
+        writer.beginObject().name("selector").beginObject();
+        for (String field : FIELDS) {
+            if (selector.containsKey(field)) {
+                writeCondition(writer.name(field), field, selector.get(field));
+            }
+        }
+        writer.endObject().name("use_index").beginArray()
+                .value("_design/" + index.getDesignDocument())
+                .value(index.getName())
+                .endArray();
+        return writer.endObject().toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> parse(final String selectorJSON) {
+        Object selector;
+        try {
+            selector = selectorJSON == null ? null : GENSON.deserialize(selectorJSON, Object.class);
+        } catch (JsonBindingException | JsonStreamException e) {
+            selector = null;
+        }
+        if (!(selector instanceof Map) || ((Map<String, Object>) selector).isEmpty()) {
+            throw invalid("The query selector is not a non-empty JSON object");
+        }
+        return (Map<String, Object>) selector;
+    }
+
+    private static Index selectIndex(final Map<String, Object> selector) {
+        for (Index index : INDEXES) {
+            if (selector.keySet().containsAll(index.getFields())) {
+                return index;
+            }
+        }
+        StringBuilder indexes = new StringBuilder();
+        for (Index index : INDEXES) {
+            indexes.append(indexes.length() == 0 ? "" : ", ").append(index.getFields());
+        }
+        throw invalid("The query selector must constrain every field of one of the indexes " + indexes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeCondition(final JsonWriter writer, final String field, final Object condition) {
+        if (condition instanceof String) {
+            writer.value((String) condition);
+            return;
+        }
+        if (!(condition instanceof Map) || ((Map<String, Object>) condition).isEmpty()) {
+            throw invalid("The condition on " + field + " must be a string or an object of operators");
+        }
+        Map<String, Object> operators = (Map<String, Object>) condition;
+        for (Map.Entry<String, Object> operator : operators.entrySet()) {
+            if (!OPERATORS.contains(operator.getKey())) {
+                throw invalid("The operator (" + operator.getKey() + ") is not supported");
+            }
+            if (!(operator.getValue() instanceof String)) {
+                throw invalid("The operand of " + operator.getKey() + " on " + field + " must be a string");
+            }
+        }
+        writer.beginObject();
+        for (String operator : OPERATORS) {
+            if (operators.containsKey(operator)) {
+                writer.name(operator).value((String) operators.get(operator));
+            }
+        }
+        writer.endObject();
+    }
+
+    private static ChaincodeException invalid(final String errorMessage) {
+        LOGGER.warning(errorMessage);
+        return SwiftBcErrors.INVALID_QUERY.exception(errorMessage);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Value of a request~requestId entry, recording which paymentOrder a client
+ * request created: the SHA-256 content hash of the paymentOrder (32 bytes)
+ * followed by its swiftCode in UTF-8.
+ *
+ * The content hash covers every field except the swiftCode, taken from the
+ * validated paymentOrder in the canonical JSON form of
+ * {@link PaymentOrderCodec}. A retry that only differs in swiftCode or in the
+ * way the amount is written is therefore recognised as the same payment.
+ */
+public final class PaymentOrderRequest {
+
+    private static final int HASH_LENGTH = 32;
+
+    private final String swiftCode;
+    private final byte[] contentHash;
+
+    public PaymentOrderRequest(final String swiftCode, final byte[] contentHash) {
+        this.swiftCode = swiftCode;
+        this.contentHash = contentHash;
+    }
+
+    public String getSwiftCode() {
+        return swiftCode;
+    }
+
+    /**
+     * Checks whether a request was recorded for the same content.
+     *
+     * @param hash the content hash of the submitted paymentOrder
+     * @return true if the content hashes are equal
+     */
+    public boolean matches(final byte[] hash) {
+        return MessageDigest.isEqual(contentHash, hash);
+    }
+
+    /**
+     * Computes the content hash of a validated paymentOrder.
+     *
+     * @param paymentOrder the paymentOrder
+     * @return the SHA-256 hash of its canonical JSON without the swiftCode
+     */
+    public static byte[] contentHash(final PaymentOrder paymentOrder) {
+        PaymentOrder content = new PaymentOrder(null, paymentOrder.getDate(), paymentOrder.getAmount(), paymentOrder.getCurrency(), paymentOrder.getOrdererName(),
+                paymentOrder.getOrdererAddress(), paymentOrder.getOrdererId(), paymentOrder.getReceiverAccount(), paymentOrder.getReceiverName(),
+                paymentOrder.getReceiverAddress(), paymentOrder.getRemittanceInformation(), paymentOrder.getAdditionalInstruction(), paymentOrder.getChargeDetail());
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(PaymentOrderCodec.encode(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public byte[] encode() {
+        byte[] code = swiftCode.getBytes(StandardCharsets.UTF_8);
+        byte[] value = Arrays.copyOf(contentHash, HASH_LENGTH + code.length);
+        System.arraycopy(code, 0, value, HASH_LENGTH, code.length);
+        return value;
+    }
+
+    /**
+     * Decodes a stored request.
+     *
+     * @param value the stored value
+     * @return the request
+     * @throws IllegalArgumentException if the value is too short to hold a content hash
+     */
+    public static PaymentOrderRequest decode(final byte[] value) {
+        if (value.length <= HASH_LENGTH) {
+            throw new IllegalArgumentException("Not a paymentOrder request record");
+        }
+        return new PaymentOrderRequest(new String(value, HASH_LENGTH, value.length - HASH_LENGTH, StandardCharsets.UTF_8),
+                Arrays.copyOf(value, HASH_LENGTH));
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.Objects;
+
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+import com.owlike.genson.annotation.JsonProperty;
+
+@DataType()
+public final class PaymentOrderResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+
+    @Property()
+    private final String swiftCode;         // 참조번호
+    @Property()
+    private final String status;            // 처리결과 (CREATED, REJECTED)
+    @Property()
+    private final String error;             // 오류코드 (SwiftBcErrors)
+    @Property()
+    private final String message;           // 오류내용
+
+    public PaymentOrderResult(@JsonProperty("swiftCode") final String swiftCode, @JsonProperty("status") final String status, @JsonProperty("error") final String error, @JsonProperty("message") final String message) {
+        this.swiftCode = swiftCode;
+        this.status = status;
+        this.error = error;
+        this.message = message;
+    }
+
+    public static PaymentOrderResult created(final String swiftCode) {
+        return new PaymentOrderResult(swiftCode, CREATED, null, null);
+    }
+
+    public static PaymentOrderResult rejected(final String swiftCode, final String error, final String message) {
+        return new PaymentOrderResult(swiftCode, REJECTED, error, message);
+    }
+
+    public String getSwiftCode() {
+        return swiftCode;
+    }
+    public String getStatus() {
+        return status;
+    }
+    public String getError() {
+        return error;
+    }
+    public String getMessage() {
+        return message;
+    }
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass())) {
+            return false;
+        }
+
+        PaymentOrderResult other = (PaymentOrderResult) obj;
+
+        return Objects.deepEquals(
+                new String[] {getSwiftCode(), getStatus(), getError(), getMessage()},
+                new String[] {other.getSwiftCode(), other.getStatus(), other.getError(), other.getMessage()});
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getSwiftCode(), getStatus(), getError(), getMessage());
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode()) + " [swiftCode=" + swiftCode + ", status=" + status
+                + ", error=" + error + ", message=" + message + "]";
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+/**
+ * Lifecycle status of a paymentOrder. Every paymentOrder starts SUBMITTED;
+ * it can then be SETTLED, CANCELLED or RETURNED, and a SETTLED paymentOrder
+ * can still be RETURNED. CANCELLED and RETURNED are final.
+ */
+public enum PaymentOrderStatus {
+
+    SUBMITTED((byte) 'S'),
+    SETTLED((byte) 'T'),
+    CANCELLED((byte) 'C'),
+    RETURNED((byte) 'R');
+
+    private final byte code;
+
+    PaymentOrderStatus(final byte code) {
+        this.code = code;
+    }
+
+    /**
+     * Stable one byte code used in stored status events.
+     *
+     * @return the code
+     */
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Checks whether a paymentOrder in this status may move to the next one.
+     *
+     * @param next the requested status
+     * @return true if the transition is allowed
+     */
+    public boolean allows(final PaymentOrderStatus next) {
+        switch (this) {
+            case SUBMITTED:
+                return next != SUBMITTED;
+            case SETTLED:
+                return next == RETURNED;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Resolves a status from its stored code.
+     *
+     * @param code the stored code
+     * @return the status
+     * @throws IllegalArgumentException if the code is unknown
+     */
+    public static PaymentOrderStatus fromCode(final byte code) {
+        for (PaymentOrderStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown PaymentOrder status code " + code);
+    }
+}
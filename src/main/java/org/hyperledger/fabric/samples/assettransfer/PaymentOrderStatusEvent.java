@@ -0,0 +1,87 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * One requested status change of a paymentOrder, stored under its own
+ * status~swiftCode~txId composite key.
+ *
+ * The value holds a version byte, the status code, the transaction timestamp
+ * (epoch seconds and nanos) and the UTF-8 reason, if any. The txId is part of
+ * the key and not repeated in the value. The timestamp is set by the client
+ * and only informative; events are folded in commit order.
+ */
+public final class PaymentOrderStatusEvent {
+
+    private static final byte VERSION_1 = 0x01;
+    private static final int HEADER_LENGTH = 1 + 1 + 8 + 4;
+
+    private final String txId;
+    private final PaymentOrderStatus status;
+    private final Instant timestamp;
+    private final String reason;
+
+    public PaymentOrderStatusEvent(final String txId, final PaymentOrderStatus status, final Instant timestamp, final String reason) {
+        this.txId = txId;
+        this.status = status;
+        this.timestamp = timestamp;
+        this.reason = reason;
+    }
+
+    public String getTxId() {
+        return txId;
+    }
+
+    public PaymentOrderStatus getStatus() {
+        return status;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Encodes the stored value of this event.
+     *
+     * @return the stored value
+     */
+    public byte[] encode() {
+        byte[] reasonBytes = reason == null ? new byte[0] : reason.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(HEADER_LENGTH + reasonBytes.length)
+                .put(VERSION_1)
+                .put(status.getCode())
+                .putLong(timestamp.getEpochSecond())
+                .putInt(timestamp.getNano())
+                .put(reasonBytes)
+                .array();
+    }
+
+    /**
+     * Decodes a stored event value.
+     *
+     * @param txId the txId taken from the event key
+     * @param value the stored value
+     * @return the event
+     * @throws IllegalArgumentException if the value is truncated or of an unknown version
+     */
+    public static PaymentOrderStatusEvent decode(final String txId, final byte[] value) {
+        if (value.length < HEADER_LENGTH || value[0] != VERSION_1) {
+            throw new IllegalArgumentException("Malformed PaymentOrder status event of transaction " + txId);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(value, 1, value.length - 1);
+        PaymentOrderStatus status = PaymentOrderStatus.fromCode(buffer.get());
+        Instant timestamp = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+        String reason = value.length == HEADER_LENGTH ? null : new String(value, HEADER_LENGTH, value.length - HEADER_LENGTH, StandardCharsets.UTF_8);
+        return new PaymentOrderStatusEvent(txId, status, timestamp, reason);
+    }
+}
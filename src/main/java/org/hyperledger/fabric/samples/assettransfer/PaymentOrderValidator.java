@@ -0,0 +1,257 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+
+/**
+ * Validation rules for paymentOrders, shared by the chaincode and its clients.
+ *
+ * Amounts are parsed once into a scaled long of minor units of the currency
+ * (원 for KRW, cents for USD) and dates (yyyyMMdd) into an epoch day, by
+ * scanning the characters directly rather than through regular expressions
+ * or BigDecimal.
+ */
+public final class PaymentOrderValidator {
+
+    /** Returned by {@link #tryParseAmount(String, String)} for an invalid amount. */
+    public static final long INVALID_AMOUNT = -1L;
+    /** Returned by {@link #tryParseDate(String)} for an invalid date. */
+    public static final int INVALID_DATE = Integer.MIN_VALUE;
+
+    private static final int MIN_YEAR = 1900;
+    private static final Map<String, Integer> FRACTION_DIGITS = fractionDigitsByCurrency();
+
+    private PaymentOrderValidator() {
+    }
+
+    /**
+     * Validates every mandatory field of a paymentOrder.
+     *
+     * @param paymentOrder the paymentOrder to validate
+     * @return the paymentOrder with its amount in canonical form
+     * @throws ChaincodeException with a {@link SwiftBcErrors} payload if a field is invalid
+     */
+    public static PaymentOrder validate(final PaymentOrder paymentOrder) {
+        requireNotEmpty("swiftCode", paymentOrder.getSwiftCode());
+        requireNotEmpty("date", paymentOrder.getDate());
+        requireNotEmpty("amount", paymentOrder.getAmount());
+        requireNotEmpty("currency", paymentOrder.getCurrency());
+        requireNotEmpty("ordererName", paymentOrder.getOrdererName());
+        requireNotEmpty("ordererAddress", paymentOrder.getOrdererAddress());
+        requireNotEmpty("ordererId", paymentOrder.getOrdererId());
+        requireNotEmpty("receiverName", paymentOrder.getReceiverName());
+        requireNotEmpty("receiverAccount", paymentOrder.getReceiverAccount());
+        requireNotEmpty("receiverAddress", paymentOrder.getReceiverAddress());
+        requireNotEmpty("remittanceInformation", paymentOrder.getRemittanceInformation());
+        requireNotEmpty("chargeDetail", paymentOrder.getChargeDetail());
+
+        parseDate(paymentOrder.getDate());
+        String currency = paymentOrder.getCurrency();
+        String amount = formatAmount(parseAmount(paymentOrder.getAmount(), currency), currency);
+        if (amount.equals(paymentOrder.getAmount())) {
+            return paymentOrder;
+        }
+        return new PaymentOrder(paymentOrder.getSwiftCode(), paymentOrder.getDate(), amount, currency, paymentOrder.getOrdererName(), paymentOrder.getOrdererAddress(), paymentOrder.getOrdererId(), paymentOrder.getReceiverAccount(), paymentOrder.getReceiverName(), paymentOrder.getReceiverAddress(), paymentOrder.getRemittanceInformation(), paymentOrder.getAdditionalInstruction(), paymentOrder.getChargeDetail());
+    }
+
+    /**
+     * Checks that a mandatory parameter is present.
+     *
+     * @param paramName name of the parameter, used in the error message
+     * @param param the parameter value
+     * @throws ChaincodeException with NOT_ENOUGH_PARAMETER if the value is null or empty
+     */
+    public static void requireNotEmpty(final String paramName, final String param) {
+        if (null == param || "".equals(param)) {
+            throw SwiftBcErrors.NOT_ENOUGH_PARAMETER.exception(paramName + " is empty");
+        }
+    }
+
+    /**
+     * Parses a positive decimal amount into minor units of the currency.
+     *
+     * @param amount the amount, such as "70000" or "12.50"
+     * @param currency ISO 4217 currency code
+     * @return the amount in minor units
+     * @throws ChaincodeException with INVALID_CURRENCY or INVALID_AMOUNT
+     */
+    public static long parseAmount(final String amount, final String currency) {
+        requireCurrency(currency);
+        long minorUnits = tryParseAmount(amount, currency);
+        if (minorUnits == INVALID_AMOUNT) {
+            throw SwiftBcErrors.INVALID_AMOUNT.exception("The amount (" + amount + ") is not a positive amount with at most " + fractionDigits(currency)
+                    + " decimal places");
+        }
+        return minorUnits;
+    }
+
+    /**
+     * Checks that a currency is an ISO 4217 code.
+     *
+     * @param currency the currency
+     * @throws ChaincodeException with INVALID_CURRENCY
+     */
+    public static void requireCurrency(final String currency) {
+        if (fractionDigits(currency) < 0) {
+            throw SwiftBcErrors.INVALID_CURRENCY.exception("The currency (" + currency + ") is not an ISO 4217 code");
+        }
+    }
+
+    /**
+     * Parses a positive decimal amount into minor units of the currency.
+     *
+     * @param amount the amount, such as "70000" or "12.50"
+     * @param currency ISO 4217 currency code
+     * @return the amount in minor units, or {@link #INVALID_AMOUNT}
+     */
+    public static long tryParseAmount(final String amount, final String currency) {
+        int scale = fractionDigits(currency);
+        if (scale < 0 || amount == null || amount.isEmpty()) {
+            return INVALID_AMOUNT;
+        }
+
+        int length = amount.length();
+        long minorUnits = 0;
+        int fraction = -1;
+        for (int i = 0; i < length; i++) {
+            char c = amount.charAt(i);
+            if (c == '.') {
+                if (fraction >= 0 || i == 0 || i == length - 1) {
+                    return INVALID_AMOUNT;
+                }
+                fraction = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                return INVALID_AMOUNT;
+            }
+            if (fraction >= 0 && ++fraction > scale) {
+                return INVALID_AMOUNT;
+            }
+            int digit = c - '0';
+            if (minorUnits > (Long.MAX_VALUE - digit) / 10) {
+                return INVALID_AMOUNT;
+            }
+            minorUnits = minorUnits * 10 + digit;
+        }
+        for (int i = Math.max(fraction, 0); i < scale; i++) {
+            if (minorUnits > Long.MAX_VALUE / 10) {
+                return INVALID_AMOUNT;
+            }
+            minorUnits *= 10;
+        }
+        return minorUnits == 0 ? INVALID_AMOUNT : minorUnits;
+    }
+
+    /**
+     * Formats minor units of a currency in canonical form: no leading zeros
+     * and exactly as many decimal places as the currency has minor units.
+     *
+     * @param minorUnits the amount in minor units
+     * @param currency ISO 4217 currency code
+     * @return the formatted amount
+     */
+    public static String formatAmount(final long minorUnits, final String currency) {
+        int scale = Math.max(fractionDigits(currency), 0);
+        if (scale == 0) {
+            return Long.toString(minorUnits);
+        }
+        StringBuilder digits = new StringBuilder(Long.toString(minorUnits));
+        while (digits.length() <= scale) {
+            digits.insert(0, '0');
+        }
+        return digits.insert(digits.length() - scale, '.').toString();
+    }
+
+    /**
+     * Parses a yyyyMMdd date.
+     *
+     * @param date the date
+     * @return days since 1970-01-01
+     * @throws ChaincodeException with INVALID_DATE
+     */
+    public static int parseDate(final String date) {
+        int epochDay = tryParseDate(date);
+        if (epochDay == INVALID_DATE) {
+            throw SwiftBcErrors.INVALID_DATE.exception("The date (" + date + ") is not a valid yyyyMMdd date");
+        }
+        return epochDay;
+    }
+
+    /**
+     * Parses a yyyyMMdd date.
+     *
+     * @param date the date
+     * @return days since 1970-01-01, or {@link #INVALID_DATE}
+     */
+    public static int tryParseDate(final String date) {
+        if (date == null || date.length() != 8) {
+            return INVALID_DATE;
+        }
+        int value = 0;
+        for (int i = 0; i < 8; i++) {
+            char c = date.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID_DATE;
+            }
+            value = value * 10 + (c - '0');
+        }
+        int year = value / 10000;
+        int month = (value / 100) % 100;
+        int day = value % 100;
+        if (year < MIN_YEAR || month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))) {
+            return INVALID_DATE;
+        }
+        return (int) LocalDate.of(year, month, day).toEpochDay();
+    }
+
+    /**
+     * Formats an epoch day as yyyyMMdd.
+     *
+     * @param epochDay days since 1970-01-01
+     * @return the formatted date
+     */
+    public static String formatDate(final int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        int value = date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+        return Integer.toString(value);
+    }
+
+    /**
+     * Number of minor unit digits of a currency, as listed by ISO 4217.
+     *
+     * @param currency ISO 4217 currency code
+     * @return the number of decimal places, or -1 if the code is not an ISO 4217 currency with minor units
+     */
+    public static int fractionDigits(final String currency) {
+        Integer digits = currency == null ? null : FRACTION_DIGITS.get(currency);
+        return digits == null ? -1 : digits;
+    }
+
+    /**
+     * Minor units of every currency known to {@link Currency}, leaving out
+     * the funds and precious metals (XAU, XDR, XXX...) that have none. The
+     * table comes from the JDK, so every endorsing peer must run a JDK with
+     * the same ISO 4217 data.
+     */
+    private static Map<String, Integer> fractionDigitsByCurrency() {
+        Map<String, Integer> digits = new HashMap<>();
+        for (Currency currency : Currency.getAvailableCurrencies()) {
+            if (currency.getDefaultFractionDigits() >= 0) {
+                digits.put(currency.getCurrencyCode(), currency.getDefaultFractionDigits());
+            }
+        }
+        return Collections.unmodifiableMap(digits);
+    }
+}
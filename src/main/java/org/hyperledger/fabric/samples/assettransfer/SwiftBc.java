@@ -4,6 +4,18 @@
 
 package org.hyperledger.fabric.samples.assettransfer;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
 import org.hyperledger.fabric.contract.Context;
 import org.hyperledger.fabric.contract.ContractInterface;
 import org.hyperledger.fabric.contract.annotation.Contact;
@@ -14,8 +26,14 @@ import org.hyperledger.fabric.contract.annotation.License;
 import org.hyperledger.fabric.contract.annotation.Transaction;
 import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyModification;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
 
 import com.owlike.genson.Genson;
+import com.owlike.genson.JsonBindingException;
 
 @Contract(
         name = "basic",
@@ -33,12 +51,87 @@ import com.owlike.genson.Genson;
 @Default
 public final class SwiftBc implements ContractInterface {
 
+    private static final Logger LOGGER = Logger.getLogger(SwiftBc.class.getName());
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String ORDERER_INDEX = "ordererId~swiftCode";
+    private static final String RECEIVER_ACCOUNT_INDEX = "receiverAccount~swiftCode";
+    private static final String DATE_INDEX = "date~swiftCode";
+    private static final byte[] INDEX_VALUE = new byte[] {0x00};
+
+    private static final String PRIVATE_COLLECTION = "paymentOrderPrivateDetails";
+    private static final String TRANSIENT_PAYMENT_ORDER = "paymentOrder";
+    private static final String TRANSIENT_SALT = "salt";
+    private static final String PRIVATE_SALT = "salt~swiftCode";
+
+    private static final String STATUS_EVENTS = "status~swiftCode~txId";
+    private static final String STATUS_LOG = "statusLog~swiftCode";
+    private static final String AGGREGATES = "agg~currency~date~txId";
+    private static final String REQUESTS = "request~requestId";
+
     private final Genson genson = new Genson();
 
-    private enum SwiftBcErrors {
-        NOT_ENOUGH_PARAMETER,
-        PAYMENTORDER_NOT_FOUND,
-        PAYMENTORDER_ALREADY_EXISTS
+    private final PaymentOrderFormat storageFormat;
+    private final SwiftBcMetrics metrics;
+    private final PaymentOrderCodeTable codeTable = new PaymentOrderCodeTable();
+
+    public SwiftBc() {
+        this(PaymentOrderFormat.fromEnvironment(), SwiftBcMetrics.fromEnvironment());
+    }
+
+    SwiftBc(final PaymentOrderFormat storageFormat) {
+        this(storageFormat, SwiftBcMetrics.DISABLED);
+    }
+
+    SwiftBc(final PaymentOrderFormat storageFormat, final SwiftBcMetrics metrics) {
+        this.storageFormat = storageFormat;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Context createContext(final ChaincodeStub stub) {
+        TransactionMetrics.clearCurrent();
+        if (!metrics.isEnabled()) {
+            return new SwiftBcContext(stub, TransactionMetrics.DISABLED, codeTable);
+        }
+        return new SwiftBcContext(stub, metrics.begin(functionName(stub), stub.getTxId()), codeTable);
+    }
+
+    @Override
+    public void afterTransaction(final Context ctx, final Object result) {
+        if (ctx instanceof SwiftBcContext) {
+            try {
+                ((SwiftBcContext) ctx).getState().flush();
+                ((SwiftBcContext) ctx).getMetrics().finish();
+            } finally {
+                TransactionMetrics.clearCurrent();
+            }
+        }
+    }
+
+    /**
+     * Name of the invoked transaction function without the contract name
+     * prefix, such as CreatePaymentOrder for basic:CreatePaymentOrder.
+     */
+    private static String functionName(final ChaincodeStub stub) {
+        String function = stub.getFunction();
+        if (function == null || function.isEmpty()) {
+            return "unknown";
+        }
+        return function.substring(function.lastIndexOf(':') + 1);
+    }
+
+    /**
+     * Resolves the state of the transaction: the buffered state of a
+     * SwiftBcContext, or a write-through state when the contract is invoked
+     * with a plain Context.
+     */
+    private TransactionState state(final Context ctx) {
+        if (ctx instanceof SwiftBcContext) {
+            return ((SwiftBcContext) ctx).getState();
+        }
+        return TransactionState.writeThrough(ctx.getStub(), codeTable);
     }
 
     /**
@@ -48,8 +141,6 @@ public final class SwiftBc implements ContractInterface {
      */
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public void InitLedger(final Context ctx) {
-        ChaincodeStub stub = ctx.getStub();
-
         CreatePaymentOrder(ctx, "paymentOrder1", "20210121", "70000", "KRW", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", "재주껏 바꿔써라", "1");
         CreatePaymentOrder(ctx, "paymentOrder2", "20210121", "100000", "KRW", "테스트2", "미국어딘가", "orderer2", "101010101010", "receiver2", "한국어딘가", "원화를 보낸다", "편하지?", "2");
     }
@@ -75,47 +166,300 @@ public final class SwiftBc implements ContractInterface {
      */
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public PaymentOrder CreatePaymentOrder(final Context ctx, final String  swiftCode, final String  date, final String  amount, final String  currency, final String  ordererName, final String  ordererAddress, final String  ordererId, final String  receiverAccount, final String  receiverName, final String  receiverAddress, final String  remittanceInformation, final String  additionalInstruction, final String  chargeDetail) {
-        ChaincodeStub stub = ctx.getStub();
+        TransactionState state = state(ctx);
 
-        validationParam(swiftCode, date, amount, currency, ordererName, ordererAddress, ordererId, receiverAccount, receiverName, receiverAddress, remittanceInformation, chargeDetail);
+        TransactionMetrics transaction = state.getMetrics();
+        long start = transaction.start();
+        PaymentOrder paymentOrder = PaymentOrderValidator.validate(new PaymentOrder(swiftCode, date, amount, currency, ordererName, ordererAddress, ordererId, receiverAccount, receiverName, receiverAddress, remittanceInformation, additionalInstruction, chargeDetail));
+        transaction.stop(TransactionMetrics.Phase.VALIDATION, start);
 
-        if (PaymentOrderExists(ctx, swiftCode)) {
+        if (state.exists(swiftCode)) {
             String errorMessage = "The Payment Order (" + swiftCode + ") already exists";
-            System.out.println(errorMessage);
-            throw new ChaincodeException(errorMessage, SwiftBcErrors.PAYMENTORDER_ALREADY_EXISTS.toString());
+            LOGGER.warning(errorMessage);
+            throw SwiftBcErrors.PAYMENTORDER_ALREADY_EXISTS.exception(errorMessage);
+        }
+
+        putPaymentOrder(state, paymentOrder);
+
+        return paymentOrder;
+    }
+
+    /**
+     * Creates a paymentOrder at most once per client request id, so a client
+     * can retry a submission whose outcome it does not know. The request id
+     * and the content hash of the paymentOrder are recorded under a
+     * request~requestId key. A retry of the same content returns the
+     * paymentOrder created by the first attempt without writing anything,
+     * even if it carries a new swiftCode; reusing the request id for
+     * different content is rejected.
+     *
+     * @param ctx the transaction context
+     * @param requestId id chosen by the client for this payment, the same on every retry
+     * @param paymentOrderJSON the paymentOrder as a JSON object
+     * @return the created paymentOrder, or the one created by an earlier attempt of the request
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public PaymentOrder CreatePaymentOrderIdempotent(final Context ctx, final String requestId, final String paymentOrderJSON) {
+        PaymentOrderValidator.requireNotEmpty("requestId", requestId);
+        PaymentOrderValidator.requireNotEmpty("paymentOrder", paymentOrderJSON);
+        TransactionState state = state(ctx);
+
+        TransactionMetrics transaction = state.getMetrics();
+        long start = transaction.start();
+        PaymentOrder submitted;
+        try {
+            submitted = PaymentOrderCodec.decode(paymentOrderJSON.getBytes(StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw SwiftBcErrors.INVALID_PAYMENTORDER.exception("The paymentOrder is not a valid JSON object");
+        } finally {
+            transaction.stop(TransactionMetrics.Phase.SERIALIZATION, start);
+        }
+        start = transaction.start();
+        PaymentOrder paymentOrder = PaymentOrderValidator.validate(submitted);
+        byte[] contentHash = PaymentOrderRequest.contentHash(paymentOrder);
+        transaction.stop(TransactionMetrics.Phase.VALIDATION, start);
+
+        String requestKey = new CompositeKey(REQUESTS, requestId).toString();
+        byte[] recorded = state.getState(requestKey);
+        if (recorded.length > 0) {
+            PaymentOrderRequest request = PaymentOrderRequest.decode(recorded);
+            if (!request.matches(contentHash)) {
+                String errorMessage = "The request (" + requestId + ") was already used for a different Payment Order";
+                LOGGER.warning(errorMessage);
+                throw SwiftBcErrors.REQUEST_ID_CONFLICT.exception(errorMessage);
+            }
+            PaymentOrder created = state.getPaymentOrder(request.getSwiftCode());
+            if (created == null) {
+                String errorMessage = "The Payment Order (" + request.getSwiftCode() + ") of request (" + requestId + ") does not exist";
+                LOGGER.warning(errorMessage);
+                throw SwiftBcErrors.PAYMENTORDER_NOT_FOUND.exception(errorMessage);
+            }
+            return created;
         }
 
-        PaymentOrder paymentOrder = new PaymentOrder(swiftCode, date, amount, currency, ordererName, ordererAddress, ordererId, receiverAccount, receiverName, receiverAddress, remittanceInformation, additionalInstruction, chargeDetail);
-        String paymentOrderJSON = genson.serialize(paymentOrder);
-        stub.putStringState(swiftCode, paymentOrderJSON);
+        String swiftCode = paymentOrder.getSwiftCode();
+        if (state.exists(swiftCode)) {
+            String errorMessage = "The Payment Order (" + swiftCode + ") already exists";
+            LOGGER.warning(errorMessage);
+            throw SwiftBcErrors.PAYMENTORDER_ALREADY_EXISTS.exception(errorMessage);
+        }
 
+        putPaymentOrder(state, paymentOrder);
+        state.putState(requestKey, new PaymentOrderRequest(swiftCode, contentHash).encode());
         return paymentOrder;
     }
 
-    private boolean validationParam(final String swiftCode, final String date, final String amount, final String currency, final String ordererName, final String ordererAddress, final String ordererId, final String receiverAccount, final String receiverName, final String receiverAddress, final String remittanceInformation, final String chargeDetail) {
-        isEmpty("swiftCode", swiftCode);
-        isEmpty("date", date);
-        isEmpty("amount", amount);
-        isEmpty("currency", currency);
-        isEmpty("ordererName", ordererName);
-        isEmpty("ordererAddress", ordererAddress);
-        isEmpty("ordererId", ordererId);
-        isEmpty("receiverName", receiverName);
-        isEmpty("receiverAccount", receiverAccount);
-        isEmpty("receiverAddress", receiverAddress);
-        isEmpty("remittanceInformation", remittanceInformation);
-        isEmpty("chargeDetail", chargeDetail);
-        return true;
+    /**
+     * Creates a batch of paymentOrders on the ledger in a single transaction.
+     * Every paymentOrder is validated with the same rules as CreatePaymentOrder;
+     * rejected entries are reported and skipped while the valid ones are written.
+     *
+     * @param ctx the transaction context
+     * @param paymentOrdersJSON JSON array of paymentOrders
+     * @return JSON array with one result per submitted paymentOrder, in submission order
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String CreatePaymentOrders(final Context ctx, final String paymentOrdersJSON) {
+        TransactionState state = state(ctx);
+
+        TransactionMetrics transaction = state.getMetrics();
+        long start = transaction.start();
+        PaymentOrder[] paymentOrders = parsePaymentOrders(paymentOrdersJSON);
+        transaction.stop(TransactionMetrics.Phase.SERIALIZATION, start);
+        List<PaymentOrderResult> results = new ArrayList<PaymentOrderResult>(paymentOrders.length);
+        Set<String> batchSwiftCodes = new HashSet<String>();
+
+        for (PaymentOrder submitted : paymentOrders) {
+            if (submitted == null) {
+                results.add(rejected(null, SwiftBcErrors.NOT_ENOUGH_PARAMETER, "paymentOrder is empty"));
+                continue;
+            }
+            String swiftCode = submitted.getSwiftCode();
+
+            PaymentOrder paymentOrder;
+            start = transaction.start();
+            try {
+                paymentOrder = PaymentOrderValidator.validate(submitted);
+            } catch (ChaincodeException e) {
+                results.add(PaymentOrderResult.rejected(swiftCode, new String(e.getPayload(), StandardCharsets.UTF_8), e.getMessage()));
+                continue;
+            } finally {
+                transaction.stop(TransactionMetrics.Phase.VALIDATION, start);
+            }
+
+            if (!batchSwiftCodes.add(swiftCode)) {
+                String errorMessage = "The Payment Order (" + swiftCode + ") is duplicated in the batch";
+                results.add(rejected(swiftCode, SwiftBcErrors.PAYMENTORDER_ALREADY_EXISTS, errorMessage));
+                continue;
+            }
+
+            if (state.exists(swiftCode)) {
+                String errorMessage = "The Payment Order (" + swiftCode + ") already exists";
+                results.add(rejected(swiftCode, SwiftBcErrors.PAYMENTORDER_ALREADY_EXISTS, errorMessage));
+                continue;
+            }
+
+            putPaymentOrder(state, paymentOrder);
+            results.add(PaymentOrderResult.created(swiftCode));
+        }
+
+        start = transaction.start();
+        String resultJSON = genson.serialize(results);
+        transaction.stop(TransactionMetrics.Phase.SERIALIZATION, start);
+        return resultJSON;
+    }
+
+    /**
+     * Builds the result of a rejected batch entry. Errors raised as
+     * exceptions are counted when they are created; this counts the ones
+     * that are detected without one.
+     */
+    private static PaymentOrderResult rejected(final String swiftCode, final SwiftBcErrors error, final String errorMessage) {
+        TransactionMetrics.recordError(error);
+        return PaymentOrderResult.rejected(swiftCode, error.toString(), errorMessage);
+    }
+
+    private PaymentOrder[] parsePaymentOrders(final String paymentOrdersJSON) {
+        PaymentOrder[] paymentOrders;
+        try {
+            paymentOrders = genson.deserialize(paymentOrdersJSON, PaymentOrder[].class);
+        } catch (JsonBindingException e) {
+            String errorMessage = "The Payment Order batch is not a valid JSON array";
+            LOGGER.warning(errorMessage);
+            throw SwiftBcErrors.INVALID_PAYMENTORDER_BATCH.exception(errorMessage);
+        }
+
+        if (paymentOrders == null || paymentOrders.length == 0) {
+            String errorMessage = "The Payment Order batch is empty";
+            LOGGER.warning(errorMessage);
+            throw SwiftBcErrors.INVALID_PAYMENTORDER_BATCH.exception(errorMessage);
+        }
+        return paymentOrders;
+    }
+
+    /**
+     * Writes a new paymentOrder with its index entries and aggregate delta,
+     * and lists its creation in the event of the transaction.
+     */
+    private void putPaymentOrder(final TransactionState state, final PaymentOrder paymentOrder) {
+        long start = state.getMetrics().start();
+        byte[] paymentOrderValue = storageFormat.encode(paymentOrder, state.getCodes());
+        state.getMetrics().stop(TransactionMetrics.Phase.SERIALIZATION, start);
+        state.putPaymentOrder(paymentOrder, paymentOrderValue);
+        putIndexes(state, paymentOrder);
+        addAggregateDelta(state, paymentOrder);
+        state.addChange(PaymentOrderChanges.created(paymentOrder));
     }
 
-    private void isEmpty(final String paramName, final String param) {
-        if (null == param || "".equals(param) || ("amount".equals(paramName) && "0".equals(param))) {
-            throw new ChaincodeException(paramName + " is empty", SwiftBcErrors.NOT_ENOUGH_PARAMETER.toString());
+    /**
+     * Adds a paymentOrder to the aggregate delta of its currency and date
+     * written by this transaction. The key carries the txId, so no other
+     * transaction reads or writes it and creates never conflict on it;
+     * paymentOrders of one currency and date in the same transaction share
+     * one delta.
+     */
+    private static void addAggregateDelta(final TransactionState state, final PaymentOrder paymentOrder) {
+        long minorUnits = paymentOrder.amountMinorUnits();
+        if (minorUnits <= 0) {
+            return;
         }
+        String key = new CompositeKey(AGGREGATES, paymentOrder.getCurrency(), paymentOrder.getDate(), state.getStub().getTxId()).toString();
+        byte[] written = state.getCachedState(key);
+        AggregateDelta delta = written == null || written.length == 0 ? AggregateDelta.ZERO : AggregateDelta.decode(written);
+        state.putState(key, delta.plus(new AggregateDelta(1, minorUnits)).encode());
+    }
+
+    /**
+     * Writes the index entries of a paymentOrder. The public view of a
+     * private paymentOrder has no ordererId or receiverAccount, and those
+     * index keys would disclose them, so it is only indexed by date.
+     */
+    private void putIndexes(final TransactionState state, final PaymentOrder paymentOrder) {
+        String swiftCode = paymentOrder.getSwiftCode();
+        if (paymentOrder.getOrdererId() != null) {
+            state.putState(new CompositeKey(ORDERER_INDEX, paymentOrder.getOrdererId(), swiftCode).toString(), INDEX_VALUE);
+        }
+        if (paymentOrder.getReceiverAccount() != null) {
+            state.putState(new CompositeKey(RECEIVER_ACCOUNT_INDEX, paymentOrder.getReceiverAccount(), swiftCode).toString(), INDEX_VALUE);
+        }
+        state.putState(new CompositeKey(DATE_INDEX, paymentOrder.getDate(), swiftCode).toString(), INDEX_VALUE);
+    }
+
+    /**
+     * Creates a paymentOrder whose personal fields are kept in the
+     * paymentOrderPrivateDetails collection. The whole paymentOrder is passed
+     * as JSON under the "paymentOrder" key of the transient map, so none of it
+     * is recorded in the transaction, with at least 16 random bytes under the
+     * "salt" key. It is written to the collection in the storage format of
+     * this deployment, without the public code table of the dictionary format
+     * and next to the salt, while the world state only receives a
+     * {@link PaymentOrderPublicRecord}. The paymentOrder is indexed by date
+     * and counted in the aggregates, but not indexed by orderer or receiver
+     * account.
+     *
+     * @param ctx the transaction context
+     * @return the public record of the created paymentOrder
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String CreatePrivatePaymentOrder(final Context ctx) {
+        TransactionState state = state(ctx);
+        ChaincodeStub stub = state.getStub();
+
+        Map<String, byte[]> transientData = stub.getTransient();
+        byte[] transientValue = transientData == null ? null : transientData.get(TRANSIENT_PAYMENT_ORDER);
+        if (transientValue == null || transientValue.length == 0) {
+            throw SwiftBcErrors.NOT_ENOUGH_PARAMETER.exception(TRANSIENT_PAYMENT_ORDER + " is missing from the transient map");
+        }
+        byte[] salt = transientData.get(TRANSIENT_SALT);
+        if (salt == null || salt.length < PaymentOrderPublicRecord.MIN_SALT_LENGTH) {
+            throw SwiftBcErrors.NOT_ENOUGH_PARAMETER.exception(TRANSIENT_SALT + " of at least " + PaymentOrderPublicRecord.MIN_SALT_LENGTH
+                    + " bytes is missing from the transient map");
+        }
+
+        TransactionMetrics transaction = state.getMetrics();
+        long start = transaction.start();
+        PaymentOrder submitted;
+        try {
+            submitted = PaymentOrderCodec.decode(transientValue);
+        } catch (IllegalArgumentException e) {
+            throw SwiftBcErrors.INVALID_PAYMENTORDER.exception("The transient " + TRANSIENT_PAYMENT_ORDER + " is not a valid JSON object");
+        } finally {
+            transaction.stop(TransactionMetrics.Phase.SERIALIZATION, start);
+        }
+        start = transaction.start();
+        PaymentOrder paymentOrder = PaymentOrderValidator.validate(submitted);
+        transaction.stop(TransactionMetrics.Phase.VALIDATION, start);
+
+        String swiftCode = paymentOrder.getSwiftCode();
+        if (state.exists(swiftCode)) {
+            String errorMessage = "The Payment Order (" + swiftCode + ") already exists";
+            LOGGER.warning(errorMessage);
+            throw SwiftBcErrors.PAYMENTORDER_ALREADY_EXISTS.exception(errorMessage);
+        }
+
+        start = transaction.start();
+        byte[] privateValue = storageFormat.encode(paymentOrder);
+        byte[] publicValue = PaymentOrderPublicRecord.encode(paymentOrder, privateValue, salt);
+        transaction.stop(TransactionMetrics.Phase.SERIALIZATION, start);
+
+        stub.putPrivateData(PRIVATE_COLLECTION, swiftCode, privateValue);
+        stub.putPrivateData(PRIVATE_COLLECTION, new CompositeKey(PRIVATE_SALT, swiftCode).toString(), salt);
+        PaymentOrder publicView = PaymentOrderPublicRecord.publicView(paymentOrder);
+        state.putPaymentOrder(publicView, publicValue);
+        putIndexes(state, publicView);
+        addAggregateDelta(state, publicView);
+        state.addChange(PaymentOrderChanges.created(publicView));
+
+        return new String(publicValue, StandardCharsets.UTF_8);
     }
 
     /**
      * Retrieves an paymentOrder with the specified ID from the ledger.
+     * For a paymentOrder created with CreatePrivatePaymentOrder, the personal
+     * fields are read from the private data collection when the caller
+     * belongs to the organization of the peer and the peer holds the
+     * collection, after checking them against the hash of the public record;
+     * other callers get the public record with those fields null.
      *
      * @param ctx the transaction context
      * @param swiftCode 참조번호
@@ -123,18 +467,95 @@ public final class SwiftBc implements ContractInterface {
      */
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public PaymentOrder ReadPaymentOrder(final Context ctx, final String swiftCode) {
-        ChaincodeStub stub = ctx.getStub();
-        String assetJSON = stub.getStringState(swiftCode);
+        TransactionState state = state(ctx);
+        PaymentOrder paymentOrder = state.getPaymentOrder(swiftCode);
 
-        if (assetJSON == null || assetJSON.isEmpty()) {
+        if (paymentOrder == null) {
             String errorMessage = "The Payment Order (" + swiftCode + ") does not exist";
-            System.out.println(errorMessage);
-            throw new ChaincodeException(errorMessage, SwiftBcErrors.PAYMENTORDER_NOT_FOUND.toString());
+            LOGGER.warning(errorMessage);
+            throw SwiftBcErrors.PAYMENTORDER_NOT_FOUND.exception(errorMessage);
+        }
+        byte[] publicValue = state.getState(swiftCode);
+        if (PaymentOrderPublicRecord.isPublicRecord(publicValue) && isPeerOrganization(ctx)) {
+            ChaincodeStub stub = state.getStub();
+            byte[] privateValue = stub.getPrivateData(PRIVATE_COLLECTION, swiftCode);
+            if (privateValue != null && privateValue.length > 0) {
+                byte[] salt = stub.getPrivateData(PRIVATE_COLLECTION, new CompositeKey(PRIVATE_SALT, swiftCode).toString());
+                if (!PaymentOrderPublicRecord.matches(publicValue, privateValue, salt)) {
+                    throw SwiftBcErrors.PRIVATE_DATA_MISMATCH.exception("The private data of the Payment Order (" + swiftCode + ") does not match its public record");
+                }
+                return PaymentOrderFormat.decode(privateValue);
+            }
         }
-        PaymentOrder paymentOrder = genson.deserialize(assetJSON, PaymentOrder.class);
         return paymentOrder;
     }
 
+    /**
+     * Checks whether the caller belongs to the organization of this peer,
+     * which is what the collection membership of the peer is granted to.
+     */
+    private static boolean isPeerOrganization(final Context ctx) {
+        if (ctx.getClientIdentity() == null) {
+            return false;
+        }
+        String clientMspId = ctx.getClientIdentity().getMSPID();
+        return clientMspId != null && clientMspId.equals(ctx.getStub().getMspId());
+    }
+
+    /**
+     * Retrieves the modification history of a paymentOrder, newest first.
+     * Each revision is written to the result as it is read from the peer;
+     * JSON revisions are copied as-is and only binary ones are decoded, so
+     * no revision is held longer than it takes to write it.
+     *
+     * @param ctx the transaction context
+     * @param swiftCode 참조번호
+     * @param limit maximum number of revisions to return
+     * @param since ISO-8601 instant; older revisions are not returned, empty for no cut-off
+     * @return JSON object holding the revisions and whether older ones were left out because of the limit
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetPaymentOrderHistory(final Context ctx, final String swiftCode, final int limit, final String since) {
+        TransactionState state = state(ctx);
+
+        PaymentOrderValidator.requireNotEmpty("swiftCode", swiftCode);
+        validatePageSize(limit);
+        Instant cutOff = parseInstant(since);
+
+        JsonWriter writer = new JsonWriter();
+        writer.beginObject().name("swiftCode").value(swiftCode).name("history").beginArray();
+        boolean truncated = false;
+        QueryResultsIterator<KeyModification> results = state.getStub().getHistoryForKey(swiftCode);
+        try {
+            int written = 0;
+            for (KeyModification modification : results) {
+                if (cutOff != null && modification.getTimestamp().isBefore(cutOff)) {
+                    break;
+                }
+                if (written == limit) {
+                    truncated = true;
+                    break;
+                }
+                writer.beginObject()
+                        .name("txId").value(modification.getTxId())
+                        .name("timestamp").value(modification.getTimestamp().toString())
+                        .name("isDelete").value(modification.isDeleted())
+                        .name("value");
+                byte[] value = modification.getValue();
+                if (modification.isDeleted() || value == null || value.length == 0) {
+                    writer.nullValue();
+                } else {
+                    writePaymentOrder(writer, value, state.getCodes());
+                }
+                writer.endObject();
+                written++;
+            }
+        } finally {
+            close(results);
+        }
+        return writer.endArray().name("truncated").value(truncated).endObject().toString();
+    }
+
     /**
      * Checks the existence of the paymentOrder on the ledger
      *
@@ -144,9 +565,532 @@ public final class SwiftBc implements ContractInterface {
      */
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public boolean PaymentOrderExists(final Context ctx, final String swiftCode) {
-        ChaincodeStub stub = ctx.getStub();
-        String assetJSON = stub.getStringState(swiftCode);
+        TransactionState state = state(ctx);
+
+        return state.exists(swiftCode);
+    }
+
+    /**
+     * Retrieves one page of paymentOrders whose swiftCode falls in [startKey, endKey).
+     * An empty startKey or endKey leaves that side of the range open.
+     *
+     * @param ctx the transaction context
+     * @param startKey first swiftCode of the range (inclusive)
+     * @param endKey last swiftCode of the range (exclusive)
+     * @param pageSize maximum number of paymentOrders to return
+     * @param bookmark bookmark returned by the previous page, empty for the first page
+     * @return JSON object holding the records, the fetched record count and the next bookmark
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetPaymentOrdersByRange(final Context ctx, final String startKey, final String endKey, final int pageSize, final String bookmark) {
+        TransactionState state = state(ctx);
+
+        validatePageSize(pageSize);
+
+        QueryResultsIteratorWithMetadata<KeyValue> results = state.getStub().getStateByRangeWithPagination(nullToEmpty(startKey), nullToEmpty(endKey), pageSize, nullToEmpty(bookmark));
+        try {
+            return writePage(state, results, false);
+        } finally {
+            close(results);
+        }
+    }
+
+    /**
+     * Retrieves one page of all paymentOrders on the ledger, ordered by swiftCode.
+     *
+     * @param ctx the transaction context
+     * @param pageSize maximum number of paymentOrders to return
+     * @param bookmark bookmark returned by the previous page, empty for the first page
+     * @return JSON object holding the records, the fetched record count and the next bookmark
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetAllPaymentOrders(final Context ctx, final int pageSize, final String bookmark) {
+        return GetPaymentOrdersByRange(ctx, "", "", pageSize, bookmark);
+    }
+
+    /**
+     * Retrieves one page of paymentOrders matching a restricted selector with
+     * a CouchDB rich query. The selector must constrain every field of one of
+     * the indexes shipped with the chaincode, see {@link PaymentOrderQuery}.
+     * Rich queries only see paymentOrders stored as JSON and are not
+     * available on LevelDB.
+     *
+     * @param ctx the transaction context
+     * @param selectorJSON JSON object mapping fields to a value or to comparison operators
+     * @param pageSize maximum number of paymentOrders to return
+     * @param bookmark bookmark returned by the previous page, empty for the first page
+     * @return JSON object holding the records, the fetched record count and the next bookmark
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String QueryPaymentOrders(final Context ctx, final String selectorJSON, final int pageSize, final String bookmark) {
+        TransactionState state = state(ctx);
 
-        return (assetJSON != null && !assetJSON.isEmpty());
+        String query = PaymentOrderQuery.build(selectorJSON);
+        validatePageSize(pageSize);
+
+        QueryResultsIteratorWithMetadata<KeyValue> results = state.getStub().getQueryResultWithPagination(query, pageSize, nullToEmpty(bookmark));
+        try {
+            return writePage(state, results, false);
+        } finally {
+            close(results);
+        }
+    }
+
+    /**
+     * Retrieves one page of paymentOrders placed by the given orderer.
+     *
+     * @param ctx the transaction context
+     * @param ordererId 송금인 고객번호
+     * @param pageSize maximum number of paymentOrders to return
+     * @param bookmark bookmark returned by the previous page, empty for the first page
+     * @return JSON object holding the records, the fetched record count and the next bookmark
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetPaymentOrdersByOrderer(final Context ctx, final String ordererId, final int pageSize, final String bookmark) {
+        return getPaymentOrdersByIndex(ctx, ORDERER_INDEX, "ordererId", ordererId, pageSize, bookmark);
+    }
+
+    /**
+     * Retrieves one page of paymentOrders sent to the given receiver account.
+     *
+     * @param ctx the transaction context
+     * @param receiverAccount 수취인 계좌번호
+     * @param pageSize maximum number of paymentOrders to return
+     * @param bookmark bookmark returned by the previous page, empty for the first page
+     * @return JSON object holding the records, the fetched record count and the next bookmark
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetPaymentOrdersByReceiverAccount(final Context ctx, final String receiverAccount, final int pageSize, final String bookmark) {
+        return getPaymentOrdersByIndex(ctx, RECEIVER_ACCOUNT_INDEX, "receiverAccount", receiverAccount, pageSize, bookmark);
+    }
+
+    /**
+     * Retrieves one page of paymentOrders of the given date.
+     *
+     * @param ctx the transaction context
+     * @param date 일자
+     * @param pageSize maximum number of paymentOrders to return
+     * @param bookmark bookmark returned by the previous page, empty for the first page
+     * @return JSON object holding the records, the fetched record count and the next bookmark
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetPaymentOrdersByDate(final Context ctx, final String date, final int pageSize, final String bookmark) {
+        return getPaymentOrdersByIndex(ctx, DATE_INDEX, "date", date, pageSize, bookmark);
+    }
+
+    /**
+     * Sums the aggregate deltas of a currency per date. The deltas are small
+     * records written by every create and rolled up by CompactAggregates, so
+     * neither the paymentOrders nor the date index are read. Only
+     * paymentOrders created since the deltas were introduced are counted.
+     *
+     * @param ctx the transaction context
+     * @param currency 통화
+     * @param date 일자, empty for every date
+     * @return JSON object holding the currency and the count and total amount per date
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetDailyTotals(final Context ctx, final String currency, final String date) {
+        TransactionState state = state(ctx);
+
+        CompositeKey partialKey = aggregatesKey(currency, date);
+
+        Map<String, AggregateDelta> totals = new TreeMap<String, AggregateDelta>();
+        QueryResultsIterator<KeyValue> results = state.getStub().getStateByPartialCompositeKey(partialKey);
+        try {
+            for (KeyValue result : results) {
+                String deltaDate = CompositeKey.parseCompositeKey(result.getKey()).getAttributes().get(1);
+                AggregateDelta total = totals.get(deltaDate);
+                AggregateDelta delta = AggregateDelta.decode(result.getValue());
+                totals.put(deltaDate, total == null ? delta : total.plus(delta));
+            }
+        } finally {
+            close(results);
+        }
+
+        JsonWriter writer = new JsonWriter();
+        writer.beginObject().name("currency").value(currency).name("totals").beginArray();
+        for (Map.Entry<String, AggregateDelta> total : totals.entrySet()) {
+            writer.beginObject()
+                    .name("date").value(total.getKey())
+                    .name("count").value(total.getValue().getCount())
+                    .name("amount").value(PaymentOrderValidator.formatAmount(total.getValue().getAmountMinorUnits(), currency))
+                    .endObject();
+        }
+        return writer.endArray().endObject().toString();
+    }
+
+    /**
+     * Rolls the aggregate deltas of a currency up into one checkpoint per
+     * date, written under the txId of this transaction. At most limit deltas
+     * are read per call so the read/write set of one transaction stays
+     * bounded. A create committed concurrently for a compacted date makes
+     * this transaction fail with a phantom read, never the create, so the
+     * compaction can simply be retried.
+     *
+     * @param ctx the transaction context
+     * @param currency 통화
+     * @param date 일자, empty for every date
+     * @param limit maximum number of deltas to read
+     * @return JSON object holding the number of deltas rolled up and whether every delta was read
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String CompactAggregates(final Context ctx, final String currency, final String date, final int limit) {
+        TransactionState state = state(ctx);
+
+        CompositeKey partialKey = aggregatesKey(currency, date);
+        validatePageSize(limit);
+
+        Map<String, List<String>> keysByDate = new TreeMap<String, List<String>>();
+        Map<String, AggregateDelta> totals = new TreeMap<String, AggregateDelta>();
+        boolean complete = true;
+        QueryResultsIterator<KeyValue> results = state.getStub().getStateByPartialCompositeKey(partialKey);
+        try {
+            int read = 0;
+            for (KeyValue result : results) {
+                if (read == limit) {
+                    complete = false;
+                    break;
+                }
+                String deltaDate = CompositeKey.parseCompositeKey(result.getKey()).getAttributes().get(1);
+                List<String> keys = keysByDate.get(deltaDate);
+                if (keys == null) {
+                    keys = new ArrayList<String>();
+                    keysByDate.put(deltaDate, keys);
+                    totals.put(deltaDate, AggregateDelta.ZERO);
+                }
+                keys.add(result.getKey());
+                totals.put(deltaDate, totals.get(deltaDate).plus(AggregateDelta.decode(result.getValue())));
+                read++;
+            }
+        } finally {
+            close(results);
+        }
+
+        int compacted = 0;
+        for (Map.Entry<String, List<String>> keys : keysByDate.entrySet()) {
+            if (keys.getValue().size() < 2) {
+                continue;
+            }
+            for (String key : keys.getValue()) {
+                state.delState(key);
+            }
+            String checkpointKey = new CompositeKey(AGGREGATES, currency, keys.getKey(), state.getStub().getTxId()).toString();
+            state.putState(checkpointKey, totals.get(keys.getKey()).encode());
+            compacted += keys.getValue().size();
+        }
+
+        JsonWriter writer = new JsonWriter();
+        writer.beginObject().name("currency").value(currency).name("compacted").value(compacted).name("complete").value(complete);
+        return writer.endObject().toString();
+    }
+
+    private static CompositeKey aggregatesKey(final String currency, final String date) {
+        PaymentOrderValidator.requireCurrency(currency);
+        if (date == null || date.isEmpty()) {
+            return new CompositeKey(AGGREGATES, currency);
+        }
+        PaymentOrderValidator.parseDate(date);
+        return new CompositeKey(AGGREGATES, currency, date);
+    }
+
+    /**
+     * Writes the secondary index entries of paymentOrders created before the
+     * indexes existed. At most limit paymentOrders are indexed per call so
+     * the read/write set of one transaction stays bounded.
+     *
+     * @param ctx the transaction context
+     * @param startKey swiftCode to resume from, empty for the first call
+     * @param limit maximum number of paymentOrders to index
+     * @return the swiftCode to resume from, empty when every paymentOrder is indexed
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String ReindexPaymentOrders(final Context ctx, final String startKey, final int limit) {
+        TransactionState state = state(ctx);
+
+        validatePageSize(limit);
+
+        QueryResultsIterator<KeyValue> results = state.getStub().getStateByRange(nullToEmpty(startKey), "");
+        try {
+            int indexed = 0;
+            for (KeyValue result : results) {
+                if (indexed == limit) {
+                    return result.getKey();
+                }
+                putIndexes(state, PaymentOrderFormat.decode(result.getValue(), state.getCodes()));
+                indexed++;
+            }
+            return "";
+        } finally {
+            close(results);
+        }
+    }
+
+    /**
+     * Rewrites paymentOrders that are not yet stored in the storage format of
+     * this deployment. At most limit paymentOrders are inspected per call so
+     * the read/write set of one transaction stays bounded. Public records of
+     * private paymentOrders always stay JSON.
+     *
+     * @param ctx the transaction context
+     * @param startKey swiftCode to resume from, empty for the first call
+     * @param limit maximum number of paymentOrders to inspect
+     * @return the swiftCode to resume from, empty when every paymentOrder is migrated
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String MigratePaymentOrders(final Context ctx, final String startKey, final int limit) {
+        TransactionState state = state(ctx);
+
+        validatePageSize(limit);
+
+        QueryResultsIterator<KeyValue> results = state.getStub().getStateByRange(nullToEmpty(startKey), "");
+        try {
+            int inspected = 0;
+            for (KeyValue result : results) {
+                if (inspected == limit) {
+                    return result.getKey();
+                }
+                byte[] paymentOrderValue = result.getValue();
+                if (!storageFormat.matches(paymentOrderValue) && !PaymentOrderPublicRecord.isPublicRecord(paymentOrderValue)) {
+                    state.putState(result.getKey(), storageFormat.encode(PaymentOrderFormat.decode(paymentOrderValue, state.getCodes()), state.getCodes()));
+                }
+                inspected++;
+            }
+            return "";
+        } finally {
+            close(results);
+        }
+    }
+
+    /**
+     * Requests the SETTLED status for a paymentOrder.
+     *
+     * @param ctx the transaction context
+     * @param swiftCode 참조번호
+     * @return JSON object describing the recorded status event
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String SettlePaymentOrder(final Context ctx, final String swiftCode) {
+        return requestStatus(ctx, swiftCode, PaymentOrderStatus.SETTLED, null);
+    }
+
+    /**
+     * Requests the CANCELLED status for a paymentOrder.
+     *
+     * @param ctx the transaction context
+     * @param swiftCode 참조번호
+     * @param reason 취소 사유
+     * @return JSON object describing the recorded status event
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String CancelPaymentOrder(final Context ctx, final String swiftCode, final String reason) {
+        return requestStatus(ctx, swiftCode, PaymentOrderStatus.CANCELLED, reason);
+    }
+
+    /**
+     * Requests the RETURNED status for a paymentOrder.
+     *
+     * @param ctx the transaction context
+     * @param swiftCode 참조번호
+     * @param reason 반환 사유
+     * @return JSON object describing the recorded status event
+     */
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String ReturnPaymentOrder(final Context ctx, final String swiftCode, final String reason) {
+        return requestStatus(ctx, swiftCode, PaymentOrderStatus.RETURNED, reason);
+    }
+
+    /**
+     * Retrieves the current status of a paymentOrder with its status history.
+     * The status events are folded in commit order starting from SUBMITTED,
+     * so every peer reaches the same status from the same ledger. An event
+     * requesting a transition that is not allowed from the status reached so
+     * far is listed under rejected and not applied.
+     *
+     * The commit order is taken from the history of the statusLog~swiftCode
+     * key, which every status change writes. Events missing from that
+     * history, as when the history database of the peer is disabled, are
+     * folded after the others in txId order.
+     *
+     * @param ctx the transaction context
+     * @param swiftCode 참조번호
+     * @return JSON object holding the current status, the applied and the rejected status events
+     */
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetPaymentOrderStatus(final Context ctx, final String swiftCode) {
+        TransactionState state = state(ctx);
+        ChaincodeStub stub = state.getStub();
+
+        requirePaymentOrder(state, swiftCode);
+
+        Map<String, PaymentOrderStatusEvent> byTxId = new TreeMap<String, PaymentOrderStatusEvent>();
+        QueryResultsIterator<KeyValue> results = stub.getStateByPartialCompositeKey(new CompositeKey(STATUS_EVENTS, swiftCode));
+        try {
+            for (KeyValue result : results) {
+                List<String> attributes = CompositeKey.parseCompositeKey(result.getKey()).getAttributes();
+                String txId = attributes.get(attributes.size() - 1);
+                byTxId.put(txId, PaymentOrderStatusEvent.decode(txId, result.getValue()));
+            }
+        } finally {
+            close(results);
+        }
+
+        List<PaymentOrderStatusEvent> events = new ArrayList<PaymentOrderStatusEvent>(byTxId.size());
+        if (!byTxId.isEmpty()) {
+            QueryResultsIterator<KeyModification> log = stub.getHistoryForKey(new CompositeKey(STATUS_LOG, swiftCode).toString());
+            try {
+                for (KeyModification modification : log) {
+                    PaymentOrderStatusEvent event = byTxId.remove(modification.getTxId());
+                    if (event != null) {
+                        events.add(event);
+                    }
+                }
+            } finally {
+                close(log);
+            }
+            // The history lists the newest change first.
+            Collections.reverse(events);
+            events.addAll(byTxId.values());
+        }
+
+        JsonWriter writer = new JsonWriter();
+        writer.beginObject().name("swiftCode").value(swiftCode).name("history").beginArray();
+        List<PaymentOrderStatusEvent> rejected = new ArrayList<PaymentOrderStatusEvent>();
+        PaymentOrderStatus status = PaymentOrderStatus.SUBMITTED;
+        for (PaymentOrderStatusEvent event : events) {
+            if (status.allows(event.getStatus())) {
+                status = event.getStatus();
+                writeStatusEvent(writer.beginObject(), event).endObject();
+            } else {
+                rejected.add(event);
+            }
+        }
+        writer.endArray().name("rejected").beginArray();
+        for (PaymentOrderStatusEvent event : rejected) {
+            writeStatusEvent(writer.beginObject(), event).endObject();
+        }
+        writer.endArray().name("status").value(status.name());
+        return writer.endObject().toString();
+    }
+
+    /**
+     * Records a status event without reading the earlier ones. The event is
+     * a blind write to its own status~swiftCode~txId key, and the txId a
+     * blind write to the statusLog~swiftCode key, so concurrent status
+     * changes of one paymentOrder neither conflict with each other nor with
+     * readers of the paymentOrder itself. Whether a change is applied is
+     * decided when the events are folded by GetPaymentOrderStatus. The
+     * request is also listed in the event of the transaction.
+     */
+    private String requestStatus(final Context ctx, final String swiftCode, final PaymentOrderStatus status, final String reason) {
+        TransactionState state = state(ctx);
+        ChaincodeStub stub = state.getStub();
+
+        requirePaymentOrder(state, swiftCode);
+
+        String statusReason = reason == null || reason.isEmpty() ? null : reason;
+        PaymentOrderStatusEvent event = new PaymentOrderStatusEvent(stub.getTxId(), status, stub.getTxTimestamp(), statusReason);
+        state.putState(new CompositeKey(STATUS_EVENTS, swiftCode, event.getTxId()).toString(), event.encode());
+        state.putState(new CompositeKey(STATUS_LOG, swiftCode).toString(), event.getTxId().getBytes(StandardCharsets.UTF_8));
+        state.addChange(PaymentOrderChanges.status(swiftCode, status, statusReason));
+
+        JsonWriter writer = new JsonWriter();
+        writer.beginObject().name("swiftCode").value(swiftCode);
+        return writeStatusEvent(writer, event).endObject().toString();
+    }
+
+    private static JsonWriter writeStatusEvent(final JsonWriter writer, final PaymentOrderStatusEvent event) {
+        return writer.name("txId").value(event.getTxId())
+                .name("status").value(event.getStatus().name())
+                .name("timestamp").value(event.getTimestamp().toString())
+                .name("reason").value(event.getReason());
+    }
+
+    private static void requirePaymentOrder(final TransactionState state, final String swiftCode) {
+        PaymentOrderValidator.requireNotEmpty("swiftCode", swiftCode);
+        if (!state.exists(swiftCode)) {
+            String errorMessage = "The Payment Order (" + swiftCode + ") does not exist";
+            LOGGER.warning(errorMessage);
+            throw SwiftBcErrors.PAYMENTORDER_NOT_FOUND.exception(errorMessage);
+        }
+    }
+
+    private String getPaymentOrdersByIndex(final Context ctx, final String index, final String paramName, final String param, final int pageSize, final String bookmark) {
+        TransactionState state = state(ctx);
+
+        PaymentOrderValidator.requireNotEmpty(paramName, param);
+        validatePageSize(pageSize);
+
+        QueryResultsIteratorWithMetadata<KeyValue> results = state.getStub().getStateByPartialCompositeKeyWithPagination(new CompositeKey(index, param), pageSize, nullToEmpty(bookmark));
+        try {
+            return writePage(state, results, true);
+        } finally {
+            close(results);
+        }
+    }
+
+    private void validatePageSize(final int pageSize) {
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            String errorMessage = "The page size (" + pageSize + ") must be between 1 and " + MAX_PAGE_SIZE;
+            LOGGER.warning(errorMessage);
+            throw SwiftBcErrors.INVALID_PAGE_SIZE.exception(errorMessage);
+        }
+    }
+
+    private String writePage(final TransactionState state, final QueryResultsIteratorWithMetadata<KeyValue> results, final boolean indexed) {
+        JsonWriter writer = new JsonWriter();
+        writer.beginObject().name("records").beginArray();
+        for (KeyValue result : results) {
+            if (!indexed) {
+                writePaymentOrder(writer, result.getValue(), state.getCodes());
+                continue;
+            }
+            List<String> attributes = CompositeKey.parseCompositeKey(result.getKey()).getAttributes();
+            byte[] paymentOrderValue = state.getState(attributes.get(attributes.size() - 1));
+            if (paymentOrderValue.length > 0) {
+                writePaymentOrder(writer, paymentOrderValue, state.getCodes());
+            }
+        }
+        writer.endArray();
+        writer.name("fetchedRecordsCount").value(results.getMetadata().getFetchedRecordsCount());
+        writer.name("bookmark").value(results.getMetadata().getBookmark());
+        return writer.endObject().toString();
+    }
+
+    /**
+     * Appends a stored paymentOrder to a JSON result. JSON documents are
+     * copied as-is; only binary records are decoded and re-encoded.
+     */
+    private static void writePaymentOrder(final JsonWriter writer, final byte[] paymentOrderValue, final PaymentOrderCodeTable.Codes codes) {
+        if (PaymentOrderBinaryCodec.isBinary(paymentOrderValue)) {
+            PaymentOrderCodec.encode(PaymentOrderBinaryCodec.decode(paymentOrderValue, codes), writer);
+        } else {
+            writer.rawValue(paymentOrderValue);
+        }
+    }
+
+    private static Instant parseInstant(final String instant) {
+        if (instant == null || instant.isEmpty()) {
+            return null;
+        }
+        try {
+            return Instant.parse(instant);
+        } catch (DateTimeParseException e) {
+            String errorMessage = "The timestamp (" + instant + ") is not an ISO-8601 instant";
+            LOGGER.warning(errorMessage);
+            throw SwiftBcErrors.INVALID_DATE.exception(errorMessage);
+        }
+    }
+
+    private static String nullToEmpty(final String value) {
+        return value == null ? "" : value;
+    }
+
+    private static void close(final AutoCloseable results) {
+        try {
+            results.close();
+        } catch (Exception e) {
+            throw new ChaincodeException("Failed to close the query results", e);
+        }
     }
 }
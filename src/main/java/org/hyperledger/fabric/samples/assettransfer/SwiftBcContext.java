@@ -0,0 +1,40 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+
+/**
+ * Transaction context of {@link SwiftBc}, carrying the buffered
+ * {@link TransactionState} and the {@link TransactionMetrics} of the
+ * transaction, the state being bound to the code table of the contract.
+ * SwiftBc flushes the state and completes the metrics in afterTransaction.
+ */
+public final class SwiftBcContext extends Context {
+
+    private final TransactionState state;
+
+    public SwiftBcContext(final ChaincodeStub stub) {
+        this(stub, TransactionMetrics.DISABLED);
+    }
+
+    public SwiftBcContext(final ChaincodeStub stub, final TransactionMetrics metrics) {
+        this(stub, metrics, PaymentOrderCodeTable.DISABLED);
+    }
+
+    public SwiftBcContext(final ChaincodeStub stub, final TransactionMetrics metrics, final PaymentOrderCodeTable codeTable) {
+        super(stub);
+        this.state = TransactionState.buffered(stub, metrics, codeTable);
+    }
+
+    public TransactionState getState() {
+        return state;
+    }
+
+    public TransactionMetrics getMetrics() {
+        return state.getMetrics();
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+
+/**
+ * Error codes returned as the payload of the ChaincodeExceptions raised by SwiftBc.
+ */
+public enum SwiftBcErrors {
+    NOT_ENOUGH_PARAMETER,
+    PAYMENTORDER_NOT_FOUND,
+    PAYMENTORDER_ALREADY_EXISTS,
+    INVALID_PAYMENTORDER,
+    INVALID_PAYMENTORDER_BATCH,
+    INVALID_PAGE_SIZE,
+    INVALID_AMOUNT,
+    INVALID_DATE,
+    INVALID_CURRENCY,
+    INVALID_QUERY,
+    REQUEST_ID_CONFLICT,
+    PRIVATE_DATA_MISMATCH;
+
+    /**
+     * Creates the exception for this error and counts it in the metrics of
+     * the running transaction.
+     *
+     * @param errorMessage the message of the exception
+     * @return the exception, with this error code as payload
+     */
+    public ChaincodeException exception(final String errorMessage) {
+        TransactionMetrics.recordError(this);
+        return new ChaincodeException(errorMessage, toString());
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cumulative metrics of SwiftBc per transaction function: invocations,
+ * errors per {@link SwiftBcErrors} code, state reads, writes and bytes
+ * written, and latency histograms of the whole transaction and of its
+ * validation, serialization and stub I/O phases.
+ *
+ * Metrics are switched on per deployment with the SWIFTBC_METRICS
+ * environment variable ("on" or "off", off by default). Completed
+ * transactions are passed to a {@link MetricsExporter}, by default one that
+ * logs each of them as a JSON line.
+ */
+public final class SwiftBcMetrics {
+
+    public static final String ENVIRONMENT_VARIABLE = "SWIFTBC_METRICS";
+
+    /** Metrics of a deployment that does not collect any. */
+    public static final SwiftBcMetrics DISABLED = new SwiftBcMetrics(null);
+
+    private static final Logger LOGGER = Logger.getLogger(SwiftBcMetrics.class.getName());
+
+    /** Logs every transaction as one JSON line at INFO level. */
+    public static final MetricsExporter LOG_EXPORTER = new MetricsExporter() {
+        @Override
+        public void export(final TransactionMetrics transaction) {
+            if (LOGGER.isLoggable(Level.INFO)) {
+                LOGGER.info(toJson(transaction));
+            }
+        }
+    };
+
+    private final MetricsExporter exporter;
+    private final ConcurrentMap<String, FunctionMetrics> functions = new ConcurrentHashMap<String, FunctionMetrics>();
+
+    private SwiftBcMetrics(final MetricsExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    /**
+     * Creates metrics that pass every completed transaction to an exporter.
+     *
+     * @param exporter the exporter
+     * @return the metrics
+     */
+    public static SwiftBcMetrics enabled(final MetricsExporter exporter) {
+        return new SwiftBcMetrics(exporter);
+    }
+
+    /**
+     * Resolves the metrics configured for this deployment.
+     *
+     * @return metrics logging every transaction when enabled, {@link #DISABLED} otherwise
+     */
+    public static SwiftBcMetrics fromEnvironment() {
+        return parse(System.getenv(ENVIRONMENT_VARIABLE));
+    }
+
+    static SwiftBcMetrics parse(final String setting) {
+        if (setting == null || setting.trim().isEmpty()) {
+            return DISABLED;
+        }
+        switch (setting.trim().toLowerCase(Locale.ROOT)) {
+            case "on":
+                return enabled(LOG_EXPORTER);
+            case "off":
+                return DISABLED;
+            default:
+                throw new IllegalArgumentException("Unknown " + ENVIRONMENT_VARIABLE + " setting " + setting);
+        }
+    }
+
+    public boolean isEnabled() {
+        return exporter != null;
+    }
+
+    /**
+     * Starts the measurements of a transaction and counts its invocation.
+     *
+     * @param function the name of the transaction function
+     * @param txId the transaction id
+     * @return the recorder of the transaction, {@link TransactionMetrics#DISABLED} when disabled
+     */
+    public TransactionMetrics begin(final String function, final String txId) {
+        if (exporter == null) {
+            return TransactionMetrics.DISABLED;
+        }
+        function(function).invocations.increment();
+        return TransactionMetrics.begin(this, function, txId);
+    }
+
+    /**
+     * The cumulative metrics of every function invoked so far, by function name.
+     *
+     * @return a live, unmodifiable view
+     */
+    public Map<String, FunctionMetrics> getFunctions() {
+        return Collections.unmodifiableMap(functions);
+    }
+
+    void recordError(final String function, final SwiftBcErrors error) {
+        function(function).errors.incrementAndGet(error.ordinal());
+    }
+
+    void complete(final TransactionMetrics transaction) {
+        FunctionMetrics metrics = function(transaction.getFunction());
+        metrics.reads.add(transaction.getReads());
+        metrics.writes.add(transaction.getWrites());
+        metrics.bytesWritten.add(transaction.getBytesWritten());
+        metrics.latency.record(transaction.getTotalNanos());
+        for (TransactionMetrics.Phase phase : TransactionMetrics.Phase.values()) {
+            metrics.phases[phase.ordinal()].record(transaction.getPhaseNanos(phase));
+        }
+        exporter.export(transaction);
+    }
+
+    private FunctionMetrics function(final String function) {
+        FunctionMetrics metrics = functions.get(function);
+        if (metrics == null) {
+            functions.putIfAbsent(function, new FunctionMetrics());
+            metrics = functions.get(function);
+        }
+        return metrics;
+    }
+
+    /**
+     * Formats a transaction as the JSON line written by {@link #LOG_EXPORTER}.
+     *
+     * @param transaction the transaction
+     * @return the JSON object
+     */
+    public static String toJson(final TransactionMetrics transaction) {
+        JsonWriter writer = new JsonWriter(256);
+        writer.beginObject()
+                .name("metric").value("swiftbc.transaction")
+                .name("function").value(transaction.getFunction())
+                .name("txId").value(transaction.getTxId())
+                .name("reads").value(transaction.getReads())
+                .name("writes").value(transaction.getWrites())
+                .name("bytesWritten").value(transaction.getBytesWritten())
+                .name("totalNanos").value(transaction.getTotalNanos())
+                .name("validationNanos").value(transaction.getPhaseNanos(TransactionMetrics.Phase.VALIDATION))
+                .name("serializationNanos").value(transaction.getPhaseNanos(TransactionMetrics.Phase.SERIALIZATION))
+                .name("stubIoNanos").value(transaction.getPhaseNanos(TransactionMetrics.Phase.STUB_IO));
+        return writer.endObject().toString();
+    }
+
+    /** Cumulative metrics of one transaction function. */
+    public static final class FunctionMetrics {
+
+        private final LongAdder invocations = new LongAdder();
+        private final AtomicLongArray errors = new AtomicLongArray(SwiftBcErrors.values().length);
+        private final LongAdder reads = new LongAdder();
+        private final LongAdder writes = new LongAdder();
+        private final LongAdder bytesWritten = new LongAdder();
+        private final Histogram latency = new Histogram();
+        private final Histogram[] phases = new Histogram[TransactionMetrics.Phase.values().length];
+
+        FunctionMetrics() {
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = new Histogram();
+            }
+        }
+
+        public long getInvocations() {
+            return invocations.sum();
+        }
+
+        public long getErrors(final SwiftBcErrors error) {
+            return errors.get(error.ordinal());
+        }
+
+        public long getReads() {
+            return reads.sum();
+        }
+
+        public long getWrites() {
+            return writes.sum();
+        }
+
+        public long getBytesWritten() {
+            return bytesWritten.sum();
+        }
+
+        /**
+         * Latency of completed transactions.
+         *
+         * @return the histogram
+         */
+        public Histogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * Time completed transactions spent in one phase.
+         *
+         * @param phase the phase
+         * @return the histogram
+         */
+        public Histogram getLatency(final TransactionMetrics.Phase phase) {
+            return phases[phase.ordinal()];
+        }
+    }
+
+    /**
+     * Latency histogram with cumulative-friendly fixed buckets: the upper
+     * bound of bucket i is 2^i microseconds, up to about 1 second, plus one
+     * overflow bucket.
+     */
+    public static final class Histogram {
+
+        private static final int BOUNDED_BUCKETS = 21;
+        private static final long MICROSECOND = 1000L;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BOUNDED_BUCKETS + 1);
+        private final LongAdder sumNanos = new LongAdder();
+
+        void record(final long nanos) {
+            int bucket = 0;
+            while (bucket < BOUNDED_BUCKETS && nanos > upperBoundNanos(bucket)) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            sumNanos.add(nanos);
+        }
+
+        public int getBucketCount() {
+            return buckets.length();
+        }
+
+        /**
+         * Upper bound of a bucket.
+         *
+         * @param bucket the bucket index
+         * @return the inclusive upper bound in nanoseconds, Long.MAX_VALUE for the overflow bucket
+         */
+        public static long upperBoundNanos(final int bucket) {
+            return bucket < BOUNDED_BUCKETS ? MICROSECOND << bucket : Long.MAX_VALUE;
+        }
+
+        public long getCount(final int bucket) {
+            return buckets.get(bucket);
+        }
+
+        public long getTotalCount() {
+            long count = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                count += buckets.get(i);
+            }
+            return count;
+        }
+
+        public long getSumNanos() {
+            return sumNanos.sum();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+/**
+ * Measurements of one SwiftBc transaction, started in createContext and
+ * completed in afterTransaction.
+ *
+ * The recorder is confined to the thread running the transaction and is also
+ * registered as the current recorder of that thread, so errors raised by code
+ * that has no access to the context, such as {@link PaymentOrderValidator},
+ * are still counted. A transaction that fails never reaches afterTransaction:
+ * its invocation and error are counted, its state access and latency are not,
+ * and its recorder is unregistered when the next transaction on the same
+ * pooled thread creates its context, so later errors are never counted
+ * against it. afterTransaction unregisters the recorder even when flushing
+ * the state fails.
+ *
+ * When metrics are disabled every transaction shares {@link #DISABLED}, whose
+ * methods return without reading the clock.
+ */
+public final class TransactionMetrics {
+
+    /** Parts of a transaction timed separately. */
+    public enum Phase {
+        VALIDATION,
+        SERIALIZATION,
+        STUB_IO
+    }
+
+    /** Recorder of every transaction when metrics are disabled. */
+    public static final TransactionMetrics DISABLED = new TransactionMetrics(null, null, null);
+
+    private static final ThreadLocal<TransactionMetrics> CURRENT = new ThreadLocal<TransactionMetrics>();
+
+    private final SwiftBcMetrics registry;
+    private final String function;
+    private final String txId;
+    private final long startNanos;
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private long totalNanos;
+    private int reads;
+    private int writes;
+    private long bytesWritten;
+
+    private TransactionMetrics(final SwiftBcMetrics registry, final String function, final String txId) {
+        this.registry = registry;
+        this.function = function;
+        this.txId = txId;
+        this.startNanos = registry == null ? 0L : System.nanoTime();
+    }
+
+    static TransactionMetrics begin(final SwiftBcMetrics registry, final String function, final String txId) {
+        TransactionMetrics metrics = new TransactionMetrics(registry, function, txId);
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    /**
+     * Unregisters the recorder of this thread, if any.
+     */
+    static void clearCurrent() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Counts an error in the transaction running on this thread, if metrics
+     * are enabled for it.
+     *
+     * @param error the error
+     */
+    public static void recordError(final SwiftBcErrors error) {
+        TransactionMetrics current = CURRENT.get();
+        if (current != null) {
+            current.registry.recordError(current.function, error);
+        }
+    }
+
+    public boolean isEnabled() {
+        return registry != null;
+    }
+
+    /**
+     * Starts timing a phase.
+     *
+     * @return the start time to pass to {@link #stop(Phase, long)}, 0 when disabled
+     */
+    public long start() {
+        return registry == null ? 0L : System.nanoTime();
+    }
+
+    /**
+     * Adds the time elapsed since start to a phase.
+     *
+     * @param phase the phase
+     * @param start the value returned by {@link #start()}
+     */
+    public void stop(final Phase phase, final long start) {
+        if (registry != null) {
+            phaseNanos[phase.ordinal()] += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Counts one state read sent to the peer.
+     */
+    public void recordRead() {
+        if (registry != null) {
+            reads++;
+        }
+    }
+
+    /**
+     * Counts one state write or delete sent to the peer.
+     *
+     * @param bytes the size of the written value
+     */
+    public void recordWrite(final int bytes) {
+        if (registry != null) {
+            writes++;
+            bytesWritten += bytes;
+        }
+    }
+
+    /**
+     * Completes a successful transaction and hands it to the registry. The
+     * caller unregisters the recorder with {@link #clearCurrent()}.
+     */
+    public void finish() {
+        if (registry == null) {
+            return;
+        }
+        totalNanos = System.nanoTime() - startNanos;
+        registry.complete(this);
+    }
+
+    public String getFunction() {
+        return function;
+    }
+
+    public String getTxId() {
+        return txId;
+    }
+
+    public long getPhaseNanos(final Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public int getReads() {
+        return reads;
+    }
+
+    public int getWrites() {
+        return writes;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hyperledger.fabric.shim.ChaincodeStub;
+
+/**
+ * Transaction-scoped view of the world state used by {@link SwiftBc}.
+ *
+ * Every key is fetched from the peer at most once per transaction; the raw
+ * value and, on demand, the decoded {@link PaymentOrder} are cached. A
+ * buffered state holds its writes until {@link #flush()} and serves them to
+ * later reads of the same transaction. A write-through state sends every write
+ * to the stub immediately, which is what SwiftBc falls back to when it is
+ * invoked with a plain {@link org.hyperledger.fabric.contract.Context}.
+ *
+ * Range and composite key queries are not covered by the cache and go to the
+ * stub directly, as on the peer they never see the writes of the running
+ * transaction either.
+ *
+ * Changes recorded with {@link #addChange(byte[])} are sent as the one
+ * {@link PaymentOrderChanges} event of the transaction, together with the
+ * writes.
+ *
+ * PaymentOrders are decoded with the {@link PaymentOrderCodeTable} the state
+ * is bound to, whose entries are read and written through the state like
+ * any other key.
+ *
+ * Reads and writes sent to the stub, and the decoding of paymentOrders, are
+ * reported to the {@link TransactionMetrics} of the transaction.
+ */
+public final class TransactionState {
+
+    private static final byte[] ABSENT = new byte[0];
+
+    private final ChaincodeStub stub;
+    private final boolean writeThrough;
+    private final TransactionMetrics metrics;
+    private final PaymentOrderCodeTable.Codes codes;
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+    private final List<byte[]> changes = new ArrayList<byte[]>();
+    private int pendingWrites;
+    private boolean pendingEvent;
+
+    private TransactionState(final ChaincodeStub stub, final boolean writeThrough, final TransactionMetrics metrics, final PaymentOrderCodeTable codeTable) {
+        this.stub = stub;
+        this.writeThrough = writeThrough;
+        this.metrics = metrics;
+        this.codes = codeTable.bind(this);
+    }
+
+    /**
+     * Creates a state that buffers its writes until {@link #flush()}.
+     *
+     * @param stub the stub of the transaction
+     * @return the buffered state
+     */
+    public static TransactionState buffered(final ChaincodeStub stub) {
+        return buffered(stub, TransactionMetrics.DISABLED);
+    }
+
+    /**
+     * Creates a state that buffers its writes until {@link #flush()} and
+     * reports its stub access to the metrics of the transaction.
+     *
+     * @param stub the stub of the transaction
+     * @param metrics the metrics of the transaction
+     * @return the buffered state
+     */
+    public static TransactionState buffered(final ChaincodeStub stub, final TransactionMetrics metrics) {
+        return buffered(stub, metrics, PaymentOrderCodeTable.DISABLED);
+    }
+
+    /**
+     * Creates a state that buffers its writes until {@link #flush()},
+     * reports its stub access to the metrics of the transaction and decodes
+     * paymentOrders with a code table.
+     *
+     * @param stub the stub of the transaction
+     * @param metrics the metrics of the transaction
+     * @param codeTable the code table of the contract
+     * @return the buffered state
+     */
+    public static TransactionState buffered(final ChaincodeStub stub, final TransactionMetrics metrics, final PaymentOrderCodeTable codeTable) {
+        return new TransactionState(stub, false, metrics, codeTable);
+    }
+
+    /**
+     * Creates a state that writes through to the stub.
+     *
+     * @param stub the stub of the transaction
+     * @return the write-through state
+     */
+    public static TransactionState writeThrough(final ChaincodeStub stub) {
+        return writeThrough(stub, PaymentOrderCodeTable.DISABLED);
+    }
+
+    /**
+     * Creates a state that writes through to the stub and decodes
+     * paymentOrders with a code table.
+     *
+     * @param stub the stub of the transaction
+     * @param codeTable the code table of the contract
+     * @return the write-through state
+     */
+    public static TransactionState writeThrough(final ChaincodeStub stub, final PaymentOrderCodeTable codeTable) {
+        return new TransactionState(stub, true, TransactionMetrics.DISABLED, codeTable);
+    }
+
+    public ChaincodeStub getStub() {
+        return stub;
+    }
+
+    public TransactionMetrics getMetrics() {
+        return metrics;
+    }
+
+    public PaymentOrderCodeTable.Codes getCodes() {
+        return codes;
+    }
+
+    /**
+     * Reads the value of a key, from the cache when it was read or written
+     * before in this transaction.
+     *
+     * @param key the key to read
+     * @return the value, an empty array when the key does not exist
+     */
+    public byte[] getState(final String key) {
+        return entry(key).value;
+    }
+
+    /**
+     * Checks whether a key holds a non-empty value.
+     *
+     * @param key the key to check
+     * @return true if the key exists
+     */
+    public boolean exists(final String key) {
+        return entry(key).value.length > 0;
+    }
+
+    /**
+     * Returns the value of a key if it was read or written before in this
+     * transaction, without reading it from the peer.
+     *
+     * @param key the key to look up
+     * @return the cached value, null when the key is not cached
+     */
+    public byte[] getCachedState(final String key) {
+        Entry entry = entries.get(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Reads and decodes the paymentOrder stored under a key. The decoded
+     * paymentOrder is cached with the value.
+     *
+     * @param key the swiftCode of the paymentOrder
+     * @return the paymentOrder, null when the key does not exist
+     */
+    public PaymentOrder getPaymentOrder(final String key) {
+        Entry entry = entry(key);
+        if (entry.paymentOrder == null && entry.value.length > 0) {
+            long start = metrics.start();
+            entry.paymentOrder = PaymentOrderFormat.decode(entry.value, codes);
+            metrics.stop(TransactionMetrics.Phase.SERIALIZATION, start);
+        }
+        return entry.paymentOrder;
+    }
+
+    /**
+     * Writes a value.
+     *
+     * @param key the key to write
+     * @param value the value to write
+     */
+    public void putState(final String key, final byte[] value) {
+        write(key, value, null);
+    }
+
+    /**
+     * Deletes a key. Later reads in this transaction see it as missing.
+     *
+     * @param key the key to delete
+     */
+    public void delState(final String key) {
+        write(key, ABSENT, null);
+    }
+
+    /**
+     * Writes an encoded paymentOrder and caches the paymentOrder itself, so
+     * reading it back in the same transaction does not decode it again.
+     *
+     * @param paymentOrder the paymentOrder to write
+     * @param value the encoded paymentOrder
+     */
+    public void putPaymentOrder(final PaymentOrder paymentOrder, final byte[] value) {
+        write(paymentOrder.getSwiftCode(), value, paymentOrder);
+    }
+
+    /**
+     * Records a change for the event of the transaction. A write-through
+     * state sets the event right away, listing every change recorded so far,
+     * as only the last event set by a transaction is kept.
+     *
+     * @param change a change encoded by {@link PaymentOrderChanges}
+     */
+    public void addChange(final byte[] change) {
+        changes.add(change);
+        if (writeThrough) {
+            sendEvent();
+        } else {
+            pendingEvent = true;
+        }
+    }
+
+    /**
+     * Sends the buffered writes to the stub, in the order they were first
+     * made, followed by the event of the transaction; a key written with an
+     * empty value is deleted. Does nothing for a write-through state.
+     */
+    public void flush() {
+        if (pendingWrites > 0) {
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                if (entry.getValue().dirty) {
+                    send(entry.getKey(), entry.getValue().value);
+                    entry.getValue().dirty = false;
+                }
+            }
+            pendingWrites = 0;
+        }
+        if (pendingEvent) {
+            sendEvent();
+            pendingEvent = false;
+        }
+    }
+
+    public int getPendingWrites() {
+        return pendingWrites;
+    }
+
+    private Entry entry(final String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            long start = metrics.start();
+            byte[] value = stub.getState(key);
+            metrics.stop(TransactionMetrics.Phase.STUB_IO, start);
+            metrics.recordRead();
+            entry = new Entry(value == null ? ABSENT : value);
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    private void write(final String key, final byte[] value, final PaymentOrder paymentOrder) {
+        if (writeThrough) {
+            send(key, value);
+        }
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(value);
+            entries.put(key, entry);
+        } else {
+            entry.value = value;
+        }
+        entry.paymentOrder = paymentOrder;
+        if (!writeThrough && !entry.dirty) {
+            entry.dirty = true;
+            pendingWrites++;
+        }
+    }
+
+    private void send(final String key, final byte[] value) {
+        long start = metrics.start();
+        if (value.length == 0) {
+            stub.delState(key);
+        } else {
+            stub.putState(key, value);
+        }
+        metrics.stop(TransactionMetrics.Phase.STUB_IO, start);
+        metrics.recordWrite(value.length);
+    }
+
+    private void sendEvent() {
+        long start = metrics.start();
+        byte[] payload = PaymentOrderChanges.encode(stub.getTxId(), stub.getTxTimestamp(), changes);
+        metrics.stop(TransactionMetrics.Phase.SERIALIZATION, start);
+        start = metrics.start();
+        stub.setEvent(PaymentOrderChanges.EVENT_NAME, payload);
+        metrics.stop(TransactionMetrics.Phase.STUB_IO, start);
+    }
+
+    private static final class Entry {
+
+        private byte[] value;
+        private PaymentOrder paymentOrder;
+        private boolean dirty;
+
+        Entry(final byte[] value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Bounded table of canonical String instances, looked up by their UTF-8
+ * bytes, so decoding a low-cardinality field (currency, chargeDetail, date,
+ * an address) returns the instance decoded before instead of allocating a
+ * new one.
+ *
+ * The table is direct-mapped: a slot holds the last value hashed to it, so a
+ * miss only costs the String that would have been allocated anyway. Entries
+ * are immutable and published without locking, which is safe as their
+ * fields are final; a racing lookup at worst misses and allocates.
+ */
+final class Utf8Interner {
+
+    /** Shared by the PaymentOrder codecs, so JSON and binary records decode to the same instances. */
+    static final Utf8Interner PAYMENT_ORDER_FIELDS = new Utf8Interner(2048);
+
+    private static final int MAX_LENGTH = 128;
+
+    private final Entry[] table;
+    private final int mask;
+
+    /**
+     * Creates a table.
+     *
+     * @param capacity the number of slots, a power of two
+     */
+    Utf8Interner(final int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.table = new Entry[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Returns the canonical instance of a UTF-8 string. Strings longer than
+     * 128 bytes are decoded without being interned.
+     *
+     * @param bytes the buffer holding the string
+     * @param offset the offset of the string in the buffer
+     * @param length the length of the string in bytes
+     * @return the decoded string
+     */
+    String intern(final byte[] bytes, final int offset, final int length) {
+        if (length > MAX_LENGTH) {
+            return new String(bytes, offset, length, StandardCharsets.UTF_8);
+        }
+        int hash = 1;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        hash ^= hash >>> 16;
+        int slot = hash & mask;
+        Entry entry = table[slot];
+        if (entry != null && entry.hash == hash && entry.matches(bytes, offset, length)) {
+            return entry.value;
+        }
+        String value = new String(bytes, offset, length, StandardCharsets.UTF_8);
+        table[slot] = new Entry(hash, Arrays.copyOfRange(bytes, offset, offset + length), value);
+        return value;
+    }
+
+    /**
+     * Returns the canonical instance of a string decoded elsewhere.
+     *
+     * @param value the string, may be null
+     * @return the canonical instance, null for null
+     */
+    String intern(final String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return intern(bytes, 0, bytes.length);
+    }
+
+    private static final class Entry {
+
+        private final int hash;
+        private final byte[] bytes;
+        private final String value;
+
+        Entry(final int hash, final byte[] bytes, final String value) {
+            this.hash = hash;
+            this.bytes = bytes;
+            this.value = value;
+        }
+
+        boolean matches(final byte[] other, final int offset, final int length) {
+            if (bytes.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] != other[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
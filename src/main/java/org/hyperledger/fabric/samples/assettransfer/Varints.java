@@ -0,0 +1,90 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Unsigned varints of the binary values: seven bits per byte, the least
+ * significant group first, with the high bit set on every byte but the last.
+ * Only the shortest encoding of a number is accepted, so a value read at an
+ * offset ends at that offset plus {@link #length(long)}.
+ */
+final class Varints {
+
+    /** Longest encoding, that of a negative long. */
+    static final int MAX_LENGTH = 10;
+
+    private Varints() {
+    }
+
+    /**
+     * Number of bytes of the encoding of a number.
+     *
+     * @param number the number, read as unsigned
+     * @return the length, between 1 and {@link #MAX_LENGTH}
+     */
+    static int length(final long number) {
+        return number == 0 ? 1 : (63 - Long.numberOfLeadingZeros(number)) / 7 + 1;
+    }
+
+    /**
+     * Writes a number into a buffer.
+     *
+     * @param buffer the buffer, with {@link #length(long)} bytes free from offset
+     * @param offset the offset to write at
+     * @param number the number, read as unsigned
+     * @return the offset after the number
+     */
+    static int write(final byte[] buffer, final int offset, final long number) {
+        int pos = offset;
+        long remaining = number;
+        while ((remaining & ~0x7fL) != 0) {
+            buffer[pos++] = (byte) ((remaining & 0x7f) | 0x80);
+            remaining >>>= 7;
+        }
+        buffer[pos++] = (byte) remaining;
+        return pos;
+    }
+
+    /**
+     * Writes a number to a stream.
+     *
+     * @param out the stream
+     * @param number the number, read as unsigned
+     */
+    static void write(final ByteArrayOutputStream out, final long number) {
+        long remaining = number;
+        while ((remaining & ~0x7fL) != 0) {
+            out.write((int) ((remaining & 0x7f) | 0x80));
+            remaining >>>= 7;
+        }
+        out.write((int) remaining);
+    }
+
+    /**
+     * Reads a number.
+     *
+     * @param value the buffer holding the number
+     * @param offset the offset of the number
+     * @return the number
+     * @throws IllegalArgumentException if the number is truncated, too long or not in its shortest encoding
+     */
+    static long read(final byte[] value, final int offset) {
+        long number = 0;
+        int pos = offset;
+        for (int shift = 0; shift < 64 && pos < value.length; shift += 7) {
+            byte b = value[pos++];
+            number |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                if (b == 0 && pos - offset > 1 || shift == 63 && b > 1) {
+                    break;
+                }
+                return number;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint at offset " + offset);
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.owlike.genson.Genson;
+import com.owlike.genson.JsonBindingException;
+import com.owlike.genson.stream.JsonStreamException;
+
+/**
+ * Maintains a {@link PaymentOrderReadModel} from the chaincode events of
+ * SwiftBc, so reporting queries can be answered without evaluating
+ * transactions on the peers.
+ *
+ * Events are passed to {@link #accept(String, byte[], long)} in commit
+ * order, for example from the chaincode events of the Fabric Gateway client,
+ * started from the last block of the model so a restarted projector resumes
+ * where it stopped:
+ *
+ * <pre>
+ * network.getChaincodeEvents(chaincodeName, startBlock(Math.max(model.getLastBlockNumber(), 0)))
+ *         .forEachRemaining(event -&gt; projector.accept(event.getEventName(), event.getPayload(), event.getBlockNumber()));
+ * </pre>
+ *
+ * Every change of an event is parsed and checked before any is applied, so
+ * a malformed event leaves the model untouched. An opened projector then
+ * appends the event to a journal file, one block number and payload per
+ * line, and replays the journal when it is opened again, so the read model
+ * survives restarts. The same line format can be replayed from any file with
+ * {@link #replay(PaymentOrderReadModel, Reader)}.
+ */
+public final class PaymentOrderProjector implements Closeable {
+
+    private final Genson genson = new Genson();
+    private final PaymentOrderReadModel model;
+    private final OutputStream journal;
+
+    /**
+     * Creates a projector without a journal.
+     *
+     * @param model the read model to maintain
+     */
+    public PaymentOrderProjector(final PaymentOrderReadModel model) {
+        this(model, null);
+    }
+
+    private PaymentOrderProjector(final PaymentOrderReadModel model, final OutputStream journal) {
+        this.model = model;
+        this.journal = journal;
+    }
+
+    /**
+     * Opens a projector journaling to a file, after replaying the events
+     * already in it.
+     *
+     * @param model the read model to maintain
+     * @param journal the journal file, created if it does not exist
+     * @return the projector
+     * @throws IOException if the journal cannot be read or opened
+     */
+    public static PaymentOrderProjector open(final PaymentOrderReadModel model, final Path journal) throws IOException {
+        if (Files.exists(journal)) {
+            try (Reader events = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+                replay(model, events);
+            }
+        }
+        OutputStream out = Files.newOutputStream(journal, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return new PaymentOrderProjector(model, new BufferedOutputStream(out));
+    }
+
+    /**
+     * Applies the events of a file holding one block number, a space and an
+     * event payload per line.
+     *
+     * @param model the read model to update
+     * @param events the events
+     * @return the number of events applied; events of transactions applied before are skipped
+     * @throws IOException if the events cannot be read
+     * @throws IllegalArgumentException if a line is not a block number and a {@link PaymentOrderChanges} event
+     */
+    public static int replay(final PaymentOrderReadModel model, final Reader events) throws IOException {
+        PaymentOrderProjector projector = new PaymentOrderProjector(model);
+        BufferedReader lines = events instanceof BufferedReader ? (BufferedReader) events : new BufferedReader(events);
+        int applied = 0;
+        String line = lines.readLine();
+        while (line != null) {
+            if (!line.isEmpty()) {
+                int separator = line.indexOf(' ');
+                long blockNumber;
+                try {
+                    blockNumber = Long.parseLong(separator < 0 ? line : line.substring(0, separator));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("The journal line does not start with a block number", e);
+                }
+                if (separator < 0) {
+                    throw new IllegalArgumentException("The journal line has no event");
+                }
+                if (projector.apply(line.substring(separator + 1).getBytes(StandardCharsets.UTF_8), blockNumber)) {
+                    applied++;
+                }
+            }
+            line = lines.readLine();
+        }
+        return applied;
+    }
+
+    /**
+     * Applies a chaincode event. Events with another name, and events of
+     * transactions applied before, are ignored.
+     *
+     * @param eventName the name of the chaincode event
+     * @param payload the payload of the chaincode event
+     * @param blockNumber the number of the block that committed the transaction
+     * @return true if the event was applied
+     * @throws IllegalArgumentException if the payload is not a {@link PaymentOrderChanges} event
+     * @throws UncheckedIOException if the event cannot be written to the journal
+     */
+    public synchronized boolean accept(final String eventName, final byte[] payload, final long blockNumber) {
+        if (!PaymentOrderChanges.EVENT_NAME.equals(eventName) || payload == null) {
+            return false;
+        }
+        return apply(payload, blockNumber);
+    }
+
+    public PaymentOrderReadModel getModel() {
+        return model;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private boolean apply(final byte[] payload, final long blockNumber) {
+        Map<String, Object> event;
+        try {
+            event = genson.deserialize(new String(payload, StandardCharsets.UTF_8), Map.class);
+        } catch (JsonBindingException | JsonStreamException e) {
+            throw new IllegalArgumentException("The event is not a valid JSON object", e);
+        }
+        Object txId = event == null ? null : event.get("txId");
+        Object changes = event == null ? null : event.get("changes");
+        if (!(txId instanceof String) || !(changes instanceof List)) {
+            throw new IllegalArgumentException("The event is not a " + PaymentOrderChanges.EVENT_NAME + " event");
+        }
+        if (model.isApplied(blockNumber, (String) txId)) {
+            return false;
+        }
+
+        String timestamp = string(event, "timestamp", (String) txId);
+        Instant txTimestamp;
+        try {
+            txTimestamp = timestamp == null ? Instant.EPOCH : Instant.parse(timestamp);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("The timestamp of " + txId + " is not an ISO-8601 instant", e);
+        }
+        List<Change> parsed = new ArrayList<Change>();
+        for (Object change : (List<?>) changes) {
+            parsed.add(parse((String) txId, txTimestamp, change));
+        }
+        for (Change change : parsed) {
+            if (change.created != null) {
+                model.created(change.created);
+            } else {
+                model.statusRequested(change.swiftCode, change.status);
+            }
+        }
+        model.applied(blockNumber, (String) txId);
+        journal(payload, blockNumber);
+        return true;
+    }
+
+    private static Change parse(final String txId, final Instant txTimestamp, final Object value) {
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("The change of " + txId + " is not a JSON object");
+        }
+        Map<?, ?> change = (Map<?, ?>) value;
+        Object type = change.get("type");
+        if (PaymentOrderChanges.CREATED.equals(type)) {
+            Object created = change.get("paymentOrder");
+            if (!(created instanceof Map)) {
+                throw new IllegalArgumentException("The CREATED change of " + txId + " has no paymentOrder");
+            }
+            Map<?, ?> fields = (Map<?, ?>) created;
+            PaymentOrder paymentOrder = new PaymentOrder(swiftCode(fields, type, txId), string(fields, "date", txId),
+                    string(fields, "amount", txId), string(fields, "currency", txId), string(fields, "ordererName", txId),
+                    string(fields, "ordererAddress", txId), string(fields, "ordererId", txId), string(fields, "receiverAccount", txId),
+                    string(fields, "receiverName", txId), string(fields, "receiverAddress", txId), string(fields, "remittanceInformation", txId),
+                    string(fields, "additionalInstruction", txId), string(fields, "chargeDetail", txId));
+            return new Change(paymentOrder, null, null);
+        }
+        if (PaymentOrderChanges.STATUS.equals(type)) {
+            String swiftCode = swiftCode(change, type, txId);
+            String requested = string(change, "status", txId);
+            PaymentOrderStatus status;
+            try {
+                status = PaymentOrderStatus.valueOf(requested);
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("The STATUS change of " + txId + " has an unknown status " + requested, e);
+            }
+            return new Change(null, swiftCode, new PaymentOrderStatusEvent(txId, status, txTimestamp, string(change, "reason", txId)));
+        }
+        throw new IllegalArgumentException("The change of " + txId + " has an unknown type " + type);
+    }
+
+    private static String swiftCode(final Map<?, ?> fields, final Object type, final String txId) {
+        String swiftCode = string(fields, "swiftCode", txId);
+        if (swiftCode == null) {
+            throw new IllegalArgumentException("The " + type + " change of " + txId + " has no swiftCode");
+        }
+        return swiftCode;
+    }
+
+    private static String string(final Map<?, ?> fields, final String name, final String txId) {
+        Object value = fields.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException("The " + name + " of " + txId + " is not a string");
+        }
+        return (String) value;
+    }
+
+    private void journal(final byte[] payload, final long blockNumber) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.write(Long.toString(blockNumber).getBytes(StandardCharsets.US_ASCII));
+            journal.write(' ');
+            journal.write(payload);
+            journal.write('\n');
+            journal.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("The event could not be written to the journal", e);
+        }
+    }
+
+    /** A parsed change: a created paymentOrder, or a status request of a swiftCode. */
+    private static final class Change {
+
+        private final PaymentOrder created;
+        private final String swiftCode;
+        private final PaymentOrderStatusEvent status;
+
+        Change(final PaymentOrder created, final String swiftCode, final PaymentOrderStatusEvent status) {
+            this.created = created;
+            this.swiftCode = swiftCode;
+            this.status = status;
+        }
+    }
+}
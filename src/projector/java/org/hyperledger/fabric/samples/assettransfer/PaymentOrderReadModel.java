@@ -0,0 +1,236 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Local read model of the paymentOrders on the ledger, built from the
+ * {@link PaymentOrderChanges} events of SwiftBc.
+ *
+ * PaymentOrders are held by swiftCode (the primary index) with secondary
+ * indexes by ordererId, receiverAccount, date and status, so the lookups
+ * that would otherwise be GetPaymentOrdersByOrderer,
+ * GetPaymentOrdersByReceiverAccount, GetPaymentOrdersByDate and
+ * GetPaymentOrderStatus evaluations on a peer are answered locally. Results
+ * are ordered by swiftCode, as on the ledger. The paymentOrders hold every
+ * field of the events: all of them for a public paymentOrder, the public
+ * view (swiftCode, date, amount and currency) for a private one.
+ *
+ * Status requests are folded with the rules of GetPaymentOrderStatus as
+ * they are applied. Transactions are applied in commit order and at most once: the model keeps the number of
+ * the last block it applied and the txIds of that block only, so events
+ * delivered again after a reconnect or a replay are ignored without keeping
+ * every txId, and a restarted listener resumes from that block. All methods
+ * are synchronized.
+ */
+public final class PaymentOrderReadModel {
+
+    private final NavigableMap<String, Row> paymentOrders = new TreeMap<String, Row>();
+    private final Map<Index, NavigableMap<String, NavigableSet<String>>> indexes = new EnumMap<Index, NavigableMap<String, NavigableSet<String>>>(Index.class);
+    private final Set<String> lastBlockTxIds = new HashSet<String>();
+    private long lastBlockNumber = -1;
+
+    /** Secondary indexes. */
+    enum Index {
+        ORDERER_ID,
+        RECEIVER_ACCOUNT,
+        DATE,
+        STATUS
+    }
+
+    public PaymentOrderReadModel() {
+        for (Index index : Index.values()) {
+            indexes.put(index, new TreeMap<String, NavigableSet<String>>());
+        }
+    }
+
+    /**
+     * Number of the last block a transaction was applied from, where the
+     * events of a restarted listener start.
+     *
+     * @return the block number, -1 if nothing was applied
+     */
+    public synchronized long getLastBlockNumber() {
+        return lastBlockNumber;
+    }
+
+    /**
+     * Checks whether a transaction was applied before.
+     *
+     * @param blockNumber the number of the block of the transaction
+     * @param txId the transaction id
+     * @return true if the block is before the last applied block, or is that block and the transaction was applied from it
+     */
+    synchronized boolean isApplied(final long blockNumber, final String txId) {
+        return blockNumber < lastBlockNumber || blockNumber == lastBlockNumber && lastBlockTxIds.contains(txId);
+    }
+
+    /**
+     * Marks a transaction as applied.
+     *
+     * @param blockNumber the number of the block of the transaction
+     * @param txId the transaction id
+     */
+    synchronized void applied(final long blockNumber, final String txId) {
+        if (blockNumber > lastBlockNumber) {
+            lastBlockNumber = blockNumber;
+            lastBlockTxIds.clear();
+        }
+        lastBlockTxIds.add(txId);
+    }
+
+    /**
+     * Adds a created paymentOrder. A paymentOrder that is already known is
+     * left as it is, as the ledger never replaces one.
+     *
+     * @param paymentOrder the created paymentOrder
+     */
+    synchronized void created(final PaymentOrder paymentOrder) {
+        String swiftCode = paymentOrder.getSwiftCode();
+        Row row = row(swiftCode);
+        if (row.paymentOrder != null) {
+            return;
+        }
+        row.paymentOrder = paymentOrder;
+        index(Index.ORDERER_ID, paymentOrder.getOrdererId(), swiftCode);
+        index(Index.RECEIVER_ACCOUNT, paymentOrder.getReceiverAccount(), swiftCode);
+        index(Index.DATE, paymentOrder.getDate(), swiftCode);
+        index(Index.STATUS, row.status.name(), swiftCode);
+    }
+
+    /**
+     * Applies a status request to the status of its paymentOrder, unless the
+     * status reached so far does not allow it.
+     *
+     * @param swiftCode the swiftCode of the paymentOrder
+     * @param event the status request
+     */
+    synchronized void statusRequested(final String swiftCode, final PaymentOrderStatusEvent event) {
+        Row row = row(swiftCode);
+        PaymentOrderStatus status = event.getStatus();
+        if (!row.status.allows(status)) {
+            return;
+        }
+        if (row.paymentOrder != null) {
+            unindex(Index.STATUS, row.status.name(), swiftCode);
+            index(Index.STATUS, status.name(), swiftCode);
+        }
+        row.status = status;
+    }
+
+    /**
+     * Looks up a paymentOrder.
+     *
+     * @param swiftCode the swiftCode
+     * @return the paymentOrder, null if it is not known
+     */
+    public synchronized PaymentOrder get(final String swiftCode) {
+        Row row = paymentOrders.get(swiftCode);
+        return row == null ? null : row.paymentOrder;
+    }
+
+    /**
+     * Folded status of a paymentOrder.
+     *
+     * @param swiftCode the swiftCode
+     * @return the status, null if the paymentOrder is not known
+     */
+    public synchronized PaymentOrderStatus getStatus(final String swiftCode) {
+        Row row = paymentOrders.get(swiftCode);
+        return row == null || row.paymentOrder == null ? null : row.status;
+    }
+
+    public synchronized List<PaymentOrder> getByOrderer(final String ordererId) {
+        return lookup(Index.ORDERER_ID, ordererId, ordererId);
+    }
+
+    public synchronized List<PaymentOrder> getByReceiverAccount(final String receiverAccount) {
+        return lookup(Index.RECEIVER_ACCOUNT, receiverAccount, receiverAccount);
+    }
+
+    public synchronized List<PaymentOrder> getByStatus(final PaymentOrderStatus status) {
+        return lookup(Index.STATUS, status.name(), status.name());
+    }
+
+    /**
+     * PaymentOrders of a range of dates.
+     *
+     * @param fromDate first date (yyyyMMdd), inclusive
+     * @param toDate last date (yyyyMMdd), inclusive
+     * @return the paymentOrders, by date and then swiftCode
+     */
+    public synchronized List<PaymentOrder> getByDate(final String fromDate, final String toDate) {
+        return lookup(Index.DATE, fromDate, toDate);
+    }
+
+    public synchronized int size() {
+        int size = 0;
+        for (Row row : paymentOrders.values()) {
+            if (row.paymentOrder != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    private Row row(final String swiftCode) {
+        Row row = paymentOrders.get(swiftCode);
+        if (row == null) {
+            row = new Row();
+            paymentOrders.put(swiftCode, row);
+        }
+        return row;
+    }
+
+    private void index(final Index index, final String value, final String swiftCode) {
+        if (value == null) {
+            return;
+        }
+        NavigableMap<String, NavigableSet<String>> entries = indexes.get(index);
+        NavigableSet<String> swiftCodes = entries.get(value);
+        if (swiftCodes == null) {
+            swiftCodes = new TreeSet<String>();
+            entries.put(value, swiftCodes);
+        }
+        swiftCodes.add(swiftCode);
+    }
+
+    private void unindex(final Index index, final String value, final String swiftCode) {
+        NavigableSet<String> swiftCodes = indexes.get(index).get(value);
+        if (swiftCodes != null && swiftCodes.remove(swiftCode) && swiftCodes.isEmpty()) {
+            indexes.get(index).remove(value);
+        }
+    }
+
+    private List<PaymentOrder> lookup(final Index index, final String from, final String to) {
+        if (from == null || to == null || from.compareTo(to) > 0) {
+            return Collections.emptyList();
+        }
+        List<PaymentOrder> result = new ArrayList<PaymentOrder>();
+        for (NavigableSet<String> swiftCodes : indexes.get(index).subMap(from, true, to, true).values()) {
+            for (String swiftCode : swiftCodes) {
+                result.add(paymentOrders.get(swiftCode).paymentOrder);
+            }
+        }
+        return result;
+    }
+
+    private static final class Row {
+
+        private PaymentOrder paymentOrder;
+        private PaymentOrderStatus status = PaymentOrderStatus.SUBMITTED;
+    }
+}
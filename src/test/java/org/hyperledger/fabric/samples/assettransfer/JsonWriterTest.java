@@ -0,0 +1,77 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class JsonWriterTest {
+
+    @Nested
+    class Structure {
+
+        @Test
+        public void writesNestedValues() {
+            JsonWriter writer = new JsonWriter();
+
+            writer.beginObject()
+                    .name("records").beginArray().value("a").value(1L).value(true).nullValue().endArray()
+                    .name("bookmark").value("b")
+                    .endObject();
+
+            assertThat(writer.toString()).isEqualTo("{\"records\":[\"a\",1,true,null],\"bookmark\":\"b\"}");
+        }
+
+        @Test
+        public void appendsRawValues() {
+            JsonWriter writer = new JsonWriter();
+
+            writer.beginArray().rawValue("{\"a\":1}".getBytes(StandardCharsets.UTF_8)).rawValue("{\"b\":2}".getBytes(StandardCharsets.UTF_8)).endArray();
+
+            assertThat(writer.toString()).isEqualTo("[{\"a\":1},{\"b\":2}]");
+        }
+
+        @Test
+        public void growsBeyondInitialCapacity() {
+            JsonWriter writer = new JsonWriter(16);
+            StringBuilder expected = new StringBuilder("[");
+
+            writer.beginArray();
+            for (int i = 0; i < 100; i++) {
+                writer.value("원화를 보낸다");
+                expected.append(i == 0 ? "" : ",").append("\"원화를 보낸다\"");
+            }
+            writer.endArray();
+
+            assertThat(writer.toString()).isEqualTo(expected.append("]").toString());
+        }
+    }
+
+    @Nested
+    class Escaping {
+
+        @Test
+        public void escapesControlCharacters() {
+            JsonWriter writer = new JsonWriter();
+
+            writer.value("\"\\\t\n\r\b\f\u0001");
+
+            assertThat(writer.toString()).isEqualTo("\"\\\"\\\\\\t\\n\\r\\b\\f\\u0001\"");
+        }
+
+        @Test
+        public void encodesMultiByteCharacters() {
+            JsonWriter writer = new JsonWriter();
+
+            writer.value("테스트 é 😀");
+
+            assertThat(writer.toByteArray()).isEqualTo("\"테스트 é 😀\"".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
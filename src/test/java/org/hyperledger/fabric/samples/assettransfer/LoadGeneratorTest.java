@@ -0,0 +1,184 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class LoadGeneratorTest {
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Nested
+    class Validation {
+
+        @Test
+        public void invalidatesStaleReads() {
+            try (MvccLedger ledger = new MvccLedger(2, 10_000)) {
+                ledger.preload("counter", bytes("0"));
+                MvccLedger.Transaction first = ledger.newTransaction("tx1", "Increment");
+                MvccLedger.Transaction second = ledger.newTransaction("tx2", "Increment");
+                for (MvccLedger.Transaction transaction : new MvccLedger.Transaction[] {first, second}) {
+                    ChaincodeStub stub = transaction.getStub();
+                    stub.putState("counter", bytes(new String(stub.getState("counter"), StandardCharsets.UTF_8) + "1"));
+                }
+
+                CompletableFuture<MvccLedger.ValidationCode> firstCode = first.submit();
+                CompletableFuture<MvccLedger.ValidationCode> secondCode = second.submit();
+
+                assertThat(firstCode.join()).isEqualTo(MvccLedger.ValidationCode.VALID);
+                assertThat(secondCode.join()).isEqualTo(MvccLedger.ValidationCode.MVCC_READ_CONFLICT);
+                assertThat(ledger.get("counter")).isEqualTo(bytes("01"));
+                assertThat(ledger.getBlocks()).isEqualTo(1);
+            }
+        }
+
+        @Test
+        public void invalidatesPhantomReads() {
+            try (MvccLedger ledger = new MvccLedger(1, 0)) {
+                ledger.preload("a", bytes("1"));
+                MvccLedger.Transaction scan = ledger.newTransaction("tx1", "Scan");
+                int count = 0;
+                for (KeyValue ignored : scan.getStub().getStateByRange("a", "z")) {
+                    count++;
+                }
+                scan.getStub().putState("count", bytes(Integer.toString(count)));
+                MvccLedger.Transaction insert = ledger.newTransaction("tx2", "Insert");
+                insert.getStub().putState("b", bytes("2"));
+
+                assertThat(insert.submit().join()).isEqualTo(MvccLedger.ValidationCode.VALID);
+                assertThat(scan.submit().join()).isEqualTo(MvccLedger.ValidationCode.PHANTOM_READ_CONFLICT);
+                assertThat(ledger.get("count")).isNull();
+            }
+        }
+
+        @Test
+        public void comparesOnlyTheResultsAScanHandedOut() {
+            try (MvccLedger ledger = new MvccLedger(1, 0)) {
+                ledger.preload("a", bytes("1"));
+                ledger.preload("c", bytes("3"));
+                MvccLedger.Transaction scan = ledger.newTransaction("tx1", "ScanFirst");
+                Iterator<KeyValue> results = scan.getStub().getStateByRange("a", "z").iterator();
+                scan.getStub().putState("first", results.next().getValue());
+                MvccLedger.Transaction insert = ledger.newTransaction("tx2", "Insert");
+                insert.getStub().putState("b", bytes("2"));
+
+                assertThat(insert.submit().join()).isEqualTo(MvccLedger.ValidationCode.VALID);
+                assertThat(scan.submit().join()).isEqualTo(MvccLedger.ValidationCode.VALID);
+                assertThat(ledger.get("first")).isEqualTo(bytes("1"));
+            }
+        }
+
+        @Test
+        public void rejectsPaginatedQueriesInTransactionsWithWrites() {
+            try (MvccLedger ledger = new MvccLedger(1, 0)) {
+                ChaincodeStub writeFirst = ledger.newTransaction("tx1", "WriteThenPage").getStub();
+                writeFirst.putState("key", bytes("value"));
+                ChaincodeStub pageFirst = ledger.newTransaction("tx2", "PageThenWrite").getStub();
+                pageFirst.getStateByRangeWithPagination("a", "z", 10, "");
+
+                Throwable paged = catchThrowable(() -> writeFirst.getStateByRangeWithPagination("a", "z", 10, ""));
+                Throwable written = catchThrowable(() -> pageFirst.putState("key", bytes("value")));
+
+                assertThat(paged).isInstanceOf(IllegalStateException.class)
+                        .hasMessage("txid [tx1]: unsuccessful attempt to execute paginated query in a transaction with writes");
+                assertThat(written).isInstanceOf(IllegalStateException.class)
+                        .hasMessage("txid [tx2]: unsuccessful attempt to update state after a paginated query");
+            }
+        }
+
+        @Test
+        public void buffersWritesUntilCommitted() {
+            try (MvccLedger ledger = new MvccLedger(1, 0)) {
+                MvccLedger.Transaction transaction = ledger.newTransaction("tx1", "Put");
+                assertThat(transaction.isReadOnly()).isTrue();
+
+                transaction.getStub().putState("key", bytes("value"));
+
+                assertThat(transaction.isReadOnly()).isFalse();
+                assertThat(ledger.get("key")).isNull();
+                assertThat(transaction.submit().join()).isEqualTo(MvccLedger.ValidationCode.VALID);
+                assertThat(ledger.get("key")).isEqualTo(bytes("value"));
+            }
+        }
+    }
+
+    @Nested
+    class Distribution {
+
+        @Test
+        public void favoursLowIndexesWhenSkewed() {
+            KeyDistribution keys = new KeyDistribution(1000, 1.2);
+            Random random = new Random(42);
+            int hot = 0;
+            for (int i = 0; i < 10_000; i++) {
+                int key = keys.next(random);
+                assertThat(key).isBetween(0, 999);
+                if (key < 10) {
+                    hot++;
+                }
+            }
+
+            assertThat(hot).isGreaterThan(5_000);
+        }
+
+        @Test
+        public void isUniformWithoutSkew() {
+            KeyDistribution keys = new KeyDistribution(1000, 0);
+            Random random = new Random(42);
+            int hot = 0;
+            for (int i = 0; i < 10_000; i++) {
+                if (keys.next(random) < 10) {
+                    hot++;
+                }
+            }
+
+            assertThat(hot).isLessThan(300);
+        }
+    }
+
+    @Nested
+    class Run {
+
+        @Test
+        public void reportsEveryFunctionOfTheMix() {
+            try (MvccLedger ledger = new MvccLedger(4, 5)) {
+                LoadGenerator.preload(ledger, PaymentOrderFormat.BINARY, 20);
+                LoadGenerator generator = new LoadGenerator(new SwiftBc(PaymentOrderFormat.BINARY), ledger, new KeyDistribution(20, 0.99),
+                        LoadGenerator.parseMix("SettlePaymentOrder=4,CreatePaymentOrder=4,ReadPaymentOrder=1,CompactAggregates=1"), 5);
+
+                LoadReport report = generator.run(4, 500);
+
+                assertThat(report.getFunctions()).containsOnlyKeys(LoadGenerator.COMPACT_AGGREGATES, LoadGenerator.CREATE_PAYMENT_ORDER,
+                        LoadGenerator.READ_PAYMENT_ORDER, LoadGenerator.SETTLE_PAYMENT_ORDER);
+                LoadReport.FunctionStats settle = report.getFunctions().get(LoadGenerator.SETTLE_PAYMENT_ORDER);
+                assertThat(settle.getValid()).isPositive();
+                assertThat(settle.getErrors()).isZero();
+                assertThat(settle.getLatencyPercentile(50)).isPositive().isLessThanOrEqualTo(settle.getLatencyPercentile(99));
+                assertThat(report.getBlocks()).isPositive();
+                assertThat(report.getTps()).isPositive();
+            }
+        }
+
+        @Test
+        public void rejectsUnsupportedFunctions() {
+            Throwable thrown = catchThrowable(() -> LoadGenerator.parseMix("ReadPaymentOrder=1,DeletePaymentOrder=1"));
+
+            assertThat(thrown).isInstanceOf(IllegalArgumentException.class).hasMessage("Unsupported function DeletePaymentOrder");
+        }
+    }
+}
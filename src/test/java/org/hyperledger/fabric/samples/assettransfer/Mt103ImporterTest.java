@@ -0,0 +1,161 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hyperledger.fabric.contract.Context;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.owlike.genson.Genson;
+
+public final class Mt103ImporterTest {
+
+    private static final String MESSAGE = "{1:F01WOORKRSEAXXX0000000000}{2:I103CHASUS33XXXXN}{3:{108:REF1}}{4:\r\n"
+            + ":20:paymentOrder1\r\n"
+            + ":23B:CRED\r\n"
+            + ":32A:210121KRW70000,\r\n"
+            + ":50K:/orderer1\r\n"
+            + "TEST ONE\r\n"
+            + "SEOUL\r\n"
+            + "JUNG-GU\r\n"
+            + ":59:/010101010101\r\n"
+            + "RECEIVER ONE\r\n"
+            + "NEW YORK\r\n"
+            + ":70:INVOICE 2021-001\r\n"
+            + "IMPORT PAYMENT\r\n"
+            + ":71A:SHA\r\n"
+            + "-}{5:{CHK:123456789ABC}}\r\n";
+
+    private static String bareMessage(final String swiftCode, final String valueDate) {
+        return ":20:" + swiftCode + "\n"
+                + ":32A:" + valueDate + "\n"
+                + ":50K:/orderer2\nTEST TWO\nBUSAN\n"
+                + ":59:/020202020202\nRECEIVER TWO\nLONDON\n"
+                + ":70:SERVICES\n"
+                + ":71A:OUR\n";
+    }
+
+    private static PaymentOrder paymentOrder(final String swiftCode) {
+        return new PaymentOrder(swiftCode, "20210121", "70000", "KRW", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", "재주껏 바꿔써라", "1");
+    }
+
+    private static List<PaymentOrder> read(final String input) throws IOException {
+        List<PaymentOrder> paymentOrders = new ArrayList<PaymentOrder>();
+        try (Mt103Reader reader = new Mt103Reader(new StringReader(input))) {
+            PaymentOrder paymentOrder = reader.next();
+            while (paymentOrder != null) {
+                paymentOrders.add(paymentOrder);
+                paymentOrder = reader.next();
+            }
+        }
+        return paymentOrders;
+    }
+
+    @Nested
+    class Reading {
+
+        @Test
+        public void mapsFieldsOfFinMessage() throws IOException {
+            List<PaymentOrder> paymentOrders = read(MESSAGE);
+
+            assertThat(paymentOrders).containsExactly(new PaymentOrder("paymentOrder1", "20210121", "70000", "KRW", "TEST ONE", "SEOUL JUNG-GU", "orderer1",
+                    "010101010101", "RECEIVER ONE", "NEW YORK", "INVOICE 2021-001 IMPORT PAYMENT", null, "SHA"));
+        }
+
+        @Test
+        public void readsConsecutiveMessages() throws IOException {
+            List<PaymentOrder> paymentOrders = read(MESSAGE + MESSAGE.replace("paymentOrder1", "paymentOrder2")
+                    + bareMessage("paymentOrder3", "210122USD12,50") + bareMessage("paymentOrder4", "210123USD7,") + "-\n");
+
+            assertThat(paymentOrders).extracting(PaymentOrder::getSwiftCode).containsExactly("paymentOrder1", "paymentOrder2", "paymentOrder3", "paymentOrder4");
+            assertThat(paymentOrders.get(2).getAmount()).isEqualTo("12.5");
+            assertThat(paymentOrders.get(2).getReceiverAccount()).isEqualTo("020202020202");
+            assertThat(paymentOrders.get(3).getDate()).isEqualTo("20210123");
+            assertThat(paymentOrders.get(3).getAmount()).isEqualTo("7");
+        }
+
+        @Test
+        public void leavesMissingFieldsEmpty() throws IOException {
+            List<PaymentOrder> paymentOrders = read(":20:paymentOrder1\n:32A:2101\n:50K:TEST ONE\n-\n");
+
+            assertThat(paymentOrders).hasSize(1);
+            assertThat(paymentOrders.get(0).getDate()).isNull();
+            assertThat(paymentOrders.get(0).getOrdererId()).isNull();
+            assertThat(paymentOrders.get(0).getOrdererName()).isEqualTo("TEST ONE");
+        }
+    }
+
+    @Nested
+    class Batching {
+
+        private final List<String> batches = new ArrayList<String>();
+
+        @Test
+        public void boundsBatchesByCount() {
+            PaymentOrderBatcher batcher = new PaymentOrderBatcher(2, 1024 * 1024, batches::add);
+
+            for (int i = 1; i <= 5; i++) {
+                batcher.add(paymentOrder("paymentOrder" + i));
+            }
+            batcher.flush();
+
+            assertThat(batches).hasSize(3);
+            assertThat(batcher.getBatchCount()).isEqualTo(3);
+            assertThat(batches.get(2)).isEqualTo("[" + new String(PaymentOrderCodec.encode(paymentOrder("paymentOrder5")), StandardCharsets.UTF_8) + "]");
+        }
+
+        @Test
+        public void boundsBatchesBySize() {
+            int single = PaymentOrderCodec.encode(paymentOrder("paymentOrder1")).length;
+            PaymentOrderBatcher batcher = new PaymentOrderBatcher(100, 2 * single + 3, batches::add);
+
+            for (int i = 1; i <= 5; i++) {
+                batcher.add(paymentOrder("paymentOrder" + i));
+            }
+            batcher.flush();
+
+            assertThat(batches).hasSize(3);
+            assertThat(batches).allSatisfy(batch -> assertThat(batch.getBytes(StandardCharsets.UTF_8).length).isLessThanOrEqualTo(2 * single + 3));
+        }
+    }
+
+    @Nested
+    class Importing {
+
+        @Test
+        public void submitsValidPaymentOrdersAndReportsRejectedOnes() throws IOException {
+            SwiftBc contract = new SwiftBc(PaymentOrderFormat.JSON);
+            InMemoryLedger ledger = new InMemoryLedger();
+            List<String> results = new ArrayList<String>();
+            List<PaymentOrderResult> rejections = new ArrayList<PaymentOrderResult>();
+            PaymentOrderBatcher batcher = new PaymentOrderBatcher(2, Mt103Importer.DEFAULT_MAX_BATCH_BYTES, batch -> {
+                Context ctx = contract.createContext(ledger.newStub("tx" + results.size()));
+                results.add(contract.CreatePaymentOrders(ctx, batch));
+                contract.afterTransaction(ctx, null);
+            });
+            Mt103Importer importer = new Mt103Importer(batcher, rejections::add);
+
+            importer.importFrom(new StringReader(MESSAGE + bareMessage("paymentOrder2", "210122USD12,50")
+                    + bareMessage("paymentOrder3", "210230USD1,") + bareMessage("paymentOrder4", "210123JPY1,5")));
+
+            assertThat(importer.getAccepted()).isEqualTo(2);
+            assertThat(importer.getRejected()).isEqualTo(2);
+            assertThat(rejections).extracting(PaymentOrderResult::getError).containsExactly("INVALID_DATE", "INVALID_AMOUNT");
+            assertThat(results).hasSize(1);
+            assertThat(new Genson().deserialize(results.get(0), PaymentOrderResult[].class)).containsExactly(
+                    PaymentOrderResult.created("paymentOrder1"),
+                    PaymentOrderResult.created("paymentOrder2"));
+            assertThat(contract.ReadPaymentOrder(contract.createContext(ledger.newStub("read")), "paymentOrder2").getAmount()).isEqualTo("12.50");
+        }
+    }
+}
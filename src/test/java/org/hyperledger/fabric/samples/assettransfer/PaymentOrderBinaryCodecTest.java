@@ -0,0 +1,238 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+
+public final class PaymentOrderBinaryCodecTest {
+
+    private static final PaymentOrder PAYMENT_ORDER = new PaymentOrder("paymentOrder1", "20210121", "70000", "KRW", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", "재주껏 바꿔써라", "1");
+
+    @Nested
+    class Encoding {
+
+        @Test
+        public void roundTrips() {
+            PaymentOrder paymentOrder = PaymentOrderBinaryCodec.decode(PaymentOrderBinaryCodec.encode(PAYMENT_ORDER));
+
+            assertThat(paymentOrder.toString()).isEqualTo(PAYMENT_ORDER.toString());
+            assertThat(paymentOrder.getDate()).isEqualTo("20210121");
+            assertThat(paymentOrder.getAmount()).isEqualTo("70000");
+        }
+
+        @Test
+        public void keepsNonCanonicalAmountsAndDates() {
+            PaymentOrder paymentOrder = new PaymentOrder("paymentOrder1", "2021-01-21", "070000.0", "KRW", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", "재주껏 바꿔써라", "1");
+
+            PaymentOrder decoded = PaymentOrderBinaryCodec.decode(PaymentOrderBinaryCodec.encode(paymentOrder));
+
+            assertThat(decoded.getDate()).isEqualTo("2021-01-21");
+            assertThat(decoded.getAmount()).isEqualTo("070000.0");
+        }
+
+        @Test
+        public void storesTypedAmountsAndDates() {
+            PaymentOrder paymentOrder = new PaymentOrder("paymentOrder1", "19651231", "12.50", "USD", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", "재주껏 바꿔써라", "1");
+
+            byte[] binary = PaymentOrderBinaryCodec.encode(paymentOrder);
+            PaymentOrder decoded = PaymentOrderBinaryCodec.decode(binary);
+
+            assertThat(binary[1]).isEqualTo((byte) 0x03);
+            assertThat(decoded.getDate()).isEqualTo("19651231");
+            assertThat(decoded.getAmount()).isEqualTo("12.50");
+            assertThat(decoded.amountMinorUnits()).isEqualTo(1250L);
+        }
+
+        @Test
+        public void keepsNullsAndEmptyStrings() {
+            PaymentOrder paymentOrder = new PaymentOrder("paymentOrder1", "", "70000", "KRW", "테스트1 😀", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", null, "1");
+
+            PaymentOrder decoded = PaymentOrderBinaryCodec.decode(PaymentOrderBinaryCodec.encode(paymentOrder));
+
+            assertThat(decoded.getAdditionalInstruction()).isNull();
+            assertThat(decoded.getDate()).isEqualTo("");
+            assertThat(decoded.getOrdererName()).isEqualTo("테스트1 😀");
+        }
+
+        @Test
+        public void isSmallerThanJson() {
+            byte[] binary = PaymentOrderBinaryCodec.encode(PAYMENT_ORDER);
+
+            assertThat(binary[0]).isEqualTo(PaymentOrderBinaryCodec.VERSION_2);
+            assertThat(binary.length).isLessThan(PaymentOrderCodec.encode(PAYMENT_ORDER).length / 2);
+        }
+    }
+
+    @Nested
+    class Decoding {
+
+        @Test
+        public void rejectsUnknownVersions() {
+            byte[] binary = PaymentOrderBinaryCodec.encode(PAYMENT_ORDER);
+            binary[0] = 0x7f;
+
+            Throwable thrown = catchThrowable(() -> {
+                PaymentOrderBinaryCodec.decode(binary);
+            });
+
+            assertThat(thrown).isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Unsupported PaymentOrder binary version 127");
+        }
+
+        @Test
+        public void readsVersion1Records() {
+            String[] fields = {"paymentOrder1", "20210121", "70000", "KRW", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", null, "1"};
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write(PaymentOrderBinaryCodec.VERSION_1);
+            for (String field : fields) {
+                byte[] bytes = field == null ? new byte[0] : field.getBytes(StandardCharsets.UTF_8);
+                out.write(field == null ? 0 : bytes.length + 1);
+                out.write(bytes, 0, bytes.length);
+            }
+
+            PaymentOrder decoded = PaymentOrderBinaryCodec.decode(out.toByteArray());
+
+            assertThat(decoded.getOrdererName()).isEqualTo("테스트1");
+            assertThat(decoded.getAdditionalInstruction()).isNull();
+            assertThat(decoded.getChargeDetail()).isEqualTo("1");
+        }
+
+        @Test
+        public void rejectsTruncatedRecords() {
+            byte[] binary = PaymentOrderBinaryCodec.encode(PAYMENT_ORDER);
+
+            Throwable thrown = catchThrowable(() -> {
+                PaymentOrderBinaryCodec.decode(Arrays.copyOf(binary, binary.length - 1));
+            });
+
+            assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        public void detectsTheStoredFormat() {
+            byte[] json = PaymentOrderFormat.JSON.encode(PAYMENT_ORDER);
+            byte[] binary = PaymentOrderFormat.BINARY.encode(PAYMENT_ORDER);
+
+            assertThat(PaymentOrderFormat.JSON.matches(json)).isTrue();
+            assertThat(PaymentOrderFormat.BINARY.matches(json)).isFalse();
+            assertThat(PaymentOrderFormat.BINARY.matches(binary)).isTrue();
+            assertThat(PaymentOrderFormat.decode(json).toString()).isEqualTo(PAYMENT_ORDER.toString());
+            assertThat(PaymentOrderFormat.decode(binary).toString()).isEqualTo(PAYMENT_ORDER.toString());
+        }
+
+        @Test
+        public void parsesTheConfiguredFormat() {
+            assertThat(PaymentOrderFormat.parse(null)).isEqualTo(PaymentOrderFormat.JSON);
+            assertThat(PaymentOrderFormat.parse(" binary ")).isEqualTo(PaymentOrderFormat.BINARY);
+        }
+    }
+
+    @Nested
+    class Coding {
+
+        private final InMemoryLedger ledger = new InMemoryLedger();
+
+        private PaymentOrderCodeTable.Codes codes(final PaymentOrderCodeTable codeTable, final String txId) {
+            return TransactionState.writeThrough(ledger.newStub(txId), codeTable).getCodes();
+        }
+
+        @Test
+        public void storesRepeatedFieldsAsIds() {
+            byte[] coded = PaymentOrderBinaryCodec.encode(PAYMENT_ORDER, codes(new PaymentOrderCodeTable(), "tx1"));
+
+            assertThat(coded[0]).isEqualTo(PaymentOrderBinaryCodec.VERSION_3);
+            assertThat(coded[1]).isEqualTo((byte) 0x0f);
+            assertThat(coded.length).isLessThan(PaymentOrderBinaryCodec.encode(PAYMENT_ORDER).length);
+            assertThat(ledger.size()).isEqualTo(6);
+            assertThat(ledger.get(new CompositeKey("code~field~id", "CURRENCY", "0").toString())).isEqualTo("KRW".getBytes(StandardCharsets.UTF_8));
+            assertThat(PaymentOrderFormat.DICTIONARY.matches(coded)).isTrue();
+            assertThat(PaymentOrderFormat.BINARY.matches(coded)).isFalse();
+        }
+
+        @Test
+        public void reusesCommittedIds() {
+            PaymentOrder other = new PaymentOrder("paymentOrder2", "20210122", "12.50", "USD", "테스트2", "서울어딘가", "orderer2", "101010101010", "receiver2", "미국어딘가", "달러를 보낸다", null, "1");
+            byte[] first = PaymentOrderBinaryCodec.encode(PAYMENT_ORDER, codes(new PaymentOrderCodeTable(), "tx1"));
+            int size = ledger.size();
+
+            PaymentOrderCodeTable codeTable = new PaymentOrderCodeTable();
+            byte[] second = PaymentOrderBinaryCodec.encode(other, codes(codeTable, "tx2"));
+
+            assertThat(ledger.size()).isEqualTo(size + 2);
+            assertThat(ledger.get(new CompositeKey("codeCount~field", "CURRENCY").toString())).isEqualTo("2".getBytes(StandardCharsets.UTF_8));
+            assertThat(ledger.get(new CompositeKey("codeCount~field", "CHARGE_DETAIL").toString())).isEqualTo("1".getBytes(StandardCharsets.UTF_8));
+            PaymentOrder decoded = PaymentOrderBinaryCodec.decode(first, codes(codeTable, "tx3"));
+            assertThat(decoded.toString()).isEqualTo(PAYMENT_ORDER.toString());
+            assertThat(decoded.getChargeDetail()).isSameAs(PaymentOrderBinaryCodec.decode(second, codes(codeTable, "tx4")).getChargeDetail());
+        }
+
+        @Test
+        public void readsTheCodeTableInEveryTransaction() {
+            PaymentOrderCodeTable codeTable = new PaymentOrderCodeTable();
+            PaymentOrderBinaryCodec.encode(PAYMENT_ORDER, codes(codeTable, "tx1"));
+            String currencyKey = new CompositeKey("codeId~field~value", "CURRENCY", "KRW").toString();
+
+            for (String txId : new String[] {"tx2", "tx3"}) {
+                ChaincodeStub stub = mock(ChaincodeStub.class, AdditionalAnswers.delegatesTo(ledger.newStub(txId)));
+                PaymentOrderBinaryCodec.encode(PAYMENT_ORDER, TransactionState.writeThrough(stub, codeTable).getCodes());
+
+                verify(stub).getState(currencyKey);
+            }
+        }
+
+        @Test
+        public void storesLongValuesInline() {
+            StringBuilder chargeDetail = new StringBuilder();
+            while (chargeDetail.length() <= PaymentOrderCodeTable.MAX_VALUE_BYTES) {
+                chargeDetail.append("송금인 부담 ");
+            }
+            PaymentOrder paymentOrder = new PaymentOrder("paymentOrder1", "20210121", "70000", "KRW", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", null, chargeDetail.toString());
+            PaymentOrderCodeTable codeTable = new PaymentOrderCodeTable();
+
+            byte[] coded = PaymentOrderBinaryCodec.encode(paymentOrder, codes(codeTable, "tx1"));
+
+            assertThat(coded[1]).isEqualTo((byte) 0x07);
+            assertThat(PaymentOrderBinaryCodec.decode(coded, codes(codeTable, "tx2")).toString()).isEqualTo(paymentOrder.toString());
+        }
+
+        @Test
+        public void needsTheCodeTable() {
+            byte[] coded = PaymentOrderBinaryCodec.encode(PAYMENT_ORDER, codes(new PaymentOrderCodeTable(), "tx1"));
+            ledger.clear();
+
+            Throwable withoutCodeTable = catchThrowable(() -> PaymentOrderFormat.decode(coded));
+            Throwable withoutEntries = catchThrowable(() -> PaymentOrderFormat.decode(coded, codes(new PaymentOrderCodeTable(), "tx2")));
+
+            assertThat(withoutCodeTable).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("no code table is available");
+            assertThat(withoutEntries).isInstanceOf(IllegalArgumentException.class).hasMessage("Unknown code 0 of CURRENCY");
+        }
+
+        @Test
+        public void internsRepeatedFields() {
+            byte[] binary = PaymentOrderBinaryCodec.encode(PAYMENT_ORDER);
+
+            PaymentOrder first = PaymentOrderBinaryCodec.decode(binary);
+            PaymentOrder second = PaymentOrderBinaryCodec.decode(binary);
+
+            assertThat(second.getCurrency()).isSameAs(first.getCurrency());
+            assertThat(second.getDate()).isSameAs(first.getDate());
+            assertThat(second.getReceiverAddress()).isSameAs(first.getReceiverAddress());
+            assertThat(second.getOrdererName()).isNotSameAs(first.getOrdererName());
+        }
+    }
+}
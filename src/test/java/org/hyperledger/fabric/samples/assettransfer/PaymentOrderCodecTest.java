@@ -0,0 +1,95 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.owlike.genson.Genson;
+
+public final class PaymentOrderCodecTest {
+
+    private static final PaymentOrder PAYMENT_ORDER = new PaymentOrder("paymentOrder1", "20210121", "70000", "KRW", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", "재주껏 바꿔써라", "1");
+
+    private static void assertSameFields(final PaymentOrder actual, final PaymentOrder expected) {
+        assertThat(actual.toString()).isEqualTo(expected.toString());
+        assertThat(actual.getDate()).isEqualTo(expected.getDate());
+        assertThat(actual.getAmount()).isEqualTo(expected.getAmount());
+    }
+
+    @Nested
+    class Encoding {
+
+        @Test
+        public void matchesGensonOutput() {
+            byte[] expected = new Genson().serialize(PAYMENT_ORDER).getBytes(StandardCharsets.UTF_8);
+
+            assertThat(PaymentOrderCodec.encode(PAYMENT_ORDER)).isEqualTo(expected);
+        }
+
+        @Test
+        public void matchesGensonOutputWithNullsAndEscapes() {
+            PaymentOrder paymentOrder = new PaymentOrder("paymentOrder2", "20210121", "100000", "KRW", "\"테스트2\"", "미국\n어딘가", "orderer2", "101010101010", "receiver\\2", "한국\t어딘가", "원화를 보낸다", null, "2");
+            byte[] expected = new Genson().serialize(paymentOrder).getBytes(StandardCharsets.UTF_8);
+
+            assertThat(PaymentOrderCodec.encode(paymentOrder)).isEqualTo(expected);
+        }
+    }
+
+    @Nested
+    class Decoding {
+
+        @Test
+        public void roundTrips() {
+            assertSameFields(PaymentOrderCodec.decode(PaymentOrderCodec.encode(PAYMENT_ORDER)), PAYMENT_ORDER);
+        }
+
+        @Test
+        public void readsLegacyDocuments() {
+            String legacyJSON = "{ \"swiftCode\": \"paymentOrder1\", \"date\": \"20210121\", \"amount\": \"70000\" , \"currency\": \"KRW\", \"ordererName\": \"테스트1\", \"ordererAddress\": \"서울어딘가\", \"ordererId\": \"orderer1\", \"receiverAccount\": \"010101010101\", \"receiverName\": \"receiver1\", \"receiverAddress\": \"미국어딘가\", \"remittanceInformation\": \"원화를 보낸다\", \"additionalInstruction\": \"재주껏 바꿔써라\", \"chargeDetail\": \"1\" }";
+
+            assertSameFields(PaymentOrderCodec.decode(legacyJSON.getBytes(StandardCharsets.UTF_8)), PAYMENT_ORDER);
+        }
+
+        @Test
+        public void readsEscapesAndSkipsUnknownProperties() {
+            String json = "{\"docType\":{\"a\":[1,true,null,\"x\"]},\"swiftCode\":\"payment\\u004frder\\\"1\\\"\",\"additionalInstruction\":null,\"amount\":\"70000\"}";
+
+            PaymentOrder paymentOrder = PaymentOrderCodec.decode(json.getBytes(StandardCharsets.UTF_8));
+
+            assertThat(paymentOrder.getSwiftCode()).isEqualTo("paymentOrder\"1\"");
+            assertThat(paymentOrder.getAdditionalInstruction()).isNull();
+            assertThat(paymentOrder.getAmount()).isEqualTo("70000");
+        }
+
+        @Test
+        public void rejectsMalformedDocuments() {
+            Throwable thrown = catchThrowable(() -> {
+                PaymentOrderCodec.decode("{\"swiftCode\":\"paymentOrder1\"".getBytes(StandardCharsets.UTF_8));
+            });
+
+            assertThat(thrown).isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Malformed PaymentOrder JSON at offset 28");
+        }
+
+        @Test
+        public void internsRepeatedFields() {
+            byte[] json = PaymentOrderCodec.encode(PAYMENT_ORDER);
+
+            PaymentOrder first = PaymentOrderCodec.decode(json);
+            PaymentOrder second = PaymentOrderCodec.decode(json);
+
+            assertThat(second.getCurrency()).isSameAs(first.getCurrency());
+            assertThat(second.getDate()).isSameAs(first.getDate());
+            assertThat(second.getOrdererAddress()).isSameAs(first.getOrdererAddress());
+            assertThat(second.getSwiftCode()).isNotSameAs(first.getSwiftCode());
+        }
+    }
+}
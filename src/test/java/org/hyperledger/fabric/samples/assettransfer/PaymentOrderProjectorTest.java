@@ -0,0 +1,214 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.hyperledger.fabric.contract.Context;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public final class PaymentOrderProjectorTest {
+
+    private final SwiftBc contract = new SwiftBc(PaymentOrderFormat.BINARY);
+    private final InMemoryLedger ledger = new InMemoryLedger();
+    private final List<byte[]> events = new ArrayList<byte[]>();
+
+    private void invoke(final String txId, final Function<Context, Object> transaction) {
+        Context ctx = contract.createContext(ledger.newStub(txId));
+        Object result = transaction.apply(ctx);
+        contract.afterTransaction(ctx, result);
+        events.add(ledger.getEvent(txId));
+    }
+
+    private boolean accept(final PaymentOrderProjector projector, final int index) {
+        return projector.accept(PaymentOrderChanges.EVENT_NAME, events.get(index), index + 1);
+    }
+
+    private void runTransactions() {
+        invoke("tx1", ctx -> {
+            contract.InitLedger(ctx);
+            return null;
+        });
+        invoke("tx2", ctx -> contract.CreatePaymentOrder(ctx, "paymentOrder3", "20210122", "12.5", "USD", "테스트3", "부산어딘가", "orderer1", "303030303030",
+                "receiver3", "영국어딘가", "달러를 보낸다", null, "1"));
+        invoke("tx3", ctx -> contract.SettlePaymentOrder(ctx, "paymentOrder1"));
+        invoke("tx4", ctx -> contract.CancelPaymentOrder(ctx, "paymentOrder1", "too late"));
+        invoke("tx5", ctx -> contract.CancelPaymentOrder(ctx, "paymentOrder2", null));
+    }
+
+    @Nested
+    class Events {
+
+        @Test
+        public void listsEveryChangeOfATransactionInOneEvent() {
+            runTransactions();
+
+            String initLedger = new String(events.get(0), StandardCharsets.UTF_8);
+            assertThat(initLedger).startsWith("{\"txId\":\"tx1\",\"timestamp\":\"")
+                    .contains("{\"type\":\"CREATED\",\"paymentOrder\":{\"additionalInstruction\":")
+                    .contains("\"amount\":\"70000\"", "\"currency\":\"KRW\"", "\"receiverAccount\":\"010101010101\"")
+                    .contains("\"swiftCode\":\"paymentOrder2\"}}");
+            assertThat(new String(events.get(3), StandardCharsets.UTF_8))
+                    .endsWith("\"changes\":[{\"type\":\"STATUS\",\"swiftCode\":\"paymentOrder1\",\"status\":\"CANCELLED\",\"reason\":\"too late\"}]}");
+        }
+
+        @Test
+        public void setsNoEventForReads() {
+            runTransactions();
+
+            invoke("tx6", ctx -> contract.ReadPaymentOrder(ctx, "paymentOrder1"));
+
+            assertThat(ledger.getEvent("tx6")).isNull();
+        }
+    }
+
+    @Nested
+    class Projection {
+
+        @Test
+        public void maintainsIndexedReadModel() {
+            runTransactions();
+            PaymentOrderReadModel model = new PaymentOrderReadModel();
+            PaymentOrderProjector projector = new PaymentOrderProjector(model);
+
+            for (int i = 0; i < events.size(); i++) {
+                assertThat(accept(projector, i)).isTrue();
+            }
+
+            assertThat(model.size()).isEqualTo(3);
+            assertThat(model.getLastBlockNumber()).isEqualTo(5);
+            assertThat(model.get("paymentOrder3").getReceiverAccount()).isEqualTo("303030303030");
+            assertThat(model.get("paymentOrder3").getAmount()).isEqualTo("12.50");
+            assertThat(model.get("paymentOrder3").getCurrency()).isEqualTo("USD");
+            assertThat(model.getByOrderer("orderer1")).extracting(PaymentOrder::getSwiftCode).containsExactly("paymentOrder1", "paymentOrder3");
+            assertThat(model.getByReceiverAccount("101010101010")).extracting(PaymentOrder::getSwiftCode).containsExactly("paymentOrder2");
+            assertThat(model.getByDate("20210121", "20210122")).extracting(PaymentOrder::getSwiftCode)
+                    .containsExactly("paymentOrder1", "paymentOrder2", "paymentOrder3");
+            assertThat(model.getStatus("paymentOrder1")).isEqualTo(PaymentOrderStatus.SETTLED);
+            assertThat(model.getByStatus(PaymentOrderStatus.CANCELLED)).extracting(PaymentOrder::getSwiftCode).containsExactly("paymentOrder2");
+            assertThat(model.getByStatus(PaymentOrderStatus.SUBMITTED)).extracting(PaymentOrder::getSwiftCode).containsExactly("paymentOrder3");
+            assertThat(contract.GetPaymentOrderStatus(contract.createContext(ledger.newStub("read")), "paymentOrder1")).endsWith("\"status\":\"SETTLED\"}");
+        }
+
+        @Test
+        public void ignoresRepeatedAndForeignEvents() {
+            runTransactions();
+            PaymentOrderProjector projector = new PaymentOrderProjector(new PaymentOrderReadModel());
+
+            assertThat(accept(projector, 0)).isTrue();
+            assertThat(accept(projector, 0)).isFalse();
+            assertThat(projector.accept("OtherEvent", events.get(1), 2)).isFalse();
+            assertThat(catchThrowable(() -> projector.accept(PaymentOrderChanges.EVENT_NAME, "{\"changes\":[]}".getBytes(StandardCharsets.UTF_8), 2)))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThat(projector.getModel().size()).isEqualTo(2);
+        }
+
+        @Test
+        public void ignoresTransactionsOfBlocksAppliedBefore() {
+            runTransactions();
+            PaymentOrderReadModel model = new PaymentOrderReadModel();
+            PaymentOrderProjector projector = new PaymentOrderProjector(model);
+
+            assertThat(projector.accept(PaymentOrderChanges.EVENT_NAME, events.get(0), 7)).isTrue();
+            assertThat(projector.accept(PaymentOrderChanges.EVENT_NAME, events.get(1), 7)).isTrue();
+            assertThat(projector.accept(PaymentOrderChanges.EVENT_NAME, events.get(1), 7)).isFalse();
+            assertThat(projector.accept(PaymentOrderChanges.EVENT_NAME, events.get(2), 6)).isFalse();
+
+            assertThat(model.getLastBlockNumber()).isEqualTo(7);
+            assertThat(model.getStatus("paymentOrder1")).isEqualTo(PaymentOrderStatus.SUBMITTED);
+        }
+
+        @Test
+        public void rejectsUnknownChangesBeforeApplyingAny() {
+            PaymentOrderReadModel model = new PaymentOrderReadModel();
+            PaymentOrderProjector projector = new PaymentOrderProjector(model);
+            byte[] event = ("{\"txId\":\"tx1\",\"timestamp\":null,\"changes\":[{\"type\":\"CREATED\",\"paymentOrder\":{\"swiftCode\":\"paymentOrder1\","
+                    + "\"date\":\"20210121\"}},{\"type\":\"DELETED\",\"swiftCode\":\"paymentOrder1\"}]}").getBytes(StandardCharsets.UTF_8);
+
+            Throwable thrown = catchThrowable(() -> projector.accept(PaymentOrderChanges.EVENT_NAME, event, 1));
+
+            assertThat(thrown).isInstanceOf(IllegalArgumentException.class).hasMessage("The change of tx1 has an unknown type DELETED");
+            assertThat(model.size()).isZero();
+            assertThat(model.getLastBlockNumber()).isEqualTo(-1);
+        }
+
+        @Test
+        public void rejectsMistypedFieldsBeforeApplyingAny() {
+            PaymentOrderReadModel model = new PaymentOrderReadModel();
+            PaymentOrderProjector projector = new PaymentOrderProjector(model);
+            byte[] mistypedDate = ("{\"txId\":\"tx1\",\"timestamp\":null,\"changes\":[{\"type\":\"CREATED\",\"paymentOrder\":{\"swiftCode\":\"paymentOrder1\","
+                    + "\"date\":20210121}}]}").getBytes(StandardCharsets.UTF_8);
+            byte[] badTimestamp = ("{\"txId\":\"tx1\",\"timestamp\":\"yesterday\",\"changes\":[{\"type\":\"STATUS\",\"swiftCode\":\"paymentOrder1\","
+                    + "\"status\":\"SETTLED\",\"reason\":null}]}").getBytes(StandardCharsets.UTF_8);
+
+            assertThat(catchThrowable(() -> projector.accept(PaymentOrderChanges.EVENT_NAME, mistypedDate, 1)))
+                    .isInstanceOf(IllegalArgumentException.class).hasMessage("The date of tx1 is not a string");
+            assertThat(catchThrowable(() -> projector.accept(PaymentOrderChanges.EVENT_NAME, badTimestamp, 1)))
+                    .isInstanceOf(IllegalArgumentException.class).hasMessage("The timestamp of tx1 is not an ISO-8601 instant");
+            assertThat(model.size()).isZero();
+            assertThat(model.getLastBlockNumber()).isEqualTo(-1);
+        }
+
+        @Test
+        public void keepsThePublicViewOfPrivatePaymentOrders() {
+            PaymentOrder paymentOrder = new PaymentOrder("paymentOrder4", "20210123", "300.00", "EUR", "테스트4", "대구어딘가", "orderer4", "404040404040",
+                    "receiver4", "독일어딘가", "유로를 보낸다", null, "1");
+            Map<String, byte[]> transientData = new HashMap<>();
+            transientData.put("paymentOrder", PaymentOrderCodec.encode(paymentOrder));
+            transientData.put("salt", "0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+            Context ctx = contract.createContext(ledger.newStub("tx1", "CreatePrivatePaymentOrder", transientData));
+            contract.CreatePrivatePaymentOrder(ctx);
+            contract.afterTransaction(ctx, null);
+            PaymentOrderReadModel model = new PaymentOrderReadModel();
+
+            assertThat(new PaymentOrderProjector(model).accept(PaymentOrderChanges.EVENT_NAME, ledger.getEvent("tx1"), 1)).isTrue();
+
+            assertThat(model.get("paymentOrder4")).extracting(PaymentOrder::getAmount, PaymentOrder::getCurrency, PaymentOrder::getDate, PaymentOrder::getOrdererId)
+                    .containsExactly("300.00", "EUR", "20210123", null);
+            assertThat(model.getByOrderer("orderer4")).isEmpty();
+            assertThat(new String(ledger.getEvent("tx1"), StandardCharsets.UTF_8)).doesNotContain("테스트4").doesNotContain("404040404040");
+        }
+
+        @Test
+        public void replaysJournal(@TempDir final Path directory) throws IOException {
+            runTransactions();
+            Path journal = directory.resolve("events.jsonl");
+
+            try (PaymentOrderProjector projector = PaymentOrderProjector.open(new PaymentOrderReadModel(), journal)) {
+                for (int i = 0; i < 3; i++) {
+                    accept(projector, i);
+                }
+            }
+            PaymentOrderReadModel model = new PaymentOrderReadModel();
+            try (PaymentOrderProjector projector = PaymentOrderProjector.open(model, journal)) {
+                assertThat(model.getStatus("paymentOrder1")).isEqualTo(PaymentOrderStatus.SETTLED);
+                assertThat(model.getLastBlockNumber()).isEqualTo(3);
+                for (int i = 0; i < events.size(); i++) {
+                    accept(projector, i);
+                }
+            }
+
+            assertThat(Files.readAllLines(journal, StandardCharsets.UTF_8)).hasSize(events.size());
+            PaymentOrderReadModel replayed = new PaymentOrderReadModel();
+            assertThat(PaymentOrderProjector.replay(replayed, new StringReader(new String(Files.readAllBytes(journal), StandardCharsets.UTF_8))))
+                    .isEqualTo(events.size());
+            assertThat(replayed.getByStatus(PaymentOrderStatus.CANCELLED)).extracting(PaymentOrder::getSwiftCode).containsExactly("paymentOrder2");
+        }
+    }
+}
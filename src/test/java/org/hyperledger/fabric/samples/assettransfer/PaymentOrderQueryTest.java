@@ -0,0 +1,73 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+
+import java.io.InputStream;
+import java.util.Map;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.junit.jupiter.api.Test;
+
+import com.owlike.genson.Genson;
+
+public final class PaymentOrderQueryTest {
+
+    @Test
+    public void buildsQueryOnMostSelectiveIndex() {
+        String query = PaymentOrderQuery.build("{\"date\": {\"$lt\": \"20210201\", \"$gte\": \"20210101\"}, \"currency\": \"KRW\", \"ordererName\": \"테스트1\"}");
+
+        assertThat(query).isEqualTo("{\"selector\":{\"date\":{\"$gte\":\"20210101\",\"$lt\":\"20210201\"},\"currency\":\"KRW\",\"ordererName\":\"테스트1\"},"
+                + "\"use_index\":[\"_design/indexOrdererNameCurrencyDateDoc\",\"indexOrdererNameCurrencyDate\"]}");
+    }
+
+    @Test
+    public void fallsBackToLessSelectiveIndex() {
+        String query = PaymentOrderQuery.build("{\"currency\": \"USD\", \"date\": \"20210121\", \"chargeDetail\": \"1\"}");
+
+        assertThat(query).endsWith("\"use_index\":[\"_design/indexCurrencyDateDoc\",\"indexCurrencyDate\"]}");
+    }
+
+    @Test
+    public void rejectsSelectorsWithoutIndex() {
+        assertInvalid("{\"ordererName\": \"테스트1\"}", "The query selector must constrain every field of one of the indexes "
+                + "[ordererName, currency, date], [receiverName, date], [currency, date]");
+    }
+
+    @Test
+    public void rejectsUnsupportedFieldsAndOperators() {
+        assertInvalid("{\"currency\": \"KRW\", \"date\": \"20210121\", \"amount\": \"70000\"}", "The field (amount) cannot be queried");
+        assertInvalid("{\"currency\": \"KRW\", \"date\": {\"$regex\": \"^2021\"}}", "The operator ($regex) is not supported");
+        assertInvalid("{\"currency\": \"KRW\", \"date\": {\"$gt\": 20210121}}", "The operand of $gt on date must be a string");
+        assertInvalid("[]", "The query selector is not a non-empty JSON object");
+        assertInvalid("not json", "The query selector is not a non-empty JSON object");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void declaredIndexesAreShipped() throws Exception {
+        for (PaymentOrderQuery.Index index : PaymentOrderQuery.INDEXES) {
+            try (InputStream in = getClass().getResourceAsStream("/META-INF/statedb/couchdb/indexes/" + index.getName() + ".json")) {
+                assertThat(in).as(index.getName()).isNotNull();
+                Map<String, Object> definition = new Genson().deserialize(in, Map.class);
+
+                assertThat(definition.get("name")).isEqualTo(index.getName());
+                assertThat(definition.get("ddoc")).isEqualTo(index.getDesignDocument());
+                assertThat(((Map<String, Object>) definition.get("index")).get("fields")).isEqualTo(index.getFields());
+            }
+        }
+    }
+
+    private static void assertInvalid(final String selectorJSON, final String errorMessage) {
+        Throwable thrown = catchThrowable(() -> {
+            PaymentOrderQuery.build(selectorJSON);
+        });
+
+        assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause().hasMessage(errorMessage);
+        assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_QUERY".getBytes());
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class PaymentOrderValidatorTest {
+
+    @Nested
+    class Amount {
+
+        @Test
+        public void parsesMinorUnits() {
+            assertThat(PaymentOrderValidator.parseAmount("70000", "KRW")).isEqualTo(70000L);
+            assertThat(PaymentOrderValidator.parseAmount("12.5", "USD")).isEqualTo(1250L);
+            assertThat(PaymentOrderValidator.parseAmount("0.001", "KWD")).isEqualTo(1L);
+        }
+
+        @Test
+        public void rejectsZeroNegativeAndGarbage() {
+            assertThat(PaymentOrderValidator.tryParseAmount("0", "KRW")).isEqualTo(PaymentOrderValidator.INVALID_AMOUNT);
+            assertThat(PaymentOrderValidator.tryParseAmount("0.00", "USD")).isEqualTo(PaymentOrderValidator.INVALID_AMOUNT);
+            assertThat(PaymentOrderValidator.tryParseAmount("-100", "USD")).isEqualTo(PaymentOrderValidator.INVALID_AMOUNT);
+            assertThat(PaymentOrderValidator.tryParseAmount("1.000", "USD")).isEqualTo(PaymentOrderValidator.INVALID_AMOUNT);
+            assertThat(PaymentOrderValidator.tryParseAmount("1.5", "KRW")).isEqualTo(PaymentOrderValidator.INVALID_AMOUNT);
+            assertThat(PaymentOrderValidator.tryParseAmount("1e5", "USD")).isEqualTo(PaymentOrderValidator.INVALID_AMOUNT);
+            assertThat(PaymentOrderValidator.tryParseAmount(".5", "USD")).isEqualTo(PaymentOrderValidator.INVALID_AMOUNT);
+            assertThat(PaymentOrderValidator.tryParseAmount("99999999999999999999", "KRW")).isEqualTo(PaymentOrderValidator.INVALID_AMOUNT);
+        }
+
+        @Test
+        public void rejectsUnknownCurrencies() {
+            Throwable thrown = catchThrowable(() -> {
+                PaymentOrderValidator.parseAmount("100", "won");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("The currency (won) is not an ISO 4217 code");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_CURRENCY".getBytes());
+        }
+
+        @Test
+        public void rejectsCodesOutsideIso4217() {
+            Throwable thrown = catchThrowable(() -> {
+                PaymentOrderValidator.parseAmount("100", "XYZ");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("The currency (XYZ) is not an ISO 4217 code");
+            assertThat(PaymentOrderValidator.fractionDigits("XAU")).isEqualTo(-1);
+        }
+
+        @Test
+        public void takesMinorUnitsFromIso4217() {
+            assertThat(PaymentOrderValidator.fractionDigits("KRW")).isZero();
+            assertThat(PaymentOrderValidator.fractionDigits("EUR")).isEqualTo(2);
+            assertThat(PaymentOrderValidator.fractionDigits("BHD")).isEqualTo(3);
+            assertThat(PaymentOrderValidator.formatAmount(1500L, "CLF")).isEqualTo("0.1500");
+        }
+
+        @Test
+        public void formatsCanonically() {
+            assertThat(PaymentOrderValidator.formatAmount(70000L, "KRW")).isEqualTo("70000");
+            assertThat(PaymentOrderValidator.formatAmount(1250L, "USD")).isEqualTo("12.50");
+            assertThat(PaymentOrderValidator.formatAmount(5L, "USD")).isEqualTo("0.05");
+        }
+    }
+
+    @Nested
+    class Date {
+
+        @Test
+        public void parsesEpochDays() {
+            assertThat(PaymentOrderValidator.parseDate("19700101")).isEqualTo(0);
+            assertThat(PaymentOrderValidator.parseDate("20210121")).isEqualTo(18648);
+            assertThat(PaymentOrderValidator.formatDate(18648)).isEqualTo("20210121");
+        }
+
+        @Test
+        public void rejectsInvalidDates() {
+            assertThat(PaymentOrderValidator.tryParseDate("20210229")).isEqualTo(PaymentOrderValidator.INVALID_DATE);
+            assertThat(PaymentOrderValidator.tryParseDate("20211301")).isEqualTo(PaymentOrderValidator.INVALID_DATE);
+            assertThat(PaymentOrderValidator.tryParseDate("2021-1-1")).isEqualTo(PaymentOrderValidator.INVALID_DATE);
+            assertThat(PaymentOrderValidator.tryParseDate("202101")).isEqualTo(PaymentOrderValidator.INVALID_DATE);
+        }
+    }
+
+    @Nested
+    class PaymentOrders {
+
+        @Test
+        public void normalizesTheAmount() {
+            PaymentOrder paymentOrder = new PaymentOrder("paymentOrder1", "20210121", "0012.5", "USD", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", null, "1");
+
+            assertThat(PaymentOrderValidator.validate(paymentOrder).getAmount()).isEqualTo("12.50");
+        }
+
+        @Test
+        public void rejectsMissingFields() {
+            PaymentOrder paymentOrder = new PaymentOrder("paymentOrder1", "20210121", "70000", "KRW", "테스트1", "서울어딘가", "orderer1", "", "receiver1", "미국어딘가", "원화를 보낸다", null, "1");
+
+            Throwable thrown = catchThrowable(() -> {
+                PaymentOrderValidator.validate(paymentOrder);
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("receiverAccount is empty");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("NOT_ENOUGH_PARAMETER".getBytes());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hyperledger.fabric.contract.Context;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class SwiftBcMetricsTest {
+
+    private final List<TransactionMetrics> exported = new ArrayList<TransactionMetrics>();
+
+    private final SwiftBcMetrics metrics = SwiftBcMetrics.enabled(transaction -> exported.add(transaction));
+
+    @Nested
+    class Transactions {
+
+        @Test
+        public void recordsCompletedTransactions() {
+            SwiftBc contract = new SwiftBc(PaymentOrderFormat.JSON, metrics);
+            InMemoryLedger ledger = new InMemoryLedger();
+
+            Context ctx = contract.createContext(ledger.newStub("tx1", "basic:InitLedger"));
+            contract.InitLedger(ctx);
+            contract.afterTransaction(ctx, null);
+
+            assertThat(exported).hasSize(1);
+            TransactionMetrics transaction = exported.get(0);
+            assertThat(transaction.getFunction()).isEqualTo("InitLedger");
+            assertThat(transaction.getTxId()).isEqualTo("tx1");
+            assertThat(transaction.getReads()).isEqualTo(2);
+            assertThat(transaction.getWrites()).isEqualTo(ledger.size());
+            assertThat(transaction.getBytesWritten()).isGreaterThan(0L);
+            assertThat(transaction.getTotalNanos()).isGreaterThanOrEqualTo(transaction.getPhaseNanos(TransactionMetrics.Phase.STUB_IO));
+
+            SwiftBcMetrics.FunctionMetrics initLedger = metrics.getFunctions().get("InitLedger");
+            assertThat(initLedger.getInvocations()).isEqualTo(1L);
+            assertThat(initLedger.getWrites()).isEqualTo(ledger.size());
+            assertThat(initLedger.getLatency().getTotalCount()).isEqualTo(1L);
+            assertThat(initLedger.getLatency(TransactionMetrics.Phase.SERIALIZATION).getTotalCount()).isEqualTo(1L);
+            assertThat(SwiftBcMetrics.toJson(transaction)).startsWith("{\"metric\":\"swiftbc.transaction\",\"function\":\"InitLedger\",\"txId\":\"tx1\",\"reads\":2,");
+        }
+
+        @Test
+        public void countsErrorsOfFailedTransactions() {
+            SwiftBc contract = new SwiftBc(PaymentOrderFormat.JSON, metrics);
+            InMemoryLedger ledger = new InMemoryLedger();
+
+            Context ctx = contract.createContext(ledger.newStub("tx1", "ReadPaymentOrder"));
+            catchThrowable(() -> {
+                contract.ReadPaymentOrder(ctx, "paymentOrder1");
+            });
+            Context batch = contract.createContext(ledger.newStub("tx2", "CreatePaymentOrders"));
+            contract.CreatePaymentOrders(batch, "[null, {\"swiftCode\": \"paymentOrder1\"}]");
+            contract.afterTransaction(batch, null);
+
+            SwiftBcMetrics.FunctionMetrics read = metrics.getFunctions().get("ReadPaymentOrder");
+            assertThat(read.getInvocations()).isEqualTo(1L);
+            assertThat(read.getErrors(SwiftBcErrors.PAYMENTORDER_NOT_FOUND)).isEqualTo(1L);
+            assertThat(read.getLatency().getTotalCount()).isEqualTo(0L);
+            assertThat(metrics.getFunctions().get("CreatePaymentOrders").getErrors(SwiftBcErrors.NOT_ENOUGH_PARAMETER)).isEqualTo(2L);
+            assertThat(exported).extracting(TransactionMetrics::getFunction).containsExactly("CreatePaymentOrders");
+        }
+
+        @Test
+        public void dropsTheRecorderOfAFailedTransaction() {
+            SwiftBc contract = new SwiftBc(PaymentOrderFormat.JSON, metrics);
+            InMemoryLedger ledger = new InMemoryLedger();
+            Context ctx = contract.createContext(ledger.newStub("tx1", "ReadPaymentOrder"));
+            catchThrowable(() -> {
+                contract.ReadPaymentOrder(ctx, "paymentOrder1");
+            });
+
+            SwiftBc disabled = new SwiftBc(PaymentOrderFormat.JSON, SwiftBcMetrics.DISABLED);
+            Context next = disabled.createContext(ledger.newStub("tx2", "ReadPaymentOrder"));
+            catchThrowable(() -> {
+                disabled.ReadPaymentOrder(next, "paymentOrder1");
+            });
+
+            assertThat(metrics.getFunctions().get("ReadPaymentOrder").getErrors(SwiftBcErrors.PAYMENTORDER_NOT_FOUND)).isEqualTo(1L);
+        }
+
+        @Test
+        public void recordsNothingWhenDisabled() {
+            SwiftBc contract = new SwiftBc(PaymentOrderFormat.JSON, SwiftBcMetrics.DISABLED);
+            InMemoryLedger ledger = new InMemoryLedger();
+
+            Context ctx = contract.createContext(ledger.newStub("tx1", "InitLedger"));
+            contract.InitLedger(ctx);
+            contract.afterTransaction(ctx, null);
+
+            assertThat(((SwiftBcContext) ctx).getMetrics()).isSameAs(TransactionMetrics.DISABLED);
+            assertThat(TransactionMetrics.DISABLED.getWrites()).isEqualTo(0);
+            assertThat(SwiftBcMetrics.DISABLED.getFunctions()).isEmpty();
+        }
+    }
+
+    @Nested
+    class Configuration {
+
+        @Test
+        public void parsesSetting() {
+            assertThat(SwiftBcMetrics.parse(null).isEnabled()).isFalse();
+            assertThat(SwiftBcMetrics.parse(" off ").isEnabled()).isFalse();
+            assertThat(SwiftBcMetrics.parse("ON").isEnabled()).isTrue();
+            assertThat(catchThrowable(() -> SwiftBcMetrics.parse("prometheus"))).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class Histograms {
+
+        @Test
+        public void bucketsByPowersOfTwoMicroseconds() {
+            SwiftBcMetrics.Histogram histogram = new SwiftBcMetrics.Histogram();
+
+            histogram.record(500L);
+            histogram.record(1_000L);
+            histogram.record(3_000L);
+            histogram.record(5_000_000_000L);
+
+            assertThat(histogram.getCount(0)).isEqualTo(2L);
+            assertThat(histogram.getCount(2)).isEqualTo(1L);
+            assertThat(histogram.getCount(histogram.getBucketCount() - 1)).isEqualTo(1L);
+            assertThat(histogram.getTotalCount()).isEqualTo(4L);
+            assertThat(histogram.getSumNanos()).isEqualTo(5_000_004_500L);
+            assertThat(SwiftBcMetrics.Histogram.upperBoundNanos(histogram.getBucketCount() - 1)).isEqualTo(Long.MAX_VALUE);
+        }
+    }
+}
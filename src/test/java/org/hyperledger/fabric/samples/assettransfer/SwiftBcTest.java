@@ -6,22 +6,41 @@ package org.hyperledger.fabric.samples.assettransfer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.argThat;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import org.hyperledger.fabric.contract.ClientIdentity;
 import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.protos.peer.QueryResponseMetadata;
 import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyModification;
 import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import com.owlike.genson.Genson;
+
 public final class SwiftBcTest {
 
     private final class MockKeyValue implements KeyValue {
@@ -52,14 +71,12 @@ public final class SwiftBcTest {
 
     }
 
-    private final class MockPaymentOrderResultsIterator implements QueryResultsIterator<KeyValue> {
+    private final class MockPaymentOrderResultsIterator implements QueryResultsIteratorWithMetadata<KeyValue> {
 
         private final List<KeyValue> paymentOrderList;
 
         MockPaymentOrderResultsIterator() {
-            super();
-
-            paymentOrderList = new ArrayList<KeyValue>();
+            this(new ArrayList<KeyValue>());
 
             paymentOrderList.add(new MockKeyValue("paymentOrder1",
                     "{ \"swiftCode\": \"paymentOrder1\", \"date\": \"20210121\", \"amount\": \"70000\", \"currency\": \"KRW\", \"ordererName\": \"테스트1\", \"ordererAddress\": \"서울어딘가\", \"ordererId\": \"orderer1\", \"receiverAccount\": \"010101010101\", \"receiverName\": \"receiver1\", \"receiverAddress\": \"미국어딘가\", \"remittanceInformation\": \"원화를 보낸다\", \"additionalInstruction\": \"재주껏 바꿔써라\", \"chargeDetail\": \"1\" }"));
@@ -67,11 +84,25 @@ public final class SwiftBcTest {
                     "{ \"swiftCode\": \"paymentOrder2\", \"date\": \"20210121\", \"amount\": \"100000\", \"currency\": \"KRW\", \"ordererName\": \"테스트2\", \"ordererAddress\": \"미국어딘가\", \"ordererId\": \"orderer2\", \"receiverAccount\": \"101010101010\", \"receiverName\": \"receiver2\", \"receiverAddress\": \"한국어딘가\", \"remittanceInformation\": \"원화를 보낸다\", \"additionalInstruction\": \"편하지?\", \"chargeDetail\": \"2\" }"));
         }
 
+        MockPaymentOrderResultsIterator(final List<KeyValue> paymentOrderList) {
+            super();
+
+            this.paymentOrderList = paymentOrderList;
+        }
+
         @Override
         public Iterator<KeyValue> iterator() {
             return paymentOrderList.iterator();
         }
 
+        @Override
+        public QueryResponseMetadata getMetadata() {
+            return QueryResponseMetadata.newBuilder()
+                    .setFetchedRecordsCount(paymentOrderList.size())
+                    .setBookmark("paymentOrder3")
+                    .build();
+        }
+
         @Override
         public void close() throws Exception {
             // do nothing
@@ -103,21 +134,35 @@ public final class SwiftBcTest {
             Context ctx = mock(Context.class);
             ChaincodeStub stub = mock(ChaincodeStub.class);
             when(ctx.getStub()).thenReturn(stub);
-            when(stub.getStringState("paymentOrder1"))
-                    .thenReturn("{ \"swiftCode\": \"paymentOrder1\", \"date\": \"20210121\", \"amount\": \"70000\" , \"currency\": \"KRW\", \"ordererName\": \"테스트1\", \"ordererAddress\": \"서울어딘가\", \"ordererId\": \"orderer1\", \"receiverAccount\": \"010101010101\", \"receiverName\": \"receiver1\", \"receiverAddress\": \"미국어딘가\", \"remittanceInformation\": \"원화를 보낸다\", \"additionalInstruction\": \"재주껏 바꿔써라\", \"chargeDetail\": \"1\" }");
+            when(stub.getState("paymentOrder1"))
+                    .thenReturn("{ \"swiftCode\": \"paymentOrder1\", \"date\": \"20210121\", \"amount\": \"70000\" , \"currency\": \"KRW\", \"ordererName\": \"테스트1\", \"ordererAddress\": \"서울어딘가\", \"ordererId\": \"orderer1\", \"receiverAccount\": \"010101010101\", \"receiverName\": \"receiver1\", \"receiverAddress\": \"미국어딘가\", \"remittanceInformation\": \"원화를 보낸다\", \"additionalInstruction\": \"재주껏 바꿔써라\", \"chargeDetail\": \"1\" }".getBytes(StandardCharsets.UTF_8));
 
             PaymentOrder paymentOrder = contract.ReadPaymentOrder(ctx, "paymentOrder1");
 
             assertThat(paymentOrder).isEqualTo(new PaymentOrder("paymentOrder1", "20210121", "70000", "KRW", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", "재주껏 바꿔써라", "1"));
         }
 
+        @Test
+        public void whenPaymentOrderIsStoredInBinary() {
+            SwiftBc contract = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            PaymentOrder stored = new PaymentOrder("paymentOrder1", "20210121", "70000", "KRW", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", "재주껏 바꿔써라", "1");
+            when(stub.getState("paymentOrder1")).thenReturn(PaymentOrderBinaryCodec.encode(stored));
+
+            PaymentOrder paymentOrder = contract.ReadPaymentOrder(ctx, "paymentOrder1");
+
+            assertThat(paymentOrder.toString()).isEqualTo(stored.toString());
+        }
+
         @Test
         public void whenPaymentOrderDoesNotExist() {
             SwiftBc contract = new SwiftBc();
             Context ctx = mock(Context.class);
             ChaincodeStub stub = mock(ChaincodeStub.class);
             when(ctx.getStub()).thenReturn(stub);
-            when(stub.getStringState("paymentOrder1")).thenReturn("");
+            when(stub.getState("paymentOrder1")).thenReturn(new byte[0]);
 
             Throwable thrown = catchThrowable(() -> {
                 contract.ReadPaymentOrder(ctx, "paymentOrder1");
@@ -138,8 +183,8 @@ public final class SwiftBcTest {
             Context ctx = mock(Context.class);
             ChaincodeStub stub = mock(ChaincodeStub.class);
             when(ctx.getStub()).thenReturn(stub);
-            when(stub.getStringState("paymentOrder1"))
-                    .thenReturn("{ \"swiftCode\": \"paymentOrder1\", \"date\": \"20210121\", \"amount\": \"70000\" , \"currency\": \"KRW\", \"ordererName\": \"테스트1\", \"ordererAddress\": \"서울어딘가\", \"ordererId\": \"orderer1\", \"receiverAccount\": \"010101010101\", \"receiverName\": \"receiver1\", \"receiverAddress\": \"미국어딘가\", \"remittanceInformation\": \"원화를 보낸다\", \"additionalInstruction\": \"재주껏 바꿔써라\", \"chargeDetail\": \"1\" }");
+            when(stub.getState("paymentOrder1"))
+                    .thenReturn("{ \"swiftCode\": \"paymentOrder1\", \"date\": \"20210121\", \"amount\": \"70000\" , \"currency\": \"KRW\", \"ordererName\": \"테스트1\", \"ordererAddress\": \"서울어딘가\", \"ordererId\": \"orderer1\", \"receiverAccount\": \"010101010101\", \"receiverName\": \"receiver1\", \"receiverAddress\": \"미국어딘가\", \"remittanceInformation\": \"원화를 보낸다\", \"additionalInstruction\": \"재주껏 바꿔써라\", \"chargeDetail\": \"1\" }".getBytes(StandardCharsets.UTF_8));
 
             Throwable thrown = catchThrowable(() -> {
                 contract.CreatePaymentOrder(ctx, "paymentOrder1", "20210121", "70000", "KRW", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", "재주껏 바꿔써라", "1");
@@ -148,6 +193,8 @@ public final class SwiftBcTest {
             assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
                     .hasMessage("The Payment Order (paymentOrder1) already exists");
             assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("PAYMENTORDER_ALREADY_EXISTS".getBytes());
+            verify(stub, times(1)).getState("paymentOrder1");
+            verify(stub, never()).getStringState("paymentOrder1");
         }
 
         @Test
@@ -156,11 +203,738 @@ public final class SwiftBcTest {
             Context ctx = mock(Context.class);
             ChaincodeStub stub = mock(ChaincodeStub.class);
             when(ctx.getStub()).thenReturn(stub);
-            when(stub.getStringState("paymentOrder1")).thenReturn("");
+            when(stub.getState("paymentOrder1")).thenReturn(null);
+            when(stub.getTxId()).thenReturn("tx1");
 
             PaymentOrder paymentOrder = contract.CreatePaymentOrder(ctx, "paymentOrder1", "20210121", "70000", "KRW", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", "재주껏 바꿔써라", "1");
 
             assertThat(paymentOrder).isEqualTo(new PaymentOrder("paymentOrder1", "20210121", "70000", "KRW", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", "재주껏 바꿔써라", "1"));
+            verify(stub, times(1)).getState("paymentOrder1");
+            verify(stub).putState(new CompositeKey("ordererId~swiftCode", "orderer1", "paymentOrder1").toString(), new byte[] {0x00});
+            verify(stub).putState(new CompositeKey("receiverAccount~swiftCode", "010101010101", "paymentOrder1").toString(), new byte[] {0x00});
+            verify(stub).putState(new CompositeKey("date~swiftCode", "20210121", "paymentOrder1").toString(), new byte[] {0x00});
+            verify(stub).putState(new CompositeKey("agg~currency~date~txId", "KRW", "20210121", "tx1").toString(), new AggregateDelta(1, 70000).encode());
+        }
+    }
+
+    @Nested
+    class InvokeGetPaymentOrderHistoryTransaction {
+
+        private final byte[] revision1 = PaymentOrderCodec.encode(new PaymentOrder("paymentOrder1", "20210121", "70000", "KRW", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", "재주껏 바꿔써라", "1"));
+        private final byte[] revision2 = PaymentOrderBinaryCodec.encode(new PaymentOrder("paymentOrder1", "20210121", "70000", "KRW", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", "재주껏 바꿔써라", "1"));
+
+        private QueryResultsIterator<KeyModification> history() {
+            List<KeyModification> modifications = new ArrayList<KeyModification>();
+            modifications.add(modification("tx3", "2021-01-23T00:00:00Z", new byte[0], true));
+            modifications.add(modification("tx2", "2021-01-22T00:00:00Z", revision2, false));
+            modifications.add(modification("tx1", "2021-01-21T00:00:00Z", revision1, false));
+            @SuppressWarnings("unchecked")
+            QueryResultsIterator<KeyModification> results = mock(QueryResultsIterator.class);
+            when(results.iterator()).thenReturn(modifications.iterator());
+            return results;
+        }
+
+        private KeyModification modification(final String txId, final String timestamp, final byte[] value, final boolean deleted) {
+            KeyModification modification = mock(KeyModification.class);
+            when(modification.getTxId()).thenReturn(txId);
+            when(modification.getTimestamp()).thenReturn(Instant.parse(timestamp));
+            when(modification.getValue()).thenReturn(value);
+            when(modification.isDeleted()).thenReturn(deleted);
+            return modification;
+        }
+
+        @Test
+        public void whenHistoryIsRequested() throws Exception {
+            SwiftBc contract = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            QueryResultsIterator<KeyModification> results = history();
+            when(stub.getHistoryForKey("paymentOrder1")).thenReturn(results);
+            String json = new String(revision1, StandardCharsets.UTF_8);
+
+            String history = contract.GetPaymentOrderHistory(ctx, "paymentOrder1", 10, "");
+
+            assertThat(history).isEqualTo("{\"swiftCode\":\"paymentOrder1\",\"history\":["
+                    + "{\"txId\":\"tx3\",\"timestamp\":\"2021-01-23T00:00:00Z\",\"isDelete\":true,\"value\":null},"
+                    + "{\"txId\":\"tx2\",\"timestamp\":\"2021-01-22T00:00:00Z\",\"isDelete\":false,\"value\":" + json + "},"
+                    + "{\"txId\":\"tx1\",\"timestamp\":\"2021-01-21T00:00:00Z\",\"isDelete\":false,\"value\":" + json + "}"
+                    + "],\"truncated\":false}");
+            verify(results).close();
+        }
+
+        @Test
+        public void whenHistoryIsCutOff() {
+            SwiftBc contract = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            QueryResultsIterator<KeyModification> first = history();
+            QueryResultsIterator<KeyModification> second = history();
+            when(stub.getHistoryForKey("paymentOrder1")).thenReturn(first, second);
+
+            String limited = contract.GetPaymentOrderHistory(ctx, "paymentOrder1", 1, "");
+            String since = contract.GetPaymentOrderHistory(ctx, "paymentOrder1", 10, "2021-01-22T00:00:00Z");
+
+            assertThat(limited).contains("\"txId\":\"tx3\"").doesNotContain("\"txId\":\"tx2\"").endsWith("],\"truncated\":true}");
+            assertThat(since).contains("\"txId\":\"tx3\"", "\"txId\":\"tx2\"").doesNotContain("\"txId\":\"tx1\"").endsWith("],\"truncated\":false}");
+        }
+
+        @Test
+        public void whenSinceIsInvalid() {
+            SwiftBc contract = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.GetPaymentOrderHistory(ctx, "paymentOrder1", 10, "20210121");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("The timestamp (20210121) is not an ISO-8601 instant");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_DATE".getBytes());
+            verifyZeroInteractions(stub);
+        }
+    }
+
+    @Nested
+    class InvokePaymentOrderExistsTransaction {
+
+        @Test
+        public void whenPaymentOrderExists() {
+            SwiftBc contract = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getState("paymentOrder1")).thenReturn(new byte[] {PaymentOrderBinaryCodec.VERSION_2});
+
+            assertThat(contract.PaymentOrderExists(ctx, "paymentOrder1")).isTrue();
+        }
+
+        @Test
+        public void whenPaymentOrderDoesNotExist() {
+            SwiftBc contract = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getState("paymentOrder1")).thenReturn(new byte[0]);
+
+            assertThat(contract.PaymentOrderExists(ctx, "paymentOrder1")).isFalse();
+        }
+    }
+
+    @Nested
+    class InvokeCreatePaymentOrderIdempotentTransaction {
+
+        private final SwiftBc contract = new SwiftBc(PaymentOrderFormat.BINARY);
+        private final InMemoryLedger ledger = new InMemoryLedger();
+
+        private String paymentOrder(final String swiftCode, final String amount) {
+            return "{ \"swiftCode\": \"" + swiftCode + "\", \"date\": \"20210121\", \"amount\": \"" + amount + "\", \"currency\": \"USD\", \"ordererName\": \"테스트1\", \"ordererAddress\": \"서울어딘가\", \"ordererId\": \"orderer1\", \"receiverAccount\": \"010101010101\", \"receiverName\": \"receiver1\", \"receiverAddress\": \"미국어딘가\", \"remittanceInformation\": \"원화를 보낸다\", \"chargeDetail\": \"1\" }";
+        }
+
+        private PaymentOrder create(final String txId, final String requestId, final String paymentOrderJSON) {
+            Context ctx = contract.createContext(ledger.newStub(txId));
+            PaymentOrder paymentOrder = contract.CreatePaymentOrderIdempotent(ctx, requestId, paymentOrderJSON);
+            contract.afterTransaction(ctx, paymentOrder);
+            return paymentOrder;
+        }
+
+        @Test
+        public void whenRequestIsRetried() {
+            PaymentOrder created = create("tx1", "request1", paymentOrder("paymentOrder1", "12.5"));
+            int size = ledger.size();
+
+            PaymentOrder retried = create("tx2", "request1", paymentOrder("paymentOrder1", "12.50"));
+            PaymentOrder renamed = create("tx3", "request1", paymentOrder("paymentOrder9", "12.5"));
+
+            assertThat(created.getAmount()).isEqualTo("12.50");
+            assertThat(retried).isEqualTo(created);
+            assertThat(renamed).isEqualTo(created);
+            assertThat(ledger.size()).isEqualTo(size);
+            assertThat(ledger.get("paymentOrder9")).isNull();
+            assertThat(PaymentOrderRequest.decode(ledger.get(new CompositeKey("request~requestId", "request1").toString())).getSwiftCode())
+                    .isEqualTo("paymentOrder1");
+        }
+
+        @Test
+        public void whenRequestIdIsReusedForAnotherPayment() {
+            create("tx1", "request1", paymentOrder("paymentOrder1", "12.5"));
+
+            Throwable thrown = catchThrowable(() -> {
+                create("tx2", "request1", paymentOrder("paymentOrder2", "13"));
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("The request (request1) was already used for a different Payment Order");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("REQUEST_ID_CONFLICT".getBytes());
+            assertThat(ledger.get("paymentOrder2")).isNull();
+        }
+
+        @Test
+        public void whenSwiftCodeWasCreatedByAnotherRequest() {
+            create("tx1", "request1", paymentOrder("paymentOrder1", "12.5"));
+
+            Throwable thrown = catchThrowable(() -> {
+                create("tx2", "request2", paymentOrder("paymentOrder1", "13"));
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("The Payment Order (paymentOrder1) already exists");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("PAYMENTORDER_ALREADY_EXISTS".getBytes());
+        }
+
+        @Test
+        public void whenPaymentOrderIsNotJson() {
+            Throwable thrown = catchThrowable(() -> {
+                create("tx1", "request1", "paymentOrder1");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("The paymentOrder is not a valid JSON object");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_PAYMENTORDER".getBytes());
+        }
+    }
+
+    @Nested
+    class InvokeCreatePaymentOrdersTransaction {
+
+        private static final String PAYMENT_ORDER_1 = "{ \"swiftCode\": \"paymentOrder1\", \"date\": \"20210121\", \"amount\": \"70000\", \"currency\": \"KRW\", \"ordererName\": \"테스트1\", \"ordererAddress\": \"서울어딘가\", \"ordererId\": \"orderer1\", \"receiverAccount\": \"010101010101\", \"receiverName\": \"receiver1\", \"receiverAddress\": \"미국어딘가\", \"remittanceInformation\": \"원화를 보낸다\", \"additionalInstruction\": \"재주껏 바꿔써라\", \"chargeDetail\": \"1\" }";
+        private static final String PAYMENT_ORDER_2 = "{ \"swiftCode\": \"paymentOrder2\", \"date\": \"20210121\", \"amount\": \"100000\", \"currency\": \"KRW\", \"ordererName\": \"테스트2\", \"ordererAddress\": \"미국어딘가\", \"ordererId\": \"orderer2\", \"receiverAccount\": \"101010101010\", \"receiverName\": \"receiver2\", \"receiverAddress\": \"한국어딘가\", \"remittanceInformation\": \"원화를 보낸다\", \"additionalInstruction\": \"편하지?\", \"chargeDetail\": \"2\" }";
+        private static final String PAYMENT_ORDER_3 = "{ \"swiftCode\": \"paymentOrder3\", \"date\": \"20210121\", \"amount\": \"0\", \"currency\": \"KRW\", \"ordererName\": \"테스트3\", \"ordererAddress\": \"미국어딘가\", \"ordererId\": \"orderer3\", \"receiverAccount\": \"101010101010\", \"receiverName\": \"receiver3\", \"receiverAddress\": \"한국어딘가\", \"remittanceInformation\": \"원화를 보낸다\", \"additionalInstruction\": \"편하지?\", \"chargeDetail\": \"2\" }";
+
+        @Test
+        public void whenBatchIsMixed() {
+            SwiftBc contract = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getState("paymentOrder2")).thenReturn(PAYMENT_ORDER_2.getBytes(StandardCharsets.UTF_8));
+            when(stub.getTxId()).thenReturn("tx1");
+
+            String resultJSON = contract.CreatePaymentOrders(ctx, "[" + PAYMENT_ORDER_1 + ", " + PAYMENT_ORDER_2 + ", " + PAYMENT_ORDER_3 + ", " + PAYMENT_ORDER_1 + "]");
+            PaymentOrderResult[] results = new Genson().deserialize(resultJSON, PaymentOrderResult[].class);
+
+            assertThat(results).containsExactly(
+                    PaymentOrderResult.created("paymentOrder1"),
+                    PaymentOrderResult.rejected("paymentOrder2", "PAYMENTORDER_ALREADY_EXISTS", "The Payment Order (paymentOrder2) already exists"),
+                    PaymentOrderResult.rejected("paymentOrder3", "INVALID_AMOUNT", "The amount (0) is not a positive amount with at most 0 decimal places"),
+                    PaymentOrderResult.rejected("paymentOrder1", "PAYMENTORDER_ALREADY_EXISTS", "The Payment Order (paymentOrder1) is duplicated in the batch"));
+            verify(stub).putState(eq("paymentOrder1"), any());
+            verify(stub, never()).putState(eq("paymentOrder2"), any());
+            verify(stub, never()).putState(eq("paymentOrder3"), any());
+        }
+
+        @Test
+        public void whenBatchIsEmpty() {
+            SwiftBc contract = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.CreatePaymentOrders(ctx, "[]");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("The Payment Order batch is empty");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_PAYMENTORDER_BATCH".getBytes());
+        }
+    }
+
+    @Nested
+    class InvokeGetPaymentOrdersByRangeTransaction {
+
+        @Test
+        public void whenPageIsRequested() {
+            SwiftBc contract = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStateByRangeWithPagination("", "", 2, "")).thenReturn(new MockPaymentOrderResultsIterator());
+
+            String page = contract.GetAllPaymentOrders(ctx, 2, "");
+
+            assertThat(page).startsWith("{\"records\":[{ \"swiftCode\": \"paymentOrder1\"");
+            assertThat(page).endsWith("}],\"fetchedRecordsCount\":2,\"bookmark\":\"paymentOrder3\"}");
+            assertThat(page).contains("\"swiftCode\": \"paymentOrder2\"");
+        }
+
+        @Test
+        public void whenPageSizeIsInvalid() {
+            SwiftBc contract = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.GetPaymentOrdersByRange(ctx, "paymentOrder1", "paymentOrder9", 0, "");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("The page size (0) must be between 1 and 1000");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_PAGE_SIZE".getBytes());
+            verifyZeroInteractions(stub);
+        }
+    }
+
+    @Nested
+    class InvokeQueryPaymentOrdersTransaction {
+
+        @Test
+        public void whenSelectorUsesAnIndex() {
+            SwiftBc contract = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            String query = "{\"selector\":{\"date\":{\"$gte\":\"20210101\"},\"currency\":\"KRW\"},\"use_index\":[\"_design/indexCurrencyDateDoc\",\"indexCurrencyDate\"]}";
+            when(stub.getQueryResultWithPagination(query, 2, "")).thenReturn(new MockPaymentOrderResultsIterator());
+
+            String page = contract.QueryPaymentOrders(ctx, "{\"currency\": \"KRW\", \"date\": {\"$gte\": \"20210101\"}}", 2, null);
+
+            assertThat(page).startsWith("{\"records\":[{ \"swiftCode\": \"paymentOrder1\"");
+            assertThat(page).endsWith("}],\"fetchedRecordsCount\":2,\"bookmark\":\"paymentOrder3\"}");
+        }
+
+        @Test
+        public void whenSelectorHasNoIndex() {
+            SwiftBc contract = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.QueryPaymentOrders(ctx, "{\"ordererId\": \"orderer1\"}", 10, "");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause();
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_QUERY".getBytes());
+            verifyZeroInteractions(stub);
+        }
+    }
+
+    @Nested
+    class InvokeGetPaymentOrdersByOrdererTransaction {
+
+        @Test
+        public void whenPaymentOrdersAreIndexed() {
+            SwiftBc contract = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            List<KeyValue> indexEntries = new ArrayList<KeyValue>();
+            indexEntries.add(new MockKeyValue(new CompositeKey("ordererId~swiftCode", "orderer1", "paymentOrder1").toString(), "\u0000"));
+            when(stub.getStateByPartialCompositeKeyWithPagination(argThat(key -> key.toString().equals(new CompositeKey("ordererId~swiftCode", "orderer1").toString())), eq(10), eq("")))
+                    .thenReturn(new MockPaymentOrderResultsIterator(indexEntries));
+            when(stub.getState("paymentOrder1")).thenReturn("{\"swiftCode\":\"paymentOrder1\"}".getBytes());
+
+            String page = contract.GetPaymentOrdersByOrderer(ctx, "orderer1", 10, "");
+
+            assertThat(page).isEqualTo("{\"records\":[{\"swiftCode\":\"paymentOrder1\"}],\"fetchedRecordsCount\":1,\"bookmark\":\"paymentOrder3\"}");
+        }
+
+        @Test
+        public void whenOrdererIdIsEmpty() {
+            SwiftBc contract = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.GetPaymentOrdersByOrderer(ctx, "", 10, "");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("ordererId is empty");
+            verifyZeroInteractions(stub);
+        }
+    }
+
+    @Nested
+    class InvokeMigratePaymentOrdersTransaction {
+
+        @Test
+        public void whenChunkIsBounded() {
+            SwiftBc contract = new SwiftBc(PaymentOrderFormat.BINARY);
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStateByRange("", "")).thenReturn(new MockPaymentOrderResultsIterator());
+
+            String next = contract.MigratePaymentOrders(ctx, "", 1);
+
+            assertThat(next).isEqualTo("paymentOrder2");
+            verify(stub).putState("paymentOrder1", PaymentOrderBinaryCodec.encode(new PaymentOrder("paymentOrder1", "20210121", "70000", "KRW", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", "재주껏 바꿔써라", "1")));
+            verify(stub, never()).putState(eq("paymentOrder2"), any());
+        }
+
+        @Test
+        public void whenPaymentOrdersAreAlreadyMigrated() {
+            SwiftBc contract = new SwiftBc(PaymentOrderFormat.JSON);
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getStateByRange("paymentOrder1", "")).thenReturn(new MockPaymentOrderResultsIterator());
+
+            String next = contract.MigratePaymentOrders(ctx, "paymentOrder1", 10);
+
+            assertThat(next).isEqualTo("");
+            verify(stub, never()).putState(any(), any());
+        }
+    }
+
+    @Nested
+    class InvokePaymentOrderStatusTransactions {
+
+        @Test
+        public void whenStatusEventsAreFoldedInCommitOrder() {
+            SwiftBc contract = new SwiftBc(PaymentOrderFormat.JSON);
+            InMemoryLedger ledger = new InMemoryLedger();
+            Context init = contract.createContext(ledger.newStub("tx1"));
+            contract.InitLedger(init);
+            contract.afterTransaction(init, null);
+            byte[] paymentOrder1 = ledger.get("paymentOrder1");
+
+            Context settle = contract.createContext(ledger.newStub("tx9"));
+            contract.SettlePaymentOrder(settle, "paymentOrder1");
+            contract.afterTransaction(settle, null);
+            Context cancel = contract.createContext(ledger.newStub("tx3"));
+            contract.CancelPaymentOrder(cancel, "paymentOrder1", "too late");
+            contract.afterTransaction(cancel, null);
+            Context giveBack = contract.createContext(ledger.newStub("tx5"));
+            contract.ReturnPaymentOrder(giveBack, "paymentOrder1", "");
+            contract.afterTransaction(giveBack, null);
+
+            String status = contract.GetPaymentOrderStatus(contract.createContext(ledger.newStub("tx6")), "paymentOrder1");
+
+            assertThat(status).startsWith("{\"swiftCode\":\"paymentOrder1\",\"history\":[{\"txId\":\"tx9\",\"status\":\"SETTLED\"")
+                    .contains("\"reason\":null},{\"txId\":\"tx5\",\"status\":\"RETURNED\"")
+                    .contains("\"rejected\":[{\"txId\":\"tx3\",\"status\":\"CANCELLED\"", "\"reason\":\"too late\"}]")
+                    .endsWith("],\"status\":\"RETURNED\"}");
+            assertThat(ledger.get("paymentOrder1")).isEqualTo(paymentOrder1);
+        }
+
+        @Test
+        public void whenStatusIsRequestedWithoutReadingEarlierEvents() {
+            SwiftBc contract = new SwiftBc();
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(stub.getTxId()).thenReturn("tx2");
+            when(stub.getTxTimestamp()).thenReturn(Instant.parse("2021-01-21T00:00:00Z"));
+            when(stub.getState("paymentOrder1")).thenReturn(new byte[] {'{'});
+            Context ctx = contract.createContext(stub);
+
+            contract.CancelPaymentOrder(ctx, "paymentOrder1", "duplicate");
+            contract.afterTransaction(ctx, null);
+
+            verify(stub).putState(eq(new CompositeKey("status~swiftCode~txId", "paymentOrder1", "tx2").toString()), any());
+            verify(stub).putState(new CompositeKey("statusLog~swiftCode", "paymentOrder1").toString(), "tx2".getBytes(StandardCharsets.UTF_8));
+            verify(stub, never()).getStateByPartialCompositeKey(any(CompositeKey.class));
+            verify(stub, never()).getState(new CompositeKey("statusLog~swiftCode", "paymentOrder1").toString());
+        }
+
+        @Test
+        public void whenNoStatusEventIsRecorded() {
+            SwiftBc contract = new SwiftBc(PaymentOrderFormat.JSON);
+            InMemoryLedger ledger = new InMemoryLedger();
+            Context init = contract.createContext(ledger.newStub("tx1"));
+            contract.InitLedger(init);
+            contract.afterTransaction(init, null);
+
+            String status = contract.GetPaymentOrderStatus(contract.createContext(ledger.newStub("tx2")), "paymentOrder2");
+
+            assertThat(status).isEqualTo("{\"swiftCode\":\"paymentOrder2\",\"history\":[],\"rejected\":[],\"status\":\"SUBMITTED\"}");
+        }
+
+        @Test
+        public void whenPaymentOrderDoesNotExist() {
+            SwiftBc contract = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getState("paymentOrder3")).thenReturn(new byte[] {});
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.SettlePaymentOrder(ctx, "paymentOrder3");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("The Payment Order (paymentOrder3) does not exist");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("PAYMENTORDER_NOT_FOUND".getBytes());
+            verify(stub, never()).putState(any(), any());
+        }
+    }
+
+    @Nested
+    class InvokeAggregateTransactions {
+
+        private SwiftBc contract;
+        private InMemoryLedger ledger;
+
+        private void submit(final String txId, final String paymentOrdersJSON) {
+            Context ctx = contract.createContext(ledger.newStub(txId));
+            contract.CreatePaymentOrders(ctx, paymentOrdersJSON);
+            contract.afterTransaction(ctx, null);
+        }
+
+        private String paymentOrder(final String swiftCode, final String date, final String amount, final String currency) {
+            return "{ \"swiftCode\": \"" + swiftCode + "\", \"date\": \"" + date + "\", \"amount\": \"" + amount + "\", \"currency\": \"" + currency + "\", \"ordererName\": \"테스트1\", \"ordererAddress\": \"서울어딘가\", \"ordererId\": \"orderer1\", \"receiverAccount\": \"010101010101\", \"receiverName\": \"receiver1\", \"receiverAddress\": \"미국어딘가\", \"remittanceInformation\": \"원화를 보낸다\", \"chargeDetail\": \"1\" }";
+        }
+
+        @Test
+        public void whenDeltasAreSummedAndCompacted() {
+            contract = new SwiftBc(PaymentOrderFormat.JSON);
+            ledger = new InMemoryLedger();
+            submit("tx1", "[" + paymentOrder("po1", "20210121", "10.50", "USD") + ", " + paymentOrder("po2", "20210121", "2", "USD") + "]");
+            submit("tx2", "[" + paymentOrder("po3", "20210121", "0.25", "USD") + ", " + paymentOrder("po4", "20210122", "7", "USD") + "]");
+            submit("tx3", "[" + paymentOrder("po5", "20210121", "70000", "KRW") + "]");
+            String expected = "{\"currency\":\"USD\",\"totals\":[{\"date\":\"20210121\",\"count\":3,\"amount\":\"12.75\"},{\"date\":\"20210122\",\"count\":1,\"amount\":\"7.00\"}]}";
+
+            assertThat(ledger.get(new CompositeKey("agg~currency~date~txId", "USD", "20210121", "tx1").toString())).isEqualTo(new AggregateDelta(2, 1250).encode());
+            assertThat(contract.GetDailyTotals(contract.createContext(ledger.newStub("tx4")), "USD", "")).isEqualTo(expected);
+
+            Context compact = contract.createContext(ledger.newStub("tx5"));
+            String result = contract.CompactAggregates(compact, "USD", "", 10);
+            contract.afterTransaction(compact, null);
+
+            assertThat(result).isEqualTo("{\"currency\":\"USD\",\"compacted\":2,\"complete\":true}");
+            assertThat(ledger.get(new CompositeKey("agg~currency~date~txId", "USD", "20210121", "tx1").toString())).isNull();
+            assertThat(ledger.get(new CompositeKey("agg~currency~date~txId", "USD", "20210121", "tx5").toString())).isEqualTo(new AggregateDelta(3, 1275).encode());
+            assertThat(ledger.get(new CompositeKey("agg~currency~date~txId", "USD", "20210122", "tx2").toString())).isNotNull();
+            assertThat(contract.GetDailyTotals(contract.createContext(ledger.newStub("tx6")), "USD", "")).isEqualTo(expected);
+            assertThat(contract.GetDailyTotals(contract.createContext(ledger.newStub("tx7")), "KRW", "20210121"))
+                    .isEqualTo("{\"currency\":\"KRW\",\"totals\":[{\"date\":\"20210121\",\"count\":1,\"amount\":\"70000\"}]}");
+        }
+
+        @Test
+        public void whenCompactionIsBounded() {
+            contract = new SwiftBc(PaymentOrderFormat.JSON);
+            ledger = new InMemoryLedger();
+            submit("tx1", "[" + paymentOrder("po1", "20210121", "1", "KRW") + "]");
+            submit("tx2", "[" + paymentOrder("po2", "20210121", "2", "KRW") + "]");
+            submit("tx3", "[" + paymentOrder("po3", "20210121", "3", "KRW") + "]");
+
+            Context compact = contract.createContext(ledger.newStub("tx4"));
+            String result = contract.CompactAggregates(compact, "KRW", "20210121", 2);
+            contract.afterTransaction(compact, null);
+
+            assertThat(result).isEqualTo("{\"currency\":\"KRW\",\"compacted\":2,\"complete\":false}");
+            assertThat(contract.GetDailyTotals(contract.createContext(ledger.newStub("tx5")), "KRW", "20210121"))
+                    .isEqualTo("{\"currency\":\"KRW\",\"totals\":[{\"date\":\"20210121\",\"count\":3,\"amount\":\"6\"}]}");
+        }
+
+        @Test
+        public void whenCurrencyIsInvalid() {
+            SwiftBc swiftBc = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+
+            Throwable thrown = catchThrowable(() -> {
+                swiftBc.GetDailyTotals(ctx, "usd", "");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("The currency (usd) is not an ISO 4217 code");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("INVALID_CURRENCY".getBytes());
+        }
+    }
+
+    @Nested
+    class InvokePrivatePaymentOrderTransactions {
+
+        private final PaymentOrder paymentOrder = new PaymentOrder("paymentOrder1", "20210121", "70000", "KRW", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", "재주껏 바꿔써라", "1");
+        private final byte[] salt = "0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+        private Map<String, byte[]> transientData() {
+            Map<String, byte[]> transientData = new HashMap<>();
+            transientData.put("paymentOrder", PaymentOrderCodec.encode(paymentOrder));
+            transientData.put("salt", salt);
+            return transientData;
+        }
+
+        @Test
+        public void whenCallerBelongsToPeerOrganization() {
+            SwiftBc contract = new SwiftBc(PaymentOrderFormat.BINARY);
+            InMemoryLedger ledger = new InMemoryLedger();
+            Context create = contract.createContext(ledger.newStub("tx1", "CreatePrivatePaymentOrder", transientData()));
+
+            String publicRecord = contract.CreatePrivatePaymentOrder(create);
+            contract.afterTransaction(create, null);
+
+            byte[] privateValue = ledger.getPrivate("paymentOrderPrivateDetails", "paymentOrder1");
+            assertThat(PaymentOrderBinaryCodec.decode(privateValue).getOrdererName()).isEqualTo("테스트1");
+            assertThat(ledger.getPrivate("paymentOrderPrivateDetails", new CompositeKey("salt~swiftCode", "paymentOrder1").toString())).isEqualTo(salt);
+            assertThat(publicRecord).isEqualTo("{\"privateDataHash\":\"" + PaymentOrderPublicRecord.hash(privateValue, salt) + "\",\"amount\":\"70000\",\"currency\":\"KRW\",\"date\":\"20210121\",\"swiftCode\":\"paymentOrder1\"}");
+            assertThat(ledger.get("paymentOrder1")).isEqualTo(publicRecord.getBytes(StandardCharsets.UTF_8));
+            assertThat(ledger.get(new CompositeKey("ordererId~swiftCode", "orderer1", "paymentOrder1").toString())).isNull();
+            assertThat(ledger.get(new CompositeKey("date~swiftCode", "20210121", "paymentOrder1").toString())).isNotNull();
+
+            PaymentOrder read = contract.ReadPaymentOrder(contract.createContext(ledger.newStub("tx2")), "paymentOrder1");
+
+            assertThat(read.getOrdererName()).isEqualTo("테스트1");
+            assertThat(read.getReceiverAccount()).isEqualTo("010101010101");
+        }
+
+        @Test
+        public void whenPrivateDataDoesNotMatchThePublicRecord() {
+            SwiftBc contract = new SwiftBc(PaymentOrderFormat.BINARY);
+            InMemoryLedger ledger = new InMemoryLedger();
+            Context create = contract.createContext(ledger.newStub("tx1", "CreatePrivatePaymentOrder", transientData()));
+            contract.CreatePrivatePaymentOrder(create);
+            contract.afterTransaction(create, null);
+            PaymentOrder tampered = new PaymentOrder("paymentOrder1", "20210121", "70000", "KRW", "테스트9", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", "재주껏 바꿔써라", "1");
+            ledger.newStub("tx2").putPrivateData("paymentOrderPrivateDetails", "paymentOrder1", PaymentOrderBinaryCodec.encode(tampered));
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.ReadPaymentOrder(contract.createContext(ledger.newStub("tx3")), "paymentOrder1");
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("The private data of the Payment Order (paymentOrder1) does not match its public record");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("PRIVATE_DATA_MISMATCH".getBytes());
+        }
+
+        @Test
+        public void whenCallerBelongsToAnotherOrganization() {
+            SwiftBc contract = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            ClientIdentity clientIdentity = mock(ClientIdentity.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(ctx.getClientIdentity()).thenReturn(clientIdentity);
+            when(clientIdentity.getMSPID()).thenReturn("Org2MSP");
+            when(stub.getMspId()).thenReturn("Org1MSP");
+            when(stub.getState("paymentOrder1")).thenReturn(PaymentOrderPublicRecord.encode(paymentOrder, PaymentOrderCodec.encode(paymentOrder), salt));
+
+            PaymentOrder read = contract.ReadPaymentOrder(ctx, "paymentOrder1");
+
+            assertThat(read.getAmount()).isEqualTo("70000");
+            assertThat(read.getOrdererName()).isNull();
+            verify(stub, never()).getPrivateData(any(), any());
+        }
+
+        @Test
+        public void whenTransientPaymentOrderIsMissing() {
+            SwiftBc contract = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            when(stub.getTransient()).thenReturn(Collections.<String, byte[]>emptyMap());
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.CreatePrivatePaymentOrder(ctx);
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("paymentOrder is missing from the transient map");
+            assertThat(((ChaincodeException) thrown).getPayload()).isEqualTo("NOT_ENOUGH_PARAMETER".getBytes());
+            verify(stub, never()).putPrivateData(any(), any(), any(byte[].class));
+        }
+
+        @Test
+        public void whenTransientSaltIsTooShort() {
+            SwiftBc contract = new SwiftBc();
+            Context ctx = mock(Context.class);
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(ctx.getStub()).thenReturn(stub);
+            Map<String, byte[]> transientData = transientData();
+            transientData.put("salt", new byte[8]);
+            when(stub.getTransient()).thenReturn(transientData);
+
+            Throwable thrown = catchThrowable(() -> {
+                contract.CreatePrivatePaymentOrder(ctx);
+            });
+
+            assertThat(thrown).isInstanceOf(ChaincodeException.class).hasNoCause()
+                    .hasMessage("salt of at least 16 bytes is missing from the transient map");
+            verify(stub, never()).putPrivateData(any(), any(), any(byte[].class));
+        }
+    }
+
+    @Nested
+    class InvokeWithSwiftBcContext {
+
+        @Test
+        public void createContextBuffersWritesUntilAfterTransaction() {
+            SwiftBc contract = new SwiftBc(PaymentOrderFormat.BINARY);
+            InMemoryLedger ledger = new InMemoryLedger();
+
+            Context ctx = contract.createContext(ledger.newStub("tx1"));
+            contract.InitLedger(ctx);
+
+            assertThat(ctx).isInstanceOf(SwiftBcContext.class);
+            assertThat(ledger.size()).isEqualTo(0);
+            assertThat(contract.ReadPaymentOrder(ctx, "paymentOrder1").getAmount()).isEqualTo("70000");
+
+            contract.afterTransaction(ctx, null);
+
+            assertThat(ledger.size()).isEqualTo(9);
+            assertThat(PaymentOrderBinaryCodec.isBinary(ledger.get("paymentOrder2"))).isTrue();
+        }
+
+        @Test
+        public void readsCommittedPaymentOrdersInLaterTransactions() {
+            SwiftBc contract = new SwiftBc(PaymentOrderFormat.JSON);
+            InMemoryLedger ledger = new InMemoryLedger();
+            Context init = contract.createContext(ledger.newStub("tx1"));
+            contract.InitLedger(init);
+            contract.afterTransaction(init, null);
+
+            Context ctx = contract.createContext(ledger.newStub("tx2"));
+
+            assertThat(contract.PaymentOrderExists(ctx, "paymentOrder2")).isTrue();
+            assertThat(contract.GetAllPaymentOrders(ctx, 1, "")).endsWith("\"fetchedRecordsCount\":1,\"bookmark\":\"paymentOrder2\"}");
+            assertThat(contract.GetPaymentOrdersByOrderer(ctx, "orderer2", 10, "")).contains("\"swiftCode\":\"paymentOrder2\"");
+        }
+    }
+
+    @Nested
+    class InvokeWithDictionaryFormat {
+
+        private final InMemoryLedger ledger = new InMemoryLedger();
+
+        private void invoke(final SwiftBc contract, final String txId, final Consumer<Context> transaction) {
+            Context ctx = contract.createContext(ledger.newStub(txId));
+            transaction.accept(ctx);
+            contract.afterTransaction(ctx, null);
+        }
+
+        @Test
+        public void storesRepeatedFieldsInTheCodeTable() {
+            SwiftBc contract = new SwiftBc(PaymentOrderFormat.DICTIONARY);
+            invoke(contract, "tx1", contract::InitLedger);
+
+            SwiftBc restarted = new SwiftBc(PaymentOrderFormat.DICTIONARY);
+            Context ctx = restarted.createContext(ledger.newStub("tx2"));
+            PaymentOrder paymentOrder1 = restarted.ReadPaymentOrder(ctx, "paymentOrder1");
+            PaymentOrder paymentOrder2 = restarted.ReadPaymentOrder(ctx, "paymentOrder2");
+
+            assertThat(PaymentOrderBinaryCodec.isCoded(ledger.get("paymentOrder1"))).isTrue();
+            assertThat(ledger.get(new CompositeKey("codeCount~field", "CURRENCY").toString())).isEqualTo("1".getBytes());
+            assertThat(ledger.get(new CompositeKey("codeCount~field", "CHARGE_DETAIL").toString())).isEqualTo("2".getBytes());
+            assertThat(paymentOrder1.getReceiverAddress()).isEqualTo("미국어딘가");
+            assertThat(paymentOrder2.getOrdererAddress()).isSameAs(paymentOrder1.getReceiverAddress());
+            assertThat(paymentOrder2.getCurrency()).isSameAs(paymentOrder1.getCurrency());
+            assertThat(restarted.GetAllPaymentOrders(ctx, 10, "")).contains("\"currency\":\"KRW\",\"date\":\"20210121\",\"ordererAddress\":\"미국어딘가\"");
+        }
+
+        @Test
+        public void migratesToAndFromTheDictionaryFormat() {
+            SwiftBc json = new SwiftBc(PaymentOrderFormat.JSON);
+            invoke(json, "tx1", json::InitLedger);
+            byte[] jsonValue = ledger.get("paymentOrder2");
+
+            SwiftBc dictionary = new SwiftBc(PaymentOrderFormat.DICTIONARY);
+            invoke(dictionary, "tx2", ctx -> dictionary.MigratePaymentOrders(ctx, "", 10));
+
+            assertThat(PaymentOrderBinaryCodec.isCoded(ledger.get("paymentOrder2"))).isTrue();
+
+            SwiftBc binary = new SwiftBc(PaymentOrderFormat.BINARY);
+            invoke(binary, "tx3", ctx -> binary.MigratePaymentOrders(ctx, "", 10));
+
+            assertThat(PaymentOrderFormat.BINARY.matches(ledger.get("paymentOrder2"))).isTrue();
+            assertThat(PaymentOrderFormat.decode(ledger.get("paymentOrder2")).toString()).isEqualTo(PaymentOrderFormat.decode(jsonValue).toString());
         }
     }
 }
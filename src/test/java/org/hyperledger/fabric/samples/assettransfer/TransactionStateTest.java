@@ -0,0 +1,172 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+
+public final class TransactionStateTest {
+
+    private static final PaymentOrder PAYMENT_ORDER = new PaymentOrder("paymentOrder1", "20210121", "70000", "KRW", "테스트1", "서울어딘가", "orderer1", "010101010101", "receiver1", "미국어딘가", "원화를 보낸다", "재주껏 바꿔써라", "1");
+
+    @Nested
+    class Reads {
+
+        @Test
+        public void readsEachKeyOnce() {
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(stub.getState("paymentOrder1")).thenReturn(PaymentOrderCodec.encode(PAYMENT_ORDER));
+            TransactionState state = TransactionState.buffered(stub);
+
+            assertThat(state.exists("paymentOrder1")).isTrue();
+            PaymentOrder paymentOrder = state.getPaymentOrder("paymentOrder1");
+
+            assertThat(state.getPaymentOrder("paymentOrder1")).isSameAs(paymentOrder);
+            assertThat(paymentOrder.getAmount()).isEqualTo("70000");
+            verify(stub, times(1)).getState("paymentOrder1");
+        }
+
+        @Test
+        public void cachesMissingKeys() {
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            TransactionState state = TransactionState.buffered(stub);
+
+            assertThat(state.exists("paymentOrder1")).isFalse();
+            assertThat(state.getPaymentOrder("paymentOrder1")).isNull();
+            assertThat(state.getState("paymentOrder1")).isEmpty();
+            verify(stub, times(1)).getState("paymentOrder1");
+        }
+    }
+
+    @Nested
+    class BufferedWrites {
+
+        @Test
+        public void holdsWritesUntilFlush() {
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            TransactionState state = TransactionState.buffered(stub);
+            byte[] value = PaymentOrderCodec.encode(PAYMENT_ORDER);
+
+            state.putPaymentOrder(PAYMENT_ORDER, value);
+
+            verify(stub, never()).putState(ArgumentMatchers.anyString(), ArgumentMatchers.any(byte[].class));
+            assertThat(state.getPendingWrites()).isEqualTo(1);
+
+            state.flush();
+
+            verify(stub).putState("paymentOrder1", value);
+            assertThat(state.getPendingWrites()).isEqualTo(0);
+        }
+
+        @Test
+        public void servesOwnWritesWithoutReading() {
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            TransactionState state = TransactionState.buffered(stub);
+
+            state.putPaymentOrder(PAYMENT_ORDER, PaymentOrderCodec.encode(PAYMENT_ORDER));
+
+            assertThat(state.exists("paymentOrder1")).isTrue();
+            assertThat(state.getPaymentOrder("paymentOrder1")).isSameAs(PAYMENT_ORDER);
+            verify(stub, never()).getState("paymentOrder1");
+        }
+
+        @Test
+        public void flushesLastValueOncePerKeyInFirstWriteOrder() {
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            TransactionState state = TransactionState.buffered(stub);
+
+            state.putState("b", new byte[] {1});
+            state.putState("a", new byte[] {2});
+            state.putState("b", new byte[] {3});
+            state.flush();
+            state.flush();
+
+            InOrder order = inOrder(stub);
+            order.verify(stub).putState("b", new byte[] {3});
+            order.verify(stub).putState("a", new byte[] {2});
+            verify(stub, times(2)).putState(ArgumentMatchers.anyString(), ArgumentMatchers.any(byte[].class));
+        }
+
+        @Test
+        public void flushesEmptyWritesAsDeletes() {
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(stub.getState("a")).thenReturn(new byte[] {1});
+            TransactionState state = TransactionState.buffered(stub);
+
+            assertThat(state.getCachedState("a")).isNull();
+            assertThat(state.exists("a")).isTrue();
+            state.delState("a");
+
+            assertThat(state.exists("a")).isFalse();
+            assertThat(state.getCachedState("a")).isEmpty();
+
+            state.flush();
+
+            verify(stub).delState("a");
+            verify(stub, never()).putState(ArgumentMatchers.anyString(), ArgumentMatchers.any(byte[].class));
+        }
+
+        @Test
+        public void setsOneEventWithEveryChangeOnFlush() {
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            when(stub.getTxId()).thenReturn("tx1");
+            TransactionState state = TransactionState.buffered(stub);
+
+            state.addChange(PaymentOrderChanges.created(PAYMENT_ORDER));
+            state.addChange(PaymentOrderChanges.status("paymentOrder1", PaymentOrderStatus.SETTLED, null));
+
+            verify(stub, never()).setEvent(ArgumentMatchers.anyString(), ArgumentMatchers.any(byte[].class));
+
+            state.flush();
+            state.flush();
+
+            verify(stub, times(1)).setEvent(PaymentOrderChanges.EVENT_NAME, ("{\"txId\":\"tx1\",\"timestamp\":null,\"changes\":[{\"type\":\"CREATED\",\"paymentOrder\":"
+                    + new String(PaymentOrderCodec.encode(PAYMENT_ORDER), StandardCharsets.UTF_8) + "},{\"type\":\"STATUS\",\"swiftCode\":\"paymentOrder1\",\"status\":\"SETTLED\",\"reason\":null}]}").getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        public void decodesRawWritesOnRead() {
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            TransactionState state = TransactionState.buffered(stub);
+
+            state.putState("paymentOrder1", PaymentOrderBinaryCodec.encode(PAYMENT_ORDER));
+
+            assertThat(state.getPaymentOrder("paymentOrder1").getReceiverAccount()).isEqualTo("010101010101");
+        }
+    }
+
+    @Nested
+    class WriteThrough {
+
+        @Test
+        public void writesImmediately() {
+            ChaincodeStub stub = mock(ChaincodeStub.class);
+            TransactionState state = TransactionState.writeThrough(stub);
+
+            state.putState("a", new byte[] {1});
+
+            verify(stub).putState("a", new byte[] {1});
+            assertThat(state.getPendingWrites()).isEqualTo(0);
+            assertThat(state.getState("a")).isEqualTo(new byte[] {1});
+
+            state.flush();
+
+            verify(stub, times(1)).putState("a", new byte[] {1});
+        }
+    }
+}
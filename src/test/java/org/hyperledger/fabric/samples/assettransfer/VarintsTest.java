@@ -0,0 +1,57 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.ThrowableAssert.catchThrowable;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public final class VarintsTest {
+
+    @Nested
+    class Encoding {
+
+        @Test
+        public void roundTripsEveryLength() {
+            for (long number : new long[] {0, 1, 127, 128, 300, 1L << 56, Long.MAX_VALUE, -1}) {
+                byte[] buffer = new byte[Varints.MAX_LENGTH + 1];
+
+                int end = Varints.write(buffer, 1, number);
+
+                assertThat(end - 1).isEqualTo(Varints.length(number));
+                assertThat(Varints.read(buffer, 1)).isEqualTo(number);
+            }
+        }
+
+        @Test
+        public void writesSevenBitsPerByte() {
+            byte[] buffer = new byte[2];
+
+            Varints.write(buffer, 0, 300);
+
+            assertThat(buffer).containsExactly(0xac, 0x02);
+        }
+    }
+
+    @Nested
+    class Decoding {
+
+        @Test
+        public void rejectsTruncatedNumbers() {
+            Throwable thrown = catchThrowable(() -> Varints.read(new byte[] {(byte) 0x80}, 0));
+
+            assertThat(thrown).isInstanceOf(IllegalArgumentException.class).hasMessage("Malformed varint at offset 0");
+        }
+
+        @Test
+        public void rejectsLongerEncodings() {
+            Throwable thrown = catchThrowable(() -> Varints.read(new byte[] {0x05, (byte) 0x81, 0x00}, 1));
+
+            assertThat(thrown).isInstanceOf(IllegalArgumentException.class).hasMessage("Malformed varint at offset 1");
+        }
+    }
+}
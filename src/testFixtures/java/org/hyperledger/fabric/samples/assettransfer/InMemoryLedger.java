@@ -0,0 +1,445 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.hyperledger.fabric.samples.assettransfer;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.hyperledger.fabric.protos.peer.QueryResponseMetadata;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyModification;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+/**
+ * In-memory world state with {@link ChaincodeStub} stand-ins for running
+ * SwiftBc outside a peer, in tests and benchmarks.
+ *
+ * The stubs support plain and string state access, range and partial
+ * composite key queries with and without pagination, composite key helpers,
+ * key history, private data reads and writes, the transient map, events and
+ * the transaction id, function, timestamp and creator. Writes are applied to
+ * the ledger immediately and listed by getHistoryForKey, newest first, like
+ * on a peer. Any other ChaincodeStub method throws
+ * UnsupportedOperationException. The stubs are dynamic proxies, so new
+ * methods added to ChaincodeStub by later shim versions do not break them.
+ */
+public final class InMemoryLedger {
+
+    public static final String CHANNEL_ID = "benchmark";
+    public static final String MSP_ID = "Org1MSP";
+
+    private static final String MAX_UNICODE_RUNE = new String(Character.toChars(Character.MAX_CODE_POINT));
+
+    /** Self-signed certificate of the creator returned by the stubs, so a real Context can build its ClientIdentity. */
+    private static final String CREATOR_CERTIFICATE = "-----BEGIN CERTIFICATE-----\n"
+            + "MIIBzzCCAXWgAwIBAgIUHK7iKYRgev63SecEOrFEtASkGk8wCgYIKoZIzj0EAwIw\n"
+            + "PDELMAkGA1UEBhMCS1IxGTAXBgNVBAoMEG9yZzEuZXhhbXBsZS5jb20xEjAQBgNV\n"
+            + "BAMMCWJlbmNobWFyazAgFw0yNjEwMTcxNjE4MzlaGA8yMTI2MDkyMzE2MTgzOVow\n"
+            + "PDELMAkGA1UEBhMCS1IxGTAXBgNVBAoMEG9yZzEuZXhhbXBsZS5jb20xEjAQBgNV\n"
+            + "BAMMCWJlbmNobWFyazBZMBMGByqGSM49AgEGCCqGSM49AwEHA0IABCoG0M3Bm9EZ\n"
+            + "Tyy52sC+rTh5oES2gMwWqK5i5Po10UEEIkOOhLHoTDnHC3mnX9WPDKuzbdeRcUwR\n"
+            + "eRsnMvwf+RKjUzBRMB0GA1UdDgQWBBSpLgXfVxP+L+IPVkV1seiQSN1XaTAfBgNV\n"
+            + "HSMEGDAWgBSpLgXfVxP+L+IPVkV1seiQSN1XaTAPBgNVHRMBAf8EBTADAQH/MAoG\n"
+            + "CCqGSM49BAMCA0gAMEUCIEU4UV0ZZpQGhQLGCyNHxgO/D74SVQFsaINRM79Vxc27\n"
+            + "AiEAoSsVsNJKS2bjY2XCf521sKuWidLkiYskcxZpeQ6GrSo=\n"
+            + "-----END CERTIFICATE-----\n";
+    private static final byte[] CREATOR = serializedIdentity(MSP_ID, CREATOR_CERTIFICATE);
+
+    private final NavigableMap<String, byte[]> state = new TreeMap<String, byte[]>();
+    private final Map<String, byte[]> events = new TreeMap<String, byte[]>();
+    private final Map<String, List<KeyModification>> history = new HashMap<String, List<KeyModification>>();
+    private final Map<String, Map<String, byte[]>> collections = new TreeMap<String, Map<String, byte[]>>();
+
+    /**
+     * Creates a stub for one transaction against this ledger.
+     *
+     * @param txId the transaction id reported by the stub
+     * @return the stub
+     */
+    public ChaincodeStub newStub(final String txId) {
+        return newStub(txId, null);
+    }
+
+    /**
+     * Creates a stub for one invocation of a transaction function against this ledger.
+     *
+     * @param txId the transaction id reported by the stub
+     * @param function the function name reported by the stub
+     * @return the stub
+     */
+    public ChaincodeStub newStub(final String txId, final String function) {
+        return newStub(txId, function, Collections.<String, byte[]>emptyMap());
+    }
+
+    /**
+     * Creates a stub for one invocation of a transaction function with a transient map.
+     *
+     * @param txId the transaction id reported by the stub
+     * @param function the function name reported by the stub
+     * @param transientData the transient map reported by the stub
+     * @return the stub
+     */
+    public ChaincodeStub newStub(final String txId, final String function, final Map<String, byte[]> transientData) {
+        return (ChaincodeStub) Proxy.newProxyInstance(ChaincodeStub.class.getClassLoader(),
+                new Class<?>[] {ChaincodeStub.class}, new StubHandler(txId, function, transientData));
+    }
+
+    /**
+     * Reads a value directly from the ledger.
+     *
+     * @param key the key to read
+     * @return the value, null when the key does not exist
+     */
+    public byte[] get(final String key) {
+        return state.get(key);
+    }
+
+    /**
+     * Writes a value directly to the ledger.
+     *
+     * @param key the key to write
+     * @param value the value to write
+     */
+    public void put(final String key, final byte[] value) {
+        state.put(key, value);
+    }
+
+    /**
+     * Deletes a value directly from the ledger.
+     *
+     * @param key the key to delete
+     */
+    public void remove(final String key) {
+        state.remove(key);
+    }
+
+    /**
+     * Returns the payload of the last event set by the given transaction.
+     *
+     * @param txId the transaction id
+     * @return the event payload, null when the transaction did not set one
+     */
+    public byte[] getEvent(final String txId) {
+        return events.get(txId);
+    }
+
+    /**
+     * Reads a value directly from a private data collection.
+     *
+     * @param collection the collection name
+     * @param key the key to read
+     * @return the value, null when the key does not exist
+     */
+    public byte[] getPrivate(final String collection, final String key) {
+        return collection(collection).get(key);
+    }
+
+    public int size() {
+        return state.size();
+    }
+
+    public void clear() {
+        state.clear();
+        events.clear();
+        history.clear();
+        collections.clear();
+    }
+
+    private void write(final String txId, final Instant txTimestamp, final String key, final byte[] value) {
+        if (value == null) {
+            state.remove(key);
+        } else {
+            state.put(key, value);
+        }
+        List<KeyModification> modifications = history.get(key);
+        if (modifications == null) {
+            modifications = new ArrayList<KeyModification>();
+            history.put(key, modifications);
+        }
+        modifications.add(0, new InMemoryKeyModification(txId, txTimestamp, value));
+    }
+
+    private Map<String, byte[]> collection(final String collection) {
+        Map<String, byte[]> values = collections.get(collection);
+        if (values == null) {
+            values = new TreeMap<String, byte[]>();
+            collections.put(collection, values);
+        }
+        return values;
+    }
+
+    private List<KeyValue> range(final String startKey, final String endKey) {
+        // Like the peer, an open start skips composite keys, which begin with U+0000.
+        String from = startKey.isEmpty() ? "\u0001" : startKey;
+        NavigableMap<String, byte[]> range = endKey.isEmpty() ? state.tailMap(from, true) : state.subMap(from, true, endKey, false);
+        return toKeyValues(range);
+    }
+
+    private List<KeyValue> partialCompositeKey(final String prefix) {
+        return toKeyValues(state.subMap(prefix, true, prefix + MAX_UNICODE_RUNE, false));
+    }
+
+    private static List<KeyValue> toKeyValues(final NavigableMap<String, byte[]> range) {
+        List<KeyValue> keyValues = new ArrayList<KeyValue>(range.size());
+        for (Map.Entry<String, byte[]> entry : range.entrySet()) {
+            keyValues.add(new InMemoryKeyValue(entry.getKey(), entry.getValue()));
+        }
+        return keyValues;
+    }
+
+    /**
+     * Cuts one page out of a query result. The bookmark is the key of the
+     * first record of the next page, empty on the last page.
+     */
+    private static InMemoryResultsIterator page(final List<KeyValue> keyValues, final int pageSize, final String bookmark) {
+        int start = 0;
+        if (!bookmark.isEmpty()) {
+            while (start < keyValues.size() && keyValues.get(start).getKey().compareTo(bookmark) < 0) {
+                start++;
+            }
+        }
+        int end = Math.min(keyValues.size(), start + pageSize);
+        String nextBookmark = end < keyValues.size() ? keyValues.get(end).getKey() : "";
+        return new InMemoryResultsIterator(keyValues.subList(start, end), nextBookmark);
+    }
+
+    private static String compositeKeyPrefix(final Object[] args) {
+        if (args.length == 1) {
+            return args[0].toString();
+        }
+        return new CompositeKey((String) args[0], (String[]) args[1]).toString();
+    }
+
+    /** Protobuf encoding of msp.SerializedIdentity (field 1 mspid, field 2 id_bytes). */
+    private static byte[] serializedIdentity(final String mspId, final String certificate) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeLengthDelimited(out, 0x0a, mspId.getBytes(StandardCharsets.UTF_8));
+        writeLengthDelimited(out, 0x12, certificate.getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    private static void writeLengthDelimited(final ByteArrayOutputStream out, final int tag, final byte[] value) {
+        out.write(tag);
+        int length = value.length;
+        while ((length & ~0x7f) != 0) {
+            out.write((length & 0x7f) | 0x80);
+            length >>>= 7;
+        }
+        out.write(length);
+        out.write(value, 0, value.length);
+    }
+
+    private final class StubHandler implements InvocationHandler {
+
+        private final String txId;
+        private final String function;
+        private final Map<String, byte[]> transientData;
+        private final Instant txTimestamp = Instant.now();
+
+        StubHandler(final String txId, final String function, final Map<String, byte[]> transientData) {
+            this.txId = txId;
+            this.function = function;
+            this.transientData = transientData;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) {
+            switch (method.getName()) {
+                case "getState":
+                    return state.get((String) args[0]);
+                case "getStringState":
+                    byte[] value = state.get((String) args[0]);
+                    return value == null ? "" : new String(value, StandardCharsets.UTF_8);
+                case "putState":
+                    write(txId, txTimestamp, requireKey(args[0]), Arrays.copyOf((byte[]) args[1], ((byte[]) args[1]).length));
+                    return null;
+                case "putStringState":
+                    write(txId, txTimestamp, requireKey(args[0]), ((String) args[1]).getBytes(StandardCharsets.UTF_8));
+                    return null;
+                case "delState":
+                    write(txId, txTimestamp, (String) args[0], null);
+                    return null;
+                case "getStateByRange":
+                    return new InMemoryResultsIterator(range((String) args[0], (String) args[1]), "");
+                case "getStateByRangeWithPagination":
+                    return page(range((String) args[0], (String) args[1]), (Integer) args[2], (String) args[3]);
+                case "getStateByPartialCompositeKey":
+                    return new InMemoryResultsIterator(partialCompositeKey(compositeKeyPrefix(args)), "");
+                case "getStateByPartialCompositeKeyWithPagination":
+                    return page(partialCompositeKey(args[0].toString()), (Integer) args[1], (String) args[2]);
+                case "getHistoryForKey":
+                    List<KeyModification> modifications = history.get((String) args[0]);
+                    return new InMemoryHistoryIterator(modifications == null ? Collections.<KeyModification>emptyList() : modifications);
+                case "getPrivateData":
+                    return collection((String) args[0]).get((String) args[1]);
+                case "putPrivateData":
+                    collection((String) args[0]).put(requireKey(args[1]), Arrays.copyOf((byte[]) args[2], ((byte[]) args[2]).length));
+                    return null;
+                case "getTransient":
+                    return transientData;
+                case "createCompositeKey":
+                    return new CompositeKey((String) args[0], (String[]) args[1]);
+                case "splitCompositeKey":
+                    return CompositeKey.parseCompositeKey((String) args[0]);
+                case "setEvent":
+                    events.put(txId, (byte[]) args[1]);
+                    return null;
+                case "getTxId":
+                    return txId;
+                case "getFunction":
+                    return function;
+                case "getChannelId":
+                    return CHANNEL_ID;
+                case "getTxTimestamp":
+                    return txTimestamp;
+                case "getCreator":
+                    return CREATOR.clone();
+                case "getMspId":
+                    return MSP_ID;
+                case "toString":
+                    return "InMemoryChaincodeStub[" + txId + "]";
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    throw new UnsupportedOperationException("The in-memory stub does not support " + method.getName());
+            }
+        }
+
+        private String requireKey(final Object key) {
+            if (key == null || ((String) key).isEmpty()) {
+                throw new IllegalArgumentException("key must not be null or empty");
+            }
+            return (String) key;
+        }
+    }
+
+    private static final class InMemoryKeyValue implements KeyValue {
+
+        private final String key;
+        private final byte[] value;
+
+        InMemoryKeyValue(final String key, final byte[] value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public byte[] getValue() {
+            return value;
+        }
+
+        @Override
+        public String getStringValue() {
+            return new String(value, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class InMemoryKeyModification implements KeyModification {
+
+        private final String txId;
+        private final Instant timestamp;
+        private final byte[] value;
+
+        InMemoryKeyModification(final String txId, final Instant timestamp, final byte[] value) {
+            this.txId = txId;
+            this.timestamp = timestamp;
+            this.value = value;
+        }
+
+        @Override
+        public String getTxId() {
+            return txId;
+        }
+
+        @Override
+        public byte[] getValue() {
+            return value == null ? new byte[0] : value;
+        }
+
+        @Override
+        public String getStringValue() {
+            return new String(getValue(), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Instant getTimestamp() {
+            return timestamp;
+        }
+
+        @Override
+        public boolean isDeleted() {
+            return value == null;
+        }
+    }
+
+    private static final class InMemoryHistoryIterator implements QueryResultsIterator<KeyModification> {
+
+        private final List<KeyModification> modifications;
+
+        InMemoryHistoryIterator(final List<KeyModification> modifications) {
+            this.modifications = new ArrayList<KeyModification>(modifications);
+        }
+
+        @Override
+        public Iterator<KeyModification> iterator() {
+            return modifications.iterator();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class InMemoryResultsIterator implements QueryResultsIteratorWithMetadata<KeyValue> {
+
+        private final List<KeyValue> keyValues;
+        private final String bookmark;
+
+        InMemoryResultsIterator(final List<KeyValue> keyValues, final String bookmark) {
+            this.keyValues = Collections.unmodifiableList(keyValues);
+            this.bookmark = bookmark;
+        }
+
+        @Override
+        public Iterator<KeyValue> iterator() {
+            return keyValues.iterator();
+        }
+
+        @Override
+        public QueryResponseMetadata getMetadata() {
+            return QueryResponseMetadata.newBuilder()
+                    .setBookmark(bookmark)
+                    .setFetchedRecordsCount(keyValues.size())
+                    .build();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}